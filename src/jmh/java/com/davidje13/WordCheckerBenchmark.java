@@ -0,0 +1,87 @@
+package com.davidje13;
+
+import com.davidje13.collections.BloomSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tokenize-and-check pipeline used by {@link Main}, measured per word.
+ * Run with the GC profiler to see the bytes allocated per word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class WordCheckerBenchmark {
+	private static final int WORDS = 10000;
+
+	@Param({"0", "10", "100"})
+	public int unknownPercent;
+
+	private WordChecker checker;
+	private byte[] text;
+	private final WritableByteChannel discard = new WritableByteChannel() {
+		@Override
+		public int write(ByteBuffer src) {
+			int n = src.remaining();
+			src.position(src.limit());
+			return n;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	@Setup
+	public void prepare() {
+		BloomSet dictionary = BloomSet.withMemoryAndExpectedSize(
+				256 * 1024 * 8,
+				WORDS
+		);
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < WORDS; ++ i) {
+			String word = "word" + i;
+			if (i % 100 >= unknownPercent) {
+				dictionary.add(word);
+			}
+			input.append(i % 10 == 0 ? "Word" + i : word).append(", ");
+		}
+		checker = new WordChecker(dictionary);
+		text = input.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public void check() throws IOException {
+		checker.check(
+				Channels.newChannel(new ByteArrayInputStream(text)),
+				discard
+		);
+	}
+}
@@ -0,0 +1,121 @@
+package com.davidje13.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item operations on a BloomSet which has been filled to its designed
+ * capacity (about half of the bits set).
+ *
+ * Adds go into an empty set which is replaced before each invocation, so
+ * that they measure adding new items rather than items already present.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BloomSetBenchmark {
+	private static final int KEYS = 4096; // must be a power of 2
+
+	@Param({"65536", "8388608", "268435456"}) // 8kB, 1MB, 32MB
+	public int bits;
+
+	@Param({"3", "7", "12"})
+	public int hashes;
+
+	@State(Scope.Thread)
+	public static class Insert {
+		@Param({"65536", "8388608", "268435456"})
+		public int bits;
+
+		@Param({"3", "7", "12"})
+		public int hashes;
+
+		private BloomSet set;
+
+		@Setup(Level.Invocation)
+		public void createEmptySet() {
+			set = new BloomSet(bits, hashes);
+		}
+	}
+
+	private BloomSet bloomSet;
+	private String[] members;
+	private String[] nonMembers;
+	private boolean[] results;
+	private int next = 0;
+
+	@Setup
+	public void fill() {
+		bloomSet = new BloomSet(bits, hashes);
+		int items = (int) (bits * Math.log(2.0) / hashes);
+		for (int i = 0; i < items; ++ i) {
+			bloomSet.add("value-" + i);
+		}
+
+		members = new String[KEYS];
+		nonMembers = new String[KEYS];
+		for (int i = 0; i < KEYS; ++ i) {
+			members[i] = "value-" + ((i * 7919L) % items);
+			nonMembers[i] = "other-" + i;
+		}
+		results = new boolean[KEYS];
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		return bloomSet.contains(members[nextKey()]);
+	}
+
+	@Benchmark
+	public boolean containsMiss() {
+		return bloomSet.contains(nonMembers[nextKey()]);
+	}
+
+	@Benchmark
+	public boolean containsLowerCase() {
+		return bloomSet.containsLowerCase(members[nextKey()]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public boolean containsAllBatch() {
+		return bloomSet.containsAll(nonMembers, results);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public boolean add(Insert state) {
+		boolean changed = false;
+		for (String key : nonMembers) {
+			changed |= state.set.add(key);
+		}
+		return changed;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public boolean addAllBatch(Insert state) {
+		return state.set.addAll(nonMembers);
+	}
+
+	private int nextKey() {
+		next = (next + 1) & (KEYS - 1);
+		return next;
+	}
+}
@@ -0,0 +1,105 @@
+package com.davidje13.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-set operations (which are linear in the size of the set).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BloomSetBulkBenchmark {
+	private static final int HASHES = 7;
+
+	@Param({"65536", "8388608", "268435456"}) // 8kB, 1MB, 32MB
+	public int bits;
+
+	private BloomSet bloomSet;
+	private BloomSet other;
+	private BloomSet copy;
+	private ByteArrayOutputStream out;
+	private byte[] serialised;
+
+	@Setup
+	public void fill() throws IOException {
+		bloomSet = new BloomSet(bits, HASHES);
+		other = new BloomSet(bits, HASHES);
+		int items = (int) (bits * Math.log(2.0) / HASHES);
+		for (int i = 0; i < items; ++ i) {
+			bloomSet.add("value-" + i);
+			if ((i & 1) == 0) {
+				other.add("value-" + i);
+			}
+		}
+
+		out = new ByteArrayOutputStream(bits / 8 + 1024);
+		bloomSet.writeTo(out);
+		serialised = out.toByteArray();
+		copy = BloomSet.readFrom(new ByteArrayInputStream(serialised));
+	}
+
+	@Benchmark
+	public BloomSet construct() {
+		return new BloomSet(bits, HASHES);
+	}
+
+	@Benchmark
+	public boolean merge() {
+		// other is a subset, so this has no effect but still visits every word
+		return bloomSet.addAll(other);
+	}
+
+	@Benchmark
+	public boolean intersect() {
+		// bloomSet is a superset, so this has no effect but still visits every
+		// word
+		return other.retainAll(bloomSet);
+	}
+
+	@Benchmark
+	public long estimatedSize() {
+		// constant-time; should not vary with the size of the set
+		return bloomSet.estimatedSize();
+	}
+
+	@Benchmark
+	public long estimatedUnionSize() {
+		return bloomSet.estimatedUnionSize(other);
+	}
+
+	@Benchmark
+	public boolean equality() {
+		// equal sets must compare every word
+		return bloomSet.equals(copy);
+	}
+
+	@Benchmark
+	public int writeTo() throws IOException {
+		out.reset();
+		bloomSet.writeTo(out);
+		return out.size();
+	}
+
+	@Benchmark
+	public BloomSet readFrom() throws IOException {
+		return BloomSet.readFrom(new ByteArrayInputStream(serialised));
+	}
+}
@@ -0,0 +1,159 @@
+package com.davidje13.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares lookups and adds across the filter implementations, with each
+ * holding the same number of items in (as near as possible) the same memory.
+ *
+ * The bloom filters and CuckooSet are given 10 bits per item, for a false-
+ * positive rate of about 1% (about 2.5% for CuckooSet, which must use 8-bit
+ * fingerprints at this density). CountingBloomSet is given 4 times as much
+ * memory, so that it has as many (4-bit) counters as BloomSet has bits and
+ * therefore the same false-positive rate. XorSet always uses about 9.84 bits
+ * per item (for about 0.4%).
+ *
+ * The larger size does not fit in CPU caches, so lookups are dominated by
+ * memory accesses: BlockedBloomSet and XorSet should show the benefit of
+ * touching fewer cache lines than BloomSet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FilterComparisonBenchmark {
+	private static final int BITS_PER_ITEM = 10;
+	private static final int KEYS = 4096; // must be a power of 2
+	private static final int ADD_KEYS = 65536;
+
+	@State(Scope.Benchmark)
+	public static class Lookup {
+		@Param({"bloom", "blocked", "splitBlock", "counting", "cuckoo", "xor"})
+		public String structure;
+
+		@Param({"1048576", "134217728"}) // 128kB, 16MB
+		public int bits;
+
+		private Collection<String> set;
+		private String[] members;
+		private String[] nonMembers;
+		private int next = 0;
+
+		@Setup
+		public void fill() {
+			int items = bits / BITS_PER_ITEM;
+			if (structure.equals("xor")) {
+				set = XorSet.of(IntStream.range(0, items).mapToObj(
+						(i) -> "value-" + i
+				));
+			} else {
+				set = create(structure, bits, items);
+				for (int i = 0; i < items; ++ i) {
+					set.add("value-" + i);
+				}
+			}
+
+			members = new String[KEYS];
+			nonMembers = new String[KEYS];
+			for (int i = 0; i < KEYS; ++ i) {
+				members[i] = "value-" + ((i * 7919L) % items);
+				nonMembers[i] = "other-" + i;
+			}
+		}
+
+		private int nextKey() {
+			next = (next + 1) & (KEYS - 1);
+			return next;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Insert {
+		@Param({"bloom", "blocked", "splitBlock", "counting", "cuckoo"})
+		public String structure;
+
+		@Param({"1048576", "134217728"}) // 128kB, 16MB
+		public int bits;
+
+		private Collection<String> set;
+		private String[] keys;
+
+		@Setup
+		public void prepareKeys() {
+			keys = new String[ADD_KEYS];
+			for (int i = 0; i < ADD_KEYS; ++ i) {
+				keys[i] = "value-" + i;
+			}
+		}
+
+		@Setup(Level.Invocation)
+		public void createEmptySet() {
+			// a new set each time, since CuckooSet stores duplicates and
+			// would eventually fill up
+			set = create(structure, bits, bits / BITS_PER_ITEM);
+		}
+	}
+
+	@Benchmark
+	public boolean containsHit(Lookup state) {
+		return state.set.contains(state.members[state.nextKey()]);
+	}
+
+	@Benchmark
+	public boolean containsMiss(Lookup state) {
+		return state.set.contains(state.nonMembers[state.nextKey()]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ADD_KEYS)
+	public boolean add(Insert state) {
+		boolean changed = false;
+		for (String key : state.keys) {
+			changed |= state.set.add(key);
+		}
+		return changed;
+	}
+
+	private static Collection<String> create(
+			String structure,
+			int bits,
+			int items
+	) {
+		switch (structure) {
+			case "bloom":
+				return BloomSet.withMemoryAndExpectedSize(bits, items);
+			case "blocked":
+				return BlockedBloomSet.withMemoryAndExpectedSize(bits, items);
+			case "splitBlock":
+				return BlockedBloomSet.splitBlock(bits);
+			case "counting":
+				return CountingBloomSet.withMemoryAndExpectedSize(
+						bits * 4,
+						items
+				);
+			case "cuckoo":
+				return CuckooSet.withMemoryAndExpectedSize(bits, items);
+			default:
+				throw new IllegalArgumentException(
+						"Unknown structure " + structure
+				);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.davidje13.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The overhead of {@link InstrumentedBloomSet} compared with the set it wraps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class InstrumentedBloomSetBenchmark {
+	private static final int KEYS = 4096; // must be a power of 2
+	private static final int BITS = 1024 * 1024 * 8;
+	private static final int ITEMS = 1000000;
+
+	@Param({"true", "false"})
+	public boolean enabled;
+
+	private BloomSet bloomSet;
+	private InstrumentedBloomSet instrumented;
+	private String[] keys;
+	private int next = 0;
+
+	@Setup
+	public void fill() {
+		bloomSet = BloomSet.withMemoryAndExpectedSize(BITS, ITEMS);
+		for (int i = 0; i < ITEMS; i += 2) {
+			bloomSet.add("value-" + i);
+		}
+		instrumented = new InstrumentedBloomSet(bloomSet, ITEMS);
+		instrumented.setEnabled(enabled);
+
+		keys = new String[KEYS];
+		for (int i = 0; i < KEYS; ++ i) {
+			keys[i] = "value-" + i;
+		}
+	}
+
+	@Benchmark
+	public boolean containsRaw() {
+		return bloomSet.contains(keys[nextKey()]);
+	}
+
+	@Benchmark
+	public boolean containsInstrumented() {
+		return instrumented.contains(keys[nextKey()]);
+	}
+
+	private int nextKey() {
+		next = (next + 1) & (KEYS - 1);
+		return next;
+	}
+}
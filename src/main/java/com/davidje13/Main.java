@@ -1,42 +1,106 @@
 package com.davidje13;
 
 import com.davidje13.collections.BloomSet;
+import com.davidje13.collections.Murmur3HashStrategy;
+import com.davidje13.collections.OffHeapBloomSet;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.Scanner;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
 
 public class Main {
+	private static final Charset UTF8 = StandardCharsets.UTF_8;
+
 	public static void main(String[] args) {
 		if (args.length == 0) {
 			showUsage();
 			return;
 		}
 
-		int sizeKb = 256;
-		BloomSet set = BloomSet.withMemoryAndExpectedSize(
-				sizeKb * 1024 * 8,
-				250000
-		);
+		if (args.length >= 2 && args[0].equals("--filter")) {
+			try (OffHeapBloomSet set = OffHeapBloomSet.map(Paths.get(args[1]))) {
+				checkWords(set, Arrays.copyOfRange(args, 2, args.length));
+			} catch (IOException e) {
+				System.err.println("Failed to load filter from " + args[1]);
+			}
+			return;
+		}
+
+		BloomSet set = loadWordList(args[0]);
+		if (set == null) {
+			return;
+		}
+
+		if (args.length >= 3 && args[1].equals("--save")) {
+			try {
+				set.writeTo(Paths.get(args[2]));
+			} catch (IOException e) {
+				System.err.println("Failed to save filter to " + args[2]);
+			}
+			return;
+		}
+
+		checkWords(set, Arrays.copyOfRange(args, 1, args.length));
+	}
+
+	private static BloomSet loadWordList(String path) {
+		int bits = 256 * 1024 * 8;
+		int hashCount = BloomSet.idealHashCount(250000, bits);
+
+		try (Stream<String> lines = Files.lines(new File(path).toPath(), UTF8)) {
+			return lines.parallel().collect(BloomSet.lowerCaseCollector(
+					bits,
+					hashCount,
+					new Murmur3HashStrategy()
+			));
+		} catch (IOException | UncheckedIOException e) {
+			System.err.println("Failed to load word list from " + path);
+			return null;
+		}
+	}
+
+	private static void checkWords(BloomSet set, String[] options) {
+		if (options.length >= 2 && options[0].equals("--input")) {
+			boolean ordered = !(
+					options.length >= 3 && options[2].equals("--unordered")
+			);
+			checkFile(set, options[1], ordered);
+			return;
+		}
 
-		Charset utf8 = StandardCharsets.UTF_8;
 		try {
-			Files.lines(new File(args[0]).toPath(), utf8)
-					.forEach((word) -> set.add(word.toLowerCase()));
+			new WordChecker(set).check(
+					Channels.newChannel(System.in),
+					Channels.newChannel(System.out)
+			);
 		} catch (IOException e) {
-			System.err.println("Failed to load word list from " + args[0]);
-			return;
+			System.err.println("Failed to read input");
+		} finally {
+			System.out.flush();
 		}
+	}
 
-		try (Scanner scanner = new Scanner(System.in, utf8.name())) {
-			scanner
-					.useDelimiter("[^a-zA-Z0-9]+")
-					.tokens()
-					.filter((word) -> !set.contains(word.toLowerCase()))
-					.forEach(System.out::println);
+	private static void checkFile(BloomSet set, String path, boolean ordered) {
+		ParallelWordChecker checker = new ParallelWordChecker(
+				set,
+				Runtime.getRuntime().availableProcessors(),
+				ParallelWordChecker.DEFAULT_CHUNK_SIZE,
+				ordered
+		);
+		try (FileChannel in = FileChannel.open(Paths.get(path))) {
+			checker.check(in, Channels.newChannel(System.out));
+		} catch (IOException e) {
+			System.err.println("Failed to read input from " + path);
+		} finally {
+			System.out.flush();
 		}
 	}
 
@@ -46,7 +110,17 @@ public class Main {
 		System.err.println();
 		System.err.println("Usage:");
 		System.err.println("  ./program <path_to_word_list>");
+		System.err.println("  ./program --filter <path_to_filter>");
 		System.err.println("  - provide words to check to stdin");
 		System.err.println("  - non-matching words are reported to stdout");
+		System.err.println();
+		System.err.println("  ./program <path_to_word_list> --input <path_to_text>");
+		System.err.println("  ./program --filter <path_to_filter> --input <path_to_text>");
+		System.err.println("  - checks a file using all available cores");
+		System.err.println("  - add --unordered to report words as soon as");
+		System.err.println("    they are found, rather than in file order");
+		System.err.println();
+		System.err.println("  ./program <path_to_word_list> --save <path_to_filter>");
+		System.err.println("  - builds a filter file for fast startup");
 	}
 }
@@ -0,0 +1,210 @@
+package com.davidje13;
+
+import com.davidje13.collections.BloomSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks a file against a dictionary using several threads.
+ *
+ * The file is divided into chunks which end between words, and each chunk is
+ * memory-mapped and checked by a {@link WordChecker} on a worker thread.
+ * Workers share the dictionary's bits (through {@link BloomSet#view()}), so
+ * the dictionary must not be modified while checking.
+ *
+ * Unknown words can be reported in the order they appear in the file, or in
+ * whichever order chunks finish (which avoids waiting for slow chunks). Only
+ * a few chunks per thread are in progress at once, so memory use does not
+ * depend on the size of the file.
+ *
+ * Instances are not thread-safe.
+ */
+final class ParallelWordChecker {
+	static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	// chunks can grow to twice this to avoid splitting words, and must still
+	// fit in a single mapped buffer
+	private static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE / 2;
+
+	private static final int PENDING_CHUNKS_PER_THREAD = 4;
+
+	private final BloomSet dictionary;
+	private final int threads;
+	private final int chunkSize;
+	private final boolean ordered;
+
+	/**
+	 * @param dictionary the words to accept
+	 * @param threads    the number of worker threads to use
+	 * @param chunkSize  the approximate number of bytes to check in each task
+	 * @param ordered    {@code true} to report unknown words in the order
+	 *                   they appear in the input
+	 */
+	ParallelWordChecker(
+			BloomSet dictionary,
+			int threads,
+			int chunkSize,
+			boolean ordered
+	) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be positive");
+		}
+		if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+			throw new IllegalArgumentException(
+					"chunkSize must be from 1 to " + MAX_CHUNK_SIZE
+			);
+		}
+		this.dictionary = dictionary;
+		this.threads = threads;
+		this.chunkSize = chunkSize;
+		this.ordered = ordered;
+	}
+
+	/**
+	 * Reads all text from the given file, and writes each word which is not
+	 * in the dictionary to the output channel, followed by a newline.
+	 *
+	 * Words longer than the chunk size may be split.
+	 *
+	 * @param in  the UTF-8 text to check (this is not closed)
+	 * @param out receives words which are not in the dictionary (this is not
+	 *            closed)
+	 * @throws IOException if either channel fails
+	 */
+	void check(FileChannel in, WritableByteChannel out) throws IOException {
+		ThreadLocal<WordChecker> checkers = ThreadLocal.withInitial(
+				() -> new WordChecker(dictionary.view())
+		);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CompletionService<ByteBuffer> completion =
+				new ExecutorCompletionService<>(pool);
+		Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+		int maxPending = threads * PENDING_CHUNKS_PER_THREAD;
+
+		try {
+			long size = in.size();
+			long begin = 0;
+			while (begin < size) {
+				long end = chunkEnd(in, begin, size);
+				Callable<ByteBuffer> task =
+						checkChunk(checkers, in, begin, end);
+				// completed tasks are only queued in unordered mode, since
+				// ordered mode waits for each future in turn
+				if (ordered) {
+					pending.add(pool.submit(task));
+				} else {
+					pending.add(completion.submit(task));
+				}
+				begin = end;
+				if (pending.size() >= maxPending) {
+					writeFully(out, nextResult(completion, pending));
+				}
+			}
+			while (!pending.isEmpty()) {
+				writeFully(out, nextResult(completion, pending));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private long chunkEnd(FileChannel in, long begin, long size)
+			throws IOException
+	{
+		long end = begin + chunkSize;
+		if (end >= size) {
+			return size;
+		}
+
+		// move forwards to the end of the current word, so that no word is
+		// split between chunks
+		ByteBuffer probe = ByteBuffer.allocate(64);
+		long limit = Math.min(end + chunkSize, size);
+		while (end < limit) {
+			probe.clear();
+			int count = in.read(probe, end);
+			if (count <= 0) {
+				break;
+			}
+			for (int i = 0; i < count; ++ i) {
+				if (!WordChecker.isWordByte(probe.get(i))) {
+					return end + i;
+				}
+			}
+			end += count;
+		}
+		return Math.min(end, limit);
+	}
+
+	private static Callable<ByteBuffer> checkChunk(
+			ThreadLocal<WordChecker> checkers,
+			FileChannel in,
+			long begin,
+			long end
+	) {
+		return () -> {
+			ByteBuffer chunk = in.map(
+					FileChannel.MapMode.READ_ONLY,
+					begin,
+					end - begin
+			);
+			ByteArrayOutputStream result = new ByteArrayOutputStream();
+			checkers.get().check(chunk, Channels.newChannel(result));
+			return ByteBuffer.wrap(result.toByteArray());
+		};
+	}
+
+	private ByteBuffer nextResult(
+			CompletionService<ByteBuffer> completion,
+			Deque<Future<ByteBuffer>> pending
+	) throws IOException {
+		try {
+			Future<ByteBuffer> next;
+			if (ordered) {
+				next = pending.removeFirst();
+			} else {
+				next = completion.take();
+				pending.remove(next);
+			}
+			return next.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private static void writeFully(WritableByteChannel out, ByteBuffer source)
+			throws IOException
+	{
+		while (source.hasRemaining()) {
+			out.write(source);
+		}
+	}
+}
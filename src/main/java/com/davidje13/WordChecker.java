@@ -0,0 +1,172 @@
+package com.davidje13;
+
+import com.davidje13.collections.BloomSet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits text into words (runs of ASCII letters and digits) and reports any
+ * which are not in a dictionary.
+ *
+ * Input is read in large blocks from a channel and tokenised directly on the
+ * UTF-8 bytes: every byte of a multi-byte character is at least 0x80, so is
+ * never part of a word. Each word is copied into a reused buffer and looked
+ * up as a {@link CharSequence} view of that buffer, and unknown words are
+ * collected into a buffered output block, so checking does not allocate
+ * memory.
+ *
+ * Instances are not thread-safe.
+ */
+final class WordChecker {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final BloomSet dictionary;
+	private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+	private final ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+	private final AsciiWord word = new AsciiWord();
+
+	WordChecker(BloomSet dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * Reads all text from the given channel, and writes each word which is not
+	 * in the dictionary to the output channel, followed by a newline.
+	 *
+	 * @param in  the UTF-8 text to check (this is not closed)
+	 * @param out receives words which are not in the dictionary (this is not
+	 *            closed)
+	 * @throws IOException if either channel fails
+	 */
+	void check(ReadableByteChannel in, WritableByteChannel out)
+			throws IOException
+	{
+		word.length = 0;
+		input.clear();
+		output.clear();
+		while (in.read(input) != -1) {
+			input.flip();
+			scan(input, out);
+			input.clear();
+		}
+		finish(out);
+	}
+
+	/**
+	 * Checks all text in the given buffer (from its position to its limit),
+	 * and writes each word which is not in the dictionary to the output
+	 * channel, followed by a newline. The buffer's position is not changed.
+	 *
+	 * @param in  the UTF-8 text to check (may be a direct or mapped buffer)
+	 * @param out receives words which are not in the dictionary (this is not
+	 *            closed)
+	 * @throws IOException if the output channel fails
+	 */
+	void check(ByteBuffer in, WritableByteChannel out) throws IOException {
+		word.length = 0;
+		output.clear();
+		scan(in, out);
+		finish(out);
+	}
+
+	private void scan(ByteBuffer in, WritableByteChannel out)
+			throws IOException
+	{
+		for (int i = in.position(), end = in.limit(); i < end; ++ i) {
+			byte c = in.get(i);
+			if (isWordByte(c)) {
+				word.append(c);
+			} else if (word.length > 0) {
+				checkWord(out);
+			}
+		}
+	}
+
+	private void finish(WritableByteChannel out) throws IOException {
+		if (word.length > 0) {
+			checkWord(out);
+		}
+		flush(out);
+	}
+
+	private void checkWord(WritableByteChannel out) throws IOException {
+		if (!dictionary.containsLowerCase(word)) {
+			if (output.remaining() <= word.length) {
+				flush(out);
+			}
+			if (output.remaining() <= word.length) {
+				// too long to buffer
+				writeFully(out, ByteBuffer.wrap(word.bytes, 0, word.length));
+				writeFully(out, ByteBuffer.wrap(new byte[]{'\n'}));
+			} else {
+				output.put(word.bytes, 0, word.length).put((byte) '\n');
+			}
+		}
+		word.length = 0;
+	}
+
+	private void flush(WritableByteChannel out) throws IOException {
+		output.flip();
+		writeFully(out, output);
+		output.clear();
+	}
+
+	private static void writeFully(WritableByteChannel out, ByteBuffer source)
+			throws IOException
+	{
+		while (source.hasRemaining()) {
+			out.write(source);
+		}
+	}
+
+	static boolean isWordByte(byte c) {
+		return (
+				(c >= 'a' && c <= 'z') ||
+				(c >= 'A' && c <= 'Z') ||
+				(c >= '0' && c <= '9')
+		);
+	}
+
+	/**
+	 * A reusable {@link CharSequence} over ASCII bytes.
+	 */
+	private static final class AsciiWord implements CharSequence {
+		byte[] bytes = new byte[64];
+		int length = 0;
+
+		void append(byte c) {
+			if (length == bytes.length) {
+				bytes = Arrays.copyOf(bytes, length * 2);
+			}
+			bytes[length++] = c;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index >= length) {
+				throw new IndexOutOfBoundsException();
+			}
+			return (char) bytes[index];
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+		}
+	}
+}
@@ -0,0 +1,494 @@
+package com.davidje13.collections;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * The shared implementation of {@link BloomSet} and {@link LargeBloomSet}.
+ *
+ * Bits are held and probed by a {@link BloomBits}, so this class only adds
+ * the hashing of Strings; subclasses only add the parts which depend on the
+ * size of the set, such as whether sizes are reported as {@code int} or
+ * {@code long}.
+ *
+ * @param <S> the concrete type of set, which can be combined with this one
+ */
+@SuppressWarnings("WeakerAccess")
+abstract class AbstractBloomSet<S extends AbstractBloomSet<S>>
+		extends AbstractCollection<String>
+		implements Set<String>
+{
+	private static final int BATCH_SIZE = BloomBits.BATCH_SIZE;
+
+	final BloomBits bits;
+	private final HashStrategy hashStrategy;
+	private final long[] hashCache = new long[2];
+	private long[] batchState = null;
+
+	AbstractBloomSet(
+			BitStore internal,
+			int hashCount,
+			HashStrategy hashStrategy
+	) {
+		if (hashStrategy == null) {
+			throw new NullPointerException();
+		}
+		this.bits = new BloomBits(internal, hashCount, hashStrategy);
+		this.hashStrategy = hashStrategy;
+	}
+
+	/**
+	 * Creates an empty set with the same configuration as this one.
+	 *
+	 * @return a new empty set
+	 */
+	abstract S emptyCopy();
+
+	/**
+	 * Returns {@code true} if the given object is the same kind of set as this
+	 * one. Sets of different kinds are never equal, even if their content is.
+	 *
+	 * @param other the object to check
+	 * @return {@code true} if the object is the same kind of set
+	 */
+	abstract boolean isSameKind(Object other);
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation checks the running count of set bits.
+	 */
+	@Override
+	public boolean isEmpty() {
+		return bits.isEmpty();
+	}
+
+	/**
+	 * Test membership of the given value.
+	 *
+	 * Due to the nature of bloom filters, this may report false positives, but
+	 * will never report false negatives.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the value appears to be in the set
+	 */
+	@Override
+	public boolean contains(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		hashStrategy.hash((String) value, hashCache);
+		return containsHash(hashCache);
+	}
+
+	/**
+	 * Test membership of the lower-case form of the given value.
+	 *
+	 * This is equivalent to calling {@link #contains(Object)} with a lower-
+	 * case copy of the value (converting each code point with
+	 * {@link Character#toLowerCase(int)}), but does not need to allocate
+	 * memory.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the lower-case value appears to be in the set
+	 * @see #addLowerCase(CharSequence)
+	 */
+	public boolean containsLowerCase(CharSequence value) {
+		if (value == null) {
+			return false;
+		}
+
+		hashStrategy.hashLowerCase(value, hashCache);
+		return containsHash(hashCache);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public boolean add(String value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		hashStrategy.hash(value, hashCache);
+		return addHash(hashCache);
+	}
+
+	/**
+	 * Adds the lower-case form of the given value to this set.
+	 *
+	 * This is equivalent to calling {@link #add(String)} with a lower-case
+	 * copy of the value (converting each code point with
+	 * {@link Character#toLowerCase(int)}), but does not need to allocate
+	 * memory.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if this set changed as a result of the call
+	 * @throws NullPointerException if the value is null
+	 * @see #containsLowerCase(CharSequence)
+	 */
+	public boolean addLowerCase(CharSequence value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		hashStrategy.hashLowerCase(value, hashCache);
+		return addHash(hashCache);
+	}
+
+	/**
+	 * Adds all of the given values to this set.
+	 *
+	 * This is equivalent to calling {@link #add(String)} for each value, but
+	 * is faster for large arrays: values are hashed in batches, then the bits
+	 * for the whole batch are updated together, so that the memory accesses
+	 * for different values can overlap.
+	 *
+	 * @param values the values to add
+	 * @return {@code true} if this set changed as a result of the call
+	 * @throws NullPointerException if any value is null (earlier values may
+	 *                              have been added)
+	 */
+	public boolean addAll(String[] values) {
+		long[] state = batchState();
+		boolean changed = false;
+		for (int begin = 0; begin < values.length; begin += BATCH_SIZE) {
+			int count = Math.min(values.length - begin, BATCH_SIZE);
+			for (int j = 0; j < count; ++ j) {
+				String value = values[begin + j];
+				if (value == null) {
+					throw new NullPointerException();
+				}
+				hashStrategy.hash(value, hashCache);
+				state[j * 2] = hashCache[0];
+				state[j * 2 + 1] = hashCache[1];
+			}
+			changed |= bits.addBatch(state, count);
+		}
+		return changed;
+	}
+
+	/**
+	 * Tests membership of each of the given values.
+	 *
+	 * This is equivalent to calling {@link #contains(Object)} for each value,
+	 * but is faster for large arrays: values are hashed in batches, then the
+	 * bits for the whole batch are tested together, so that the memory
+	 * accesses for different values can overlap.
+	 *
+	 * @param values  the values to test for membership
+	 * @param results receives the result for each value (at the same index)
+	 * @return {@code true} if all of the values appear to be in the set
+	 * @throws IllegalArgumentException if {@code results} is shorter than
+	 *                                  {@code values}
+	 * @see #contains(Object)
+	 */
+	public boolean containsAll(String[] values, boolean[] results) {
+		if (results.length < values.length) {
+			throw new IllegalArgumentException("results array is too short");
+		}
+		long[] state = batchState();
+		boolean all = true;
+		for (int begin = 0; begin < values.length; begin += BATCH_SIZE) {
+			int count = Math.min(values.length - begin, BATCH_SIZE);
+			for (int j = 0; j < count; ++ j) {
+				String value = values[begin + j];
+				results[begin + j] = (value != null);
+				if (value != null) {
+					hashStrategy.hash(value, hashCache);
+					state[j * 2] = hashCache[0];
+					state[j * 2 + 1] = hashCache[1];
+				}
+			}
+			all &= bits.containsBatch(state, count, results, begin);
+		}
+		return all;
+	}
+
+	/**
+	 * ORs the bits of a similar set into this one.
+	 *
+	 * @param values a set with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 */
+	boolean or(S values) {
+		return bits.or(values.bits);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation builds a new set with the given values then ANDs
+	 * the resulting bit-set with its own.
+	 */
+	@Override
+	public boolean retainAll(Collection<?> values) {
+		S other = emptyCopy();
+		values.stream()
+				.filter(String.class::isInstance)
+				.forEach((o) -> other.add((String) o));
+		return and(other);
+	}
+
+	/**
+	 * ANDs the bits of a similar set into this one.
+	 *
+	 * @param values a set with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 */
+	boolean and(S values) {
+		return bits.and(values.bits);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation resets the internal bloom bit-set. It is a linear-
+	 * time operation.
+	 */
+	@Override
+	public void clear() {
+		bits.clear();
+	}
+
+	/**
+	 * Returns the proportion of bits which are currently set. A set where
+	 * about half of the bits are set is at its designed capacity; beyond that
+	 * the false-positive rate rises quickly.
+	 *
+	 * @return a value from 0 (empty) to 1 (saturated)
+	 */
+	public double fillRatio() {
+		return bits.fillRatio();
+	}
+
+	/**
+	 * Estimates the number of distinct items in this set from the number of
+	 * set bits. This is a constant-time operation.
+	 *
+	 * The estimate becomes less accurate as the set fills, and is
+	 * {@link Long#MAX_VALUE} if every bit is set.
+	 *
+	 * @return the estimated number of distinct items in this set
+	 * @see BloomSet#estimatedItems(long, long, int)
+	 */
+	public long estimatedSize() {
+		return bits.estimatedSize();
+	}
+
+	/**
+	 * Estimates the number of distinct items in the union of this set and a
+	 * similar set, by counting the bits which are set in either.
+	 *
+	 * @param other a set with the same configuration as this one
+	 * @return the estimated number of distinct items in either set
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 */
+	long unionSize(S other) {
+		return bits.unionSize(other.bits);
+	}
+
+	/**
+	 * Estimates the number of distinct items in both this set and a similar
+	 * set, by inclusion-exclusion.
+	 *
+	 * @param other a set with the same configuration as this one
+	 * @return the estimated number of distinct items in both sets
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 */
+	long intersectionSize(S other) {
+		return bits.intersectionSize(other.bits);
+	}
+
+	/**
+	 * Returns the number of hashes generated when adding elements or testing
+	 * membership.
+	 *
+	 * @return the number of hashes generated when adding elements or testing
+	 *         membership
+	 */
+	public int hashes() {
+		return bits.hashes();
+	}
+
+	/**
+	 * Returns the hash function used when adding elements or testing
+	 * membership.
+	 *
+	 * @return the hash function used by this set
+	 */
+	public HashStrategy hashStrategy() {
+		return hashStrategy;
+	}
+
+	/**
+	 * Writes this set to a stream.
+	 *
+	 * @param out the stream to write to (this is not closed)
+	 * @throws IOException if the stream cannot be written
+	 * @throws IllegalArgumentException if the set uses a custom
+	 *                                  {@link HashStrategy}
+	 * @see #writeTo(WritableByteChannel)
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		writeTo(Channels.newChannel(out));
+	}
+
+	/**
+	 * Writes this set to a channel.
+	 *
+	 * The configuration of the set is written along with its content. Sparse
+	 * sets (with few non-zero words) are compressed by omitting the empty
+	 * words. The set can be read again with
+	 * {@link BloomSet#readFrom(java.nio.channels.ReadableByteChannel)} or
+	 * {@link LargeBloomSet#readFrom(java.nio.channels.ReadableByteChannel)}.
+	 *
+	 * @param channel the (blocking) channel to write to (this is not closed)
+	 * @throws IOException if the channel cannot be written
+	 * @throws IllegalArgumentException if the set uses a custom
+	 *                                  {@link HashStrategy}
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		BloomSetFormat.write(
+				channel,
+				bits.store,
+				hashes(),
+				hashStrategy,
+				true
+		);
+	}
+
+	/**
+	 * Writes this set to a file, replacing any existing content.
+	 *
+	 * The file records the configuration of the set as well as its bits, and
+	 * can be opened again in constant time with
+	 * {@link OffHeapBloomSet#map(Path)} or
+	 * {@link OffHeapLargeBloomSet#map(Path)}.
+	 *
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if the set uses a custom
+	 *                                  {@link HashStrategy}
+	 */
+	public void writeTo(Path file) throws IOException {
+		BloomSetFormat.write(file, bits.store, hashes(), hashStrategy);
+	}
+
+	/**
+	 * Returns a value identifying the configuration (size, hash count and
+	 * hash strategy) of this set.
+	 *
+	 * Sets can only be combined (e.g. with {@code addAll}) if they have the
+	 * same fingerprint. For the built-in hash strategies, the fingerprint is
+	 * stable across processes, so it can be used to check compatibility
+	 * before transferring a set.
+	 *
+	 * @return the configuration fingerprint of this set
+	 */
+	public long configurationFingerprint() {
+		return BloomSetFormat.fingerprint(
+				bits.sizeBits(),
+				hashes(),
+				hashStrategy
+		);
+	}
+
+	/**
+	 * Returns the number of elements in this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by bloom
+	 *                                       sets
+	 * @deprecated not supported
+	 * @see #estimatedSize()
+	 */
+	@Override
+	@Deprecated
+	public int size() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns an iterator over the elements contained in this collection (not
+	 * supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by bloom
+	 *                                       sets
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public Iterator<String> iterator() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!isSameKind(other)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		AbstractBloomSet<?> o = (AbstractBloomSet<?>) other;
+		return o.bits.contentEquals(bits);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return bits.contentHashCode();
+	}
+
+	/**
+	 * Tests membership of a value which has already been hashed using this
+	 * set's hash strategy.
+	 *
+	 * @param hash the hash of the value
+	 * @return {@code true} if the value appears to be in the set
+	 */
+	boolean containsHash(long[] hash) {
+		return bits.containsHash(hash[0], hash[1]);
+	}
+
+	/**
+	 * Adds a value which has already been hashed using this set's hash
+	 * strategy.
+	 *
+	 * @param hash the hash of the value
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	boolean addHash(long[] hash) {
+		return bits.addHash(hash[0], hash[1]);
+	}
+
+	private long[] batchState() {
+		if (batchState == null) {
+			batchState = new long[BATCH_SIZE * 2];
+		}
+		return batchState;
+	}
+}
@@ -0,0 +1,224 @@
+package com.davidje13.collections;
+
+/**
+ * Fixed-size storage for a large number of bits, addressed by {@code long}
+ * index.
+ *
+ * Subclasses provide access to the underlying 64-bit words; the bit-level and
+ * bulk operations are built on top of those.
+ *
+ * A running count of set bits is maintained as words change, so
+ * {@link #cardinality()} does not need to scan the store. Stores which wrap
+ * existing data call {@link #invalidateCardinality()}, and the count is then
+ * computed on first use.
+ */
+abstract class BitStore {
+	private long cardinality = 0; // -1 if not yet counted
+
+	/**
+	 * Returns the number of 64-bit words in this store.
+	 *
+	 * @return the number of words in this store
+	 */
+	abstract long wordCount();
+
+	/**
+	 * Returns the word at the given index.
+	 *
+	 * @param index the index of the word (not the bit)
+	 * @return the word at the given index
+	 */
+	abstract long getWord(long index);
+
+	/**
+	 * Replaces the word at the given index without updating the count of set
+	 * bits.
+	 *
+	 * @param index the index of the word (not the bit)
+	 * @param word  the new value for the word
+	 */
+	abstract void putWord(long index, long word);
+
+	/**
+	 * Replaces the word at the given index.
+	 *
+	 * @param index the index of the word (not the bit)
+	 * @param word  the new value for the word
+	 */
+	void setWord(long index, long word) {
+		updateWord(index, getWord(index), word);
+	}
+
+	long sizeBits() {
+		return wordCount() * 64;
+	}
+
+	boolean get(long bit) {
+		return (getWord(bit >>> 6) & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Sets the given bit.
+	 *
+	 * @param bit the index of the bit to set
+	 * @return {@code true} if the bit was previously unset
+	 */
+	boolean set(long bit) {
+		long index = bit >>> 6;
+		long old = getWord(index);
+		long updated = old | (1L << bit);
+		if (updated == old) {
+			return false;
+		}
+		putWord(index, updated);
+		if (cardinality >= 0) {
+			++ cardinality;
+		}
+		return true;
+	}
+
+	/**
+	 * Sets every bit which is set in the other store.
+	 *
+	 * @param other a store with the same size as this one
+	 * @return {@code true} if any bits changed
+	 */
+	boolean or(BitStore other) {
+		boolean changed = false;
+		for (long i = 0, n = wordCount(); i < n; ++ i) {
+			long old = getWord(i);
+			long updated = old | other.getWord(i);
+			if (updated != old) {
+				updateWord(i, old, updated);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Clears every bit which is not set in the other store.
+	 *
+	 * @param other a store with the same size as this one
+	 * @return {@code true} if any bits changed
+	 */
+	boolean and(BitStore other) {
+		boolean changed = false;
+		for (long i = 0, n = wordCount(); i < n; ++ i) {
+			long old = getWord(i);
+			long updated = old & other.getWord(i);
+			if (updated != old) {
+				updateWord(i, old, updated);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	boolean isEmpty() {
+		if (cardinality >= 0) {
+			return cardinality == 0;
+		}
+		for (long i = 0, n = wordCount(); i < n; ++ i) {
+			if (getWord(i) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void clear() {
+		clearWords();
+		cardinality = 0;
+	}
+
+	/**
+	 * Sets every word to 0 without updating the count of set bits.
+	 */
+	void clearWords() {
+		for (long i = 0, n = wordCount(); i < n; ++ i) {
+			putWord(i, 0);
+		}
+	}
+
+	/**
+	 * Returns the number of set bits.
+	 *
+	 * This is a constant-time operation, except for the first call on a store
+	 * which wraps existing data.
+	 *
+	 * @return the number of set bits
+	 */
+	long cardinality() {
+		if (cardinality < 0) {
+			long count = 0;
+			for (long i = 0, n = wordCount(); i < n; ++ i) {
+				count += Long.bitCount(getWord(i));
+			}
+			cardinality = count;
+		}
+		return cardinality;
+	}
+
+	/**
+	 * Counts the bits which are set in either this store or the other,
+	 * without modifying either.
+	 *
+	 * @param other a store with the same size as this one
+	 * @return the number of bits set in the union of the stores
+	 */
+	long unionCardinality(BitStore other) {
+		long count = 0;
+		for (long i = 0, n = wordCount(); i < n; ++ i) {
+			count += Long.bitCount(getWord(i) | other.getWord(i));
+		}
+		return count;
+	}
+
+	/**
+	 * Replaces the count of set bits after the words have been updated
+	 * directly by a subclass.
+	 *
+	 * @param count the number of set bits
+	 */
+	void recordCardinality(long count) {
+		cardinality = count;
+	}
+
+	/**
+	 * Marks the count of set bits as unknown, so that it will be recalculated
+	 * when next needed. Used when the words are populated externally.
+	 */
+	void invalidateCardinality() {
+		cardinality = -1;
+	}
+
+	boolean contentEquals(BitStore other) {
+		long n = wordCount();
+		if (other.wordCount() != n) {
+			return false;
+		}
+		for (long i = 0; i < n; ++ i) {
+			if (getWord(i) != other.getWord(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	int contentHashCode() {
+		// matches java.util.BitSet#hashCode
+		long h = 1234;
+		for (long i = wordCount(); -- i >= 0;) {
+			h ^= getWord(i) * (i + 1);
+		}
+		return (int) ((h >> 32) ^ h);
+	}
+
+	private void updateWord(long index, long old, long updated) {
+		putWord(index, updated);
+		if (cardinality >= 0) {
+			cardinality += Long.bitCount(updated) - Long.bitCount(old);
+		}
+	}
+}
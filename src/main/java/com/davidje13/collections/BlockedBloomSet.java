@@ -0,0 +1,600 @@
+package com.davidje13.collections;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A variant of {@link BloomSet} which confines all of the bits for an item to
+ * a single block, so that each lookup touches one block of memory rather than
+ * one random location per hash.
+ *
+ * Two layouts are available:
+ * <ul>
+ * <li>{@link #BlockedBloomSet(int, int) cache-line blocks}: 512-bit blocks
+ *     (the size of a typical cache line) with any number of hashes.</li>
+ * <li>{@link #splitBlock(int) split blocks}: 256-bit blocks made of eight
+ *     32-bit words, with exactly one bit set in each word. The per-word
+ *     operations are independent, which suits SIMD execution.</li>
+ * </ul>
+ *
+ * Blocking gives slightly more false positives than a classic bloom filter
+ * using the same memory, since some blocks receive more items than others.
+ * Java does not guarantee the alignment of arrays, so a block may straddle two
+ * cache lines.
+ */
+@SuppressWarnings("WeakerAccess")
+public class BlockedBloomSet
+		extends AbstractCollection<String>
+		implements Set<String>
+{
+	private static final int BLOCK_BITS = 512;
+	private static final int BLOCK_WORDS = BLOCK_BITS / 64;
+	private static final int SPLIT_BLOCK_BITS = 256;
+	private static final int SPLIT_BLOCK_WORDS = SPLIT_BLOCK_BITS / 64;
+	private static final int SPLIT_HASHES = 8;
+
+	// from the Parquet split-block bloom filter specification
+	private static final int[] SPLIT_SALT = {
+			0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+			0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31,
+	};
+
+	/**
+	 * Calculates the idealised false-positive rate for a given configuration
+	 * using cache-line blocks.
+	 *
+	 * Each block receives a Poisson-distributed number of items, and behaves
+	 * as a small classic bloom filter.
+	 *
+	 * @param items  the number of items expected to be in the set
+	 * @param bits   the number of bits allocated to the set
+	 * @param hashes the number of hashes used in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BloomSet#expectedFalsePositiveRatio(int, int, int)
+	 */
+	public static double expectedFalsePositiveRatio(
+			int items,
+			int bits,
+			int hashes
+	) {
+		int blocks = blockCount(bits, BLOCK_BITS);
+		return sumOverBlockLoads(
+				items / (double) blocks,
+				(load) -> BloomSet.expectedFalsePositiveRatio(
+						load,
+						BLOCK_BITS,
+						hashes
+				)
+		);
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given configuration
+	 * using split blocks.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @param bits  the number of bits allocated to the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 */
+	public static double expectedSplitBlockFalsePositiveRatio(
+			int items,
+			int bits
+	) {
+		int blocks = blockCount(bits, SPLIT_BLOCK_BITS);
+		return sumOverBlockLoads(
+				items / (double) blocks,
+				(load) -> Math.pow(
+						1.0 - Math.pow(1.0 - 1.0 / 32, load),
+						SPLIT_HASHES
+				)
+		);
+	}
+
+	/**
+	 * Calculates the best hash count to use to minimise idealised false-
+	 * positives for a given configuration using cache-line blocks.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @param bits  the number of bits allocated to the set
+	 * @return the optimum number of hashes to use
+	 */
+	public static int idealHashCount(int items, int bits) {
+		int best = 1;
+		double bestRatio = expectedFalsePositiveRatio(items, bits, best);
+		for (int hashes = 2; hashes <= 64; ++ hashes) {
+			double ratio = expectedFalsePositiveRatio(items, bits, hashes);
+			if (ratio >= bestRatio) {
+				break;
+			}
+			best = hashes;
+			bestRatio = ratio;
+		}
+		return best;
+	}
+
+	/**
+	 * Creates a new BlockedBloomSet using cache-line blocks, optimised for the
+	 * given constraints.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @return an optimal BlockedBloomSet for the given configuration
+	 */
+	public static BlockedBloomSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize
+	) {
+		return new BlockedBloomSet(bits, idealHashCount(expectedSize, bits));
+	}
+
+	/**
+	 * Creates a new BlockedBloomSet using split blocks.
+	 *
+	 * Split blocks always use 8 hashes.
+	 *
+	 * @param bits the amount of memory to allocate
+	 * @return a BlockedBloomSet using split blocks
+	 */
+	public static BlockedBloomSet splitBlock(int bits) {
+		return splitBlock(bits, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Creates a new BlockedBloomSet using split blocks and a specific hash
+	 * strategy.
+	 *
+	 * Split blocks always use 8 hashes.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param hashStrategy the hash function to use
+	 * @return a BlockedBloomSet using split blocks
+	 * @throws IllegalArgumentException if {@code bits} is more than
+	 *                                  {@code Integer.MAX_VALUE & ~511}
+	 */
+	public static BlockedBloomSet splitBlock(
+			int bits,
+			HashStrategy hashStrategy
+	) {
+		BloomSet.checkIntBits(bits, BLOCK_BITS);
+		return new BlockedBloomSet(
+				blockCount(bits, SPLIT_BLOCK_BITS) * SPLIT_BLOCK_BITS,
+				SPLIT_HASHES,
+				hashStrategy,
+				true
+		);
+	}
+
+	private final long[] words;
+	private final HashStrategy hashStrategy;
+	private final long[] hashCache = new long[2];
+	private final int hashCount;
+	private final boolean split;
+	private final int blockWords;
+	private final int blockCount;
+
+	/**
+	 * Create a BlockedBloomSet using cache-line blocks with specific
+	 * configuration.
+	 *
+	 * Actual memory usage will be rounded up to a multiple of 512 bits.
+	 *
+	 * @param bits      the amount of memory to allocate
+	 * @param hashCount the number of hashes to use
+	 * @throws IllegalArgumentException if {@code bits} is more than
+	 *                                  {@code Integer.MAX_VALUE & ~511}
+	 * @see BlockedBloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public BlockedBloomSet(int bits, int hashCount) {
+		this(bits, hashCount, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Create a BlockedBloomSet using cache-line blocks with specific
+	 * configuration.
+	 *
+	 * Actual memory usage will be rounded up to a multiple of 512 bits.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param hashCount    the number of hashes to use
+	 * @param hashStrategy the hash function to use
+	 * @throws IllegalArgumentException if {@code bits} is more than
+	 *                                  {@code Integer.MAX_VALUE & ~511}
+	 */
+	public BlockedBloomSet(int bits, int hashCount, HashStrategy hashStrategy) {
+		this(bits, hashCount, hashStrategy, false);
+	}
+
+	private BlockedBloomSet(
+			int bits,
+			int hashCount,
+			HashStrategy hashStrategy,
+			boolean split
+	) {
+		if (hashStrategy == null) {
+			throw new NullPointerException();
+		}
+		BloomSet.checkIntBits(bits, BLOCK_BITS);
+		this.split = split;
+		this.blockWords = split ? SPLIT_BLOCK_WORDS : BLOCK_WORDS;
+		this.blockCount = blockCount(bits, blockWords * 64);
+		this.words = new long[blockCount * blockWords];
+		this.hashCount = hashCount;
+		this.hashStrategy = hashStrategy;
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given number of items.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BlockedBloomSet#expectedFalsePositiveRatio(int, int, int)
+	 * @see BlockedBloomSet#expectedSplitBlockFalsePositiveRatio(int, int)
+	 */
+	public double expectedFalsePositiveRatio(int items) {
+		if (split) {
+			return expectedSplitBlockFalsePositiveRatio(
+					items,
+					memoryUsageBits()
+			);
+		}
+		return expectedFalsePositiveRatio(
+				items,
+				memoryUsageBits(),
+				hashes()
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation scans the bit-set until it finds a set bit.
+	 */
+	@Override
+	public boolean isEmpty() {
+		for (long word : words) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Test membership of the given value.
+	 *
+	 * Due to the nature of bloom filters, this may report false positives, but
+	 * will never report false negatives.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the value appears to be in the set
+	 * @see BlockedBloomSet#expectedFalsePositiveRatio(int)
+	 */
+	@Override
+	public boolean contains(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		hashStrategy.hash((String) value, hashCache);
+		return split ? containsSplitHash() : containsHash();
+	}
+
+	/**
+	 * Test membership of the lower-case form of the given value.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the lower-case value appears to be in the set
+	 * @see BloomSet#containsLowerCase(CharSequence)
+	 */
+	public boolean containsLowerCase(CharSequence value) {
+		if (value == null) {
+			return false;
+		}
+
+		hashStrategy.hashLowerCase(value, hashCache);
+		return split ? containsSplitHash() : containsHash();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public boolean add(String value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		hashStrategy.hash(value, hashCache);
+		return split ? addSplitHash() : addHash();
+	}
+
+	/**
+	 * Adds the lower-case form of the given value to this set.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if this set changed as a result of the call
+	 * @throws NullPointerException if the value is null
+	 * @see BloomSet#addLowerCase(CharSequence)
+	 */
+	public boolean addLowerCase(CharSequence value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		hashStrategy.hashLowerCase(value, hashCache);
+		return split ? addSplitHash() : addHash();
+	}
+
+	/**
+	 * Adds all of the elements in the specified BlockedBloomSet to this set if
+	 * they're not already present.
+	 *
+	 * @param  values a BlockedBloomSet with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see #add(Object)
+	 */
+	public boolean addAll(BlockedBloomSet values) {
+		checkSimilar(values);
+		long changed = 0;
+		for (int i = 0; i < words.length; ++ i) {
+			long old = words[i];
+			words[i] = old | values.words[i];
+			changed |= words[i] ^ old;
+		}
+		return changed != 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation builds a new BlockedBloomSet with the given values
+	 * then ANDs the resulting bit-set with its own.
+	 */
+	@Override
+	public boolean retainAll(Collection<?> values) {
+		BlockedBloomSet other = new BlockedBloomSet(
+				memoryUsageBits(),
+				hashes(),
+				hashStrategy,
+				split
+		);
+		values.stream()
+				.filter(String.class::isInstance)
+				.forEach((o) -> other.add((String) o));
+		return retainAll(other);
+	}
+
+	/**
+	 * Retains only the elements in this set that are contained in the
+	 * specified BlockedBloomSet.
+	 *
+	 * @param  values a BlockedBloomSet with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see #remove(Object)
+	 */
+	public boolean retainAll(BlockedBloomSet values) {
+		checkSimilar(values);
+		long changed = 0;
+		for (int i = 0; i < words.length; ++ i) {
+			long old = words[i];
+			words[i] = old & values.words[i];
+			changed |= words[i] ^ old;
+		}
+		return changed != 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(words, 0);
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public int memoryUsageBits() {
+		return words.length * 64;
+	}
+
+	/**
+	 * Returns the number of hashes generated when adding elements or testing
+	 * membership.
+	 *
+	 * @return the number of hashes generated when adding elements or testing
+	 *         membership
+	 */
+	public int hashes() {
+		return hashCount;
+	}
+
+	/**
+	 * Returns the hash function used when adding elements or testing
+	 * membership.
+	 *
+	 * @return the hash function used by this set
+	 */
+	public HashStrategy hashStrategy() {
+		return hashStrategy;
+	}
+
+	/**
+	 * Returns whether this set uses the split block layout.
+	 *
+	 * @return {@code true} if this set uses split blocks, {@code false} if it
+	 *         uses cache-line blocks
+	 * @see #splitBlock(int)
+	 */
+	public boolean isSplitBlock() {
+		return split;
+	}
+
+	/**
+	 * Returns the number of elements in this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       BlockedBloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public int size() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns an iterator over the elements contained in this collection (not
+	 * supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       BlockedBloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public Iterator<String> iterator() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof BlockedBloomSet)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		BlockedBloomSet o = (BlockedBloomSet) other;
+		return (
+				Arrays.equals(o.words, words)
+				&& o.hashes() == hashes()
+				&& o.split == split
+				&& o.hashStrategy.equals(hashStrategy)
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(words) + hashes();
+	}
+
+	private int blockOffset() {
+		return Math.floorMod(hashCache[0], blockCount) * blockWords;
+	}
+
+	private boolean containsHash() {
+		int offset = blockOffset();
+		int index = (int) hashCache[1];
+		int step = (int) (hashCache[1] >>> 32);
+		for (int i = 0; i < hashCount; ++ i) {
+			int bit = index & (BLOCK_BITS - 1);
+			if ((words[offset + (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+			index += step;
+			step += i + 1;
+		}
+		return true;
+	}
+
+	private boolean addHash() {
+		int offset = blockOffset();
+		int index = (int) hashCache[1];
+		int step = (int) (hashCache[1] >>> 32);
+		long changed = 0;
+		for (int i = 0; i < hashCount; ++ i) {
+			int bit = index & (BLOCK_BITS - 1);
+			int word = offset + (bit >>> 6);
+			long old = words[word];
+			words[word] = old | (1L << bit);
+			changed |= words[word] ^ old;
+			index += step;
+			step += i + 1;
+		}
+		return changed != 0;
+	}
+
+	private boolean containsSplitHash() {
+		int offset = blockOffset();
+		int key = (int) hashCache[1];
+		long missing = 0;
+		for (int i = 0; i < SPLIT_BLOCK_WORDS; ++ i) {
+			long mask = splitMask(key, i);
+			missing |= mask & ~words[offset + i];
+		}
+		return missing == 0;
+	}
+
+	private boolean addSplitHash() {
+		int offset = blockOffset();
+		int key = (int) hashCache[1];
+		long changed = 0;
+		for (int i = 0; i < SPLIT_BLOCK_WORDS; ++ i) {
+			long mask = splitMask(key, i);
+			long old = words[offset + i];
+			words[offset + i] = old | mask;
+			changed |= mask & ~old;
+		}
+		return changed != 0;
+	}
+
+	private static long splitMask(int key, int word) {
+		// each long holds two of the eight 32-bit words in the block
+		int lo = (key * SPLIT_SALT[word * 2]) >>> 27;
+		int hi = (key * SPLIT_SALT[word * 2 + 1]) >>> 27;
+		return (1L << lo) | (1L << (hi + 32));
+	}
+
+	private void checkSimilar(BlockedBloomSet other) {
+		if (
+				other.memoryUsageBits() != memoryUsageBits()
+				|| other.hashes() != hashes()
+				|| other.split != split
+				|| !other.hashStrategy.equals(hashStrategy)
+		) {
+			throw new IllegalArgumentException(
+					"BlockedBloomSets are not compatible"
+			);
+		}
+	}
+
+	private static int blockCount(int bits, int blockBits) {
+		return (int) Math.max(1, (bits + blockBits - 1L) / blockBits);
+	}
+
+	private static double sumOverBlockLoads(
+			double meanLoad,
+			IntToDoubleFunction ratioForLoad
+	) {
+		int limit = (int) Math.ceil(meanLoad + 20 * Math.sqrt(meanLoad) + 20);
+		double logMean = Math.log(meanLoad);
+		double logProbability = -meanLoad;
+		double total = 0;
+		for (int load = 0; load <= limit; ++ load) {
+			total += Math.exp(logProbability) * ratioForLoad.applyAsDouble(load);
+			logProbability += logMean - Math.log(load + 1);
+		}
+		return total;
+	}
+}
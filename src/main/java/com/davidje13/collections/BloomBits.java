@@ -0,0 +1,243 @@
+package com.davidje13.collections;
+
+/**
+ * The bits and probing logic shared by all of the standard bloom sets.
+ *
+ * Each set hashes its keys in its own way, producing two 64-bit values;
+ * this class turns those into bucket indices using enhanced double hashing,
+ * and provides the operations which only depend on the bits (combining
+ * sets, estimating sizes and comparing content).
+ */
+final class BloomBits {
+	static final int BATCH_SIZE = 64;
+
+	final BitStore store;
+	private final int hashCount;
+	private final Object hashing;
+
+	/**
+	 * Creates a bloom bit-set on top of the given store.
+	 *
+	 * @param store     the bits to use
+	 * @param hashCount the number of hashes to use
+	 * @param hashing   identifies how keys are hashed; sets can only be
+	 *                  combined or equal if this is equal
+	 * @throws IllegalArgumentException if {@code hashCount} is less than 1
+	 */
+	BloomBits(BitStore store, int hashCount, Object hashing) {
+		checkHashCount(hashCount);
+		this.store = store;
+		this.hashCount = hashCount;
+		this.hashing = hashing;
+	}
+
+	static void checkHashCount(int hashCount) {
+		if (hashCount < 1) {
+			throw new IllegalArgumentException("hashCount must be positive");
+		}
+	}
+
+	int hashes() {
+		return hashCount;
+	}
+
+	long sizeBits() {
+		return store.sizeBits();
+	}
+
+	long bitCount() {
+		return store.cardinality();
+	}
+
+	boolean isEmpty() {
+		return store.isEmpty();
+	}
+
+	void clear() {
+		store.clear();
+	}
+
+	/**
+	 * Tests membership of a value with the given hash.
+	 *
+	 * @param h1 the first half of the hash of the value
+	 * @param h2 the second half of the hash of the value
+	 * @return {@code true} if the value appears to be in the set
+	 */
+	boolean containsHash(long h1, long h2) {
+		long bucketCount = store.sizeBits();
+		long index = h1;
+		long step = h2;
+		for (int i = 0; i < hashCount; ++ i) {
+			if (!store.get(Math.floorMod(index, bucketCount))) {
+				return false;
+			}
+			index += step;
+			step += i + 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a value with the given hash.
+	 *
+	 * @param h1 the first half of the hash of the value
+	 * @param h2 the second half of the hash of the value
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	boolean addHash(long h1, long h2) {
+		boolean changed = false;
+		long bucketCount = store.sizeBits();
+		long index = h1;
+		long step = h2;
+		for (int i = 0; i < hashCount; ++ i) {
+			changed |= store.set(Math.floorMod(index, bucketCount));
+			index += step;
+			step += i + 1;
+		}
+		return changed;
+	}
+
+	/**
+	 * Tests membership of a batch of hashed values. The hashes are stored in
+	 * pairs, and are consumed by this call.
+	 *
+	 * @param state   the hashes of up to {@link #BATCH_SIZE} values
+	 * @param count   the number of values in the batch
+	 * @param results on entry, {@code false} for values which should be
+	 *                skipped; on exit, the result for each value
+	 * @param offset  the index in {@code results} of the first value
+	 * @return {@code true} if all of the values appear to be in the set
+	 */
+	boolean containsBatch(
+			long[] state,
+			int count,
+			boolean[] results,
+			int offset
+	) {
+		long bucketCount = store.sizeBits();
+		int remaining = 0;
+		for (int j = 0; j < count; ++ j) {
+			if (results[offset + j]) {
+				++ remaining;
+			}
+		}
+		boolean all = (remaining == count);
+		for (int i = 0; i < hashCount && remaining > 0; ++ i) {
+			for (int j = 0; j < count; ++ j) {
+				if (!results[offset + j]) {
+					continue;
+				}
+				int p = j * 2;
+				if (!store.get(Math.floorMod(state[p], bucketCount))) {
+					results[offset + j] = false;
+					all = false;
+					-- remaining;
+				}
+				state[p] += state[p + 1];
+				state[p + 1] += i + 1;
+			}
+		}
+		return all;
+	}
+
+	/**
+	 * Adds a batch of hashed values. The hashes are stored in pairs, and are
+	 * consumed by this call.
+	 *
+	 * @param state the hashes of up to {@link #BATCH_SIZE} values
+	 * @param count the number of values in the batch
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	boolean addBatch(long[] state, int count) {
+		boolean changed = false;
+		long bucketCount = store.sizeBits();
+		for (int i = 0; i < hashCount; ++ i) {
+			for (int p = 0; p < count * 2; p += 2) {
+				changed |= store.set(Math.floorMod(state[p], bucketCount));
+				state[p] += state[p + 1];
+				state[p + 1] += i + 1;
+			}
+		}
+		return changed;
+	}
+
+	boolean or(BloomBits other) {
+		checkSimilar(other);
+		return store.or(other.store);
+	}
+
+	boolean and(BloomBits other) {
+		checkSimilar(other);
+		return store.and(other.store);
+	}
+
+	double fillRatio() {
+		return store.cardinality() / (double) store.sizeBits();
+	}
+
+	double expectedFalsePositiveRatio(long items) {
+		return BloomSet.expectedFalsePositiveRatio(
+				items,
+				store.sizeBits(),
+				hashCount
+		);
+	}
+
+	long estimatedSize() {
+		return estimate(store.cardinality());
+	}
+
+	long unionSize(BloomBits other) {
+		checkSimilar(other);
+		return estimate(store.unionCardinality(other.store));
+	}
+
+	long intersectionSize(BloomBits other) {
+		long unionSize = unionSize(other);
+		long size1 = estimatedSize();
+		long size2 = other.estimatedSize();
+		if (size1 == Long.MAX_VALUE) {
+			return size2;
+		}
+		if (size2 == Long.MAX_VALUE) {
+			return size1;
+		}
+		// the union can saturate even if neither set does, so this is done in
+		// double to avoid overflow and clamped to the possible range
+		double shared = (size1 + (double) size2) - unionSize;
+		return Math.round(
+				Math.max(0, Math.min(shared, Math.min(size1, size2)))
+		);
+	}
+
+	boolean contentEquals(BloomBits other) {
+		return (
+				other.store.contentEquals(store)
+				&& other.hashCount == hashCount
+				&& other.hashing.equals(hashing)
+		);
+	}
+
+	int contentHashCode() {
+		return store.contentHashCode() + hashCount;
+	}
+
+	private long estimate(long setBits) {
+		return Math.round(BloomSet.estimatedItems(
+				setBits,
+				store.sizeBits(),
+				hashCount
+		));
+	}
+
+	private void checkSimilar(BloomBits other) {
+		if (
+				other.store.sizeBits() != store.sizeBits()
+				|| other.hashCount != hashCount
+				|| !other.hashing.equals(hashing)
+		) {
+			throw new IllegalArgumentException("Sets are not compatible");
+		}
+	}
+}
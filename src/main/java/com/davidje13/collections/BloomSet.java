@@ -1,13 +1,12 @@
 package com.davidje13.collections;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.AbstractCollection;
-import java.util.BitSet;
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Set;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.stream.Collector;
 
 /**
  * A set which uses fixed memory and has constant lookup time, but may report
@@ -16,13 +15,15 @@ import java.util.Set;
  * Generates a number of hashes for each item and stores the results in a bit-
  * set. Allows trading memory usage for accuracy.
  *
- * Supports String membership using an MD5 hash.
+ * Buckets are chosen using enhanced double hashing (Dillinger &amp; Manolios):
+ * a single 128-bit hash provides a start and a step, so any number of hashes
+ * can be derived cheaply.
+ *
+ * Supports String membership using a configurable {@link HashStrategy}
+ * (MurmurHash3 by default).
  */
 @SuppressWarnings("WeakerAccess")
-public class BloomSet
-		extends AbstractCollection<String>
-		implements Set<String>
-{
+public class BloomSet extends AbstractBloomSet<BloomSet> {
 	/**
 	 * Calculates the idealised false-positive rate for a given configuration.
 	 *
@@ -36,10 +37,55 @@ public class BloomSet
 			int bits,
 			int hashes
 	) {
+		return expectedFalsePositiveRatio((long) items, (long) bits, hashes);
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given configuration.
+	 *
+	 * @param items  the number of items expected to be in the set
+	 * @param bits   the number of bits allocated to the set
+	 * @param hashes the number of hashes used in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see LargeBloomSet
+	 */
+	public static double expectedFalsePositiveRatio(
+			long items,
+			long bits,
+			int hashes
+	) {
+		if (items == 0) {
+			return 0;
+		}
+		if (bits == 1) {
+			// every item sets the only bit (and log1p(-1) is -infinity)
+			return 1;
+		}
 		// http://pages.cs.wisc.edu/~cao/papers/summary-cache/node8.html
-		return Math.pow(
-				1.0 - Math.pow(1.0 - 1.0 / bits, hashes * (double) items),
-				hashes
+		// (1 - 1/bits)^(hashes * items), computed without losing precision
+		// for very large bit counts
+		double unsetRatio = Math.exp(
+				hashes * (double) items * Math.log1p(-1.0 / bits)
+		);
+		return Math.pow(1.0 - unsetRatio, hashes);
+	}
+
+	/**
+	 * Estimates the number of distinct items which have been added to a set,
+	 * given the number of bits which are set (Swamidass &amp; Baldi). This is
+	 * the inverse of {@link #expectedFalsePositiveRatio(long, long, int)}'s
+	 * model of bit usage.
+	 *
+	 * @param setBits the number of set bits
+	 * @param bits    the number of bits allocated to the set
+	 * @param hashes  the number of hashes used in the set
+	 * @return the estimated number of items, or {@link Double#POSITIVE_INFINITY}
+	 *         if every bit is set
+	 */
+	public static double estimatedItems(long setBits, long bits, int hashes) {
+		return (
+				Math.log1p(-setBits / (double) bits) /
+				(hashes * Math.log1p(-1.0 / bits))
 		);
 	}
 
@@ -52,6 +98,19 @@ public class BloomSet
 	 * @return the optimum number of hashes to use
 	 */
 	public static int idealHashCount(int items, int bits) {
+		return idealHashCount((long) items, (long) bits);
+	}
+
+	/**
+	 * Calculates the best hash count to use to minimise idealised false-
+	 * positives for a given configuration.
+	 *
+	 * @param items  the number of items expected to be in the set
+	 * @param bits   the number of bits allocated to the set
+	 * @return the optimum number of hashes to use
+	 * @see LargeBloomSet
+	 */
+	public static int idealHashCount(long items, long bits) {
 		double ideal = Math.log(2.0) * bits / (double) items;
 		if (ideal <= 1) {
 			return 1;
@@ -67,6 +126,30 @@ public class BloomSet
 		}
 	}
 
+	/**
+	 * Calculates the number of bits needed to achieve a given false-positive
+	 * rate, assuming the ideal number of hashes is used.
+	 *
+	 * @param items              the number of items expected to be in the set
+	 * @param falsePositiveRatio the desired false-positive rate (0 - 1)
+	 * @return the number of bits needed
+	 * @see BloomSet#idealHashCount(long, long)
+	 */
+	public static long idealMemoryBits(long items, double falsePositiveRatio) {
+		if (!(falsePositiveRatio > 0 && falsePositiveRatio < 1)) {
+			throw new IllegalArgumentException(
+					"falsePositiveRatio must be between 0 and 1"
+			);
+		}
+		double ln2 = Math.log(2.0);
+		return Math.max(
+				(long) Math.ceil(
+						-items * Math.log(falsePositiveRatio) / (ln2 * ln2)
+				),
+				1
+		);
+	}
+
 	/**
 	 * Creates a new BloomSet optimised for the given constraints.
 	 *
@@ -81,97 +164,160 @@ public class BloomSet
 		return new BloomSet(bits, idealHashCount(expectedSize, bits));
 	}
 
-	private BitSet internal;
-	private final MessageDigest md5;
-	private final int[] bucketsCache;
+	/**
+	 * Creates a new BloomSet optimised for the given constraints, using a
+	 * specific hash strategy.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @param hashStrategy the hash function to use
+	 * @return an optimal BloomSet for the given configuration
+	 */
+	public static BloomSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize,
+			HashStrategy hashStrategy
+	) {
+		return new BloomSet(
+				bits,
+				idealHashCount(expectedSize, bits),
+				hashStrategy
+		);
+	}
 
 	/**
-	 * Create a BloomSet with specific configuration.
+	 * Returns a {@link Collector} which adds all values to a new BloomSet.
 	 *
-	 * Actual memory usage may differ slightly, and will typically be in
-	 * multiples of 64 bits.
+	 * When used with a parallel stream, each thread fills its own BloomSet
+	 * and the results are merged with {@link #addAll(BloomSet)}, so large
+	 * sets can be built using all available cores.
 	 *
-	 * @param bits      the amount of memory to allocate
-	 * @param hashCount the number of hashes to use
-	 * @see BloomSet#withMemoryAndExpectedSize(int, int)
+	 * @param bits         the amount of memory to allocate
+	 * @param hashCount    the number of hashes to use
+	 * @param hashStrategy the hash function to use
+	 * @return a collector which builds a BloomSet
+	 * @see BloomSet#idealHashCount(int, int)
 	 */
-	public BloomSet(int bits, int hashCount) {
-		this.internal = new BitSet(bits);
-		this.bucketsCache = new int[hashCount];
-		try {
-			md5 = MessageDigest.getInstance("MD5");
-		} catch(NoSuchAlgorithmException e) {
-			throw new RuntimeException(e);
-		}
+	public static Collector<String, ?, BloomSet> collector(
+			int bits,
+			int hashCount,
+			HashStrategy hashStrategy
+	) {
+		return Collector.of(
+				() -> new BloomSet(bits, hashCount, hashStrategy),
+				BloomSet::add,
+				BloomSet::merge,
+				Collector.Characteristics.UNORDERED,
+				Collector.Characteristics.IDENTITY_FINISH
+		);
 	}
 
 	/**
-	 * Calculates the idealised false-positive rate for a given number of items.
+	 * Returns a {@link Collector} which adds the lower-case forms of all
+	 * values to a new BloomSet.
 	 *
-	 * @param items the number of items expected to be in the set
-	 * @return a value from 0 (no false positives) to 1 (always false positives)
-	 * @see BloomSet#expectedFalsePositiveRatio(int, int, int)
+	 * @param bits         the amount of memory to allocate
+	 * @param hashCount    the number of hashes to use
+	 * @param hashStrategy the hash function to use
+	 * @return a collector which builds a BloomSet
+	 * @see BloomSet#collector(int, int, HashStrategy)
+	 * @see BloomSet#addLowerCase(CharSequence)
 	 */
-	public double expectedFalsePositiveRatio(int items) {
-		return expectedFalsePositiveRatio(
-				items,
-				memoryUsageBits(),
-				hashes()
+	public static Collector<CharSequence, ?, BloomSet> lowerCaseCollector(
+			int bits,
+			int hashCount,
+			HashStrategy hashStrategy
+	) {
+		return Collector.of(
+				() -> new BloomSet(bits, hashCount, hashStrategy),
+				BloomSet::addLowerCase,
+				BloomSet::merge,
+				Collector.Characteristics.UNORDERED,
+				Collector.Characteristics.IDENTITY_FINISH
 		);
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Reads a set written by {@link #writeTo(OutputStream)}.
+	 *
+	 * @param in the stream to read from (this is not closed)
+	 * @return a new BloomSet with the stored configuration and content
+	 * @throws IOException if the stream cannot be read or does not contain a
+	 *                     valid BloomSet
+	 * @see #readFrom(ReadableByteChannel)
 	 */
-	@Override
-	public boolean isEmpty() {
-		return internal.isEmpty();
+	public static BloomSet readFrom(InputStream in) throws IOException {
+		return readFrom(Channels.newChannel(in));
 	}
 
 	/**
-	 * Test membership of the given value.
+	 * Reads a set written by {@link #writeTo(WritableByteChannel)}.
+	 *
+	 * Only the bytes belonging to the set are consumed, so further data can
+	 * follow it in the channel.
 	 *
-	 * Due to the nature of bloom filters, this may report false positives, but
-	 * will never report false negatives.
+	 * Sets with more than {@link Integer#MAX_VALUE} bits must be read with
+	 * {@link LargeBloomSet#readFrom(ReadableByteChannel)}.
 	 *
-	 * @param value the value to test for membership
-	 * @return {@code true} if the value appears to be in the set
-	 * @see BloomSet#expectedFalsePositiveRatio(int)
+	 * @param channel the (blocking) channel to read from (this is not closed)
+	 * @return a new BloomSet with the stored configuration and content
+	 * @throws IOException if the channel cannot be read or does not contain a
+	 *                     valid BloomSet
 	 */
-	@Override
-	public boolean contains(Object value) {
-		if (!(value instanceof String)) {
-			return false;
-		}
+	public static BloomSet readFrom(ReadableByteChannel channel)
+			throws IOException {
+		BloomSetFormat.Stored<PagedBitStore> stored =
+				BloomSetFormat.read(channel, "stream", Integer.MAX_VALUE);
+		return new BloomSet(
+				stored.bits,
+				stored.hashCount,
+				stored.hashStrategy
+		);
+	}
 
-		populateBucketsCache((String) value);
-		for (int bucket : bucketsCache) {
-			if (!internal.get(bucket)) {
-				return false;
-			}
-		}
-		return true;
+	/**
+	 * Create a BloomSet with specific configuration.
+	 *
+	 * Actual memory usage may differ slightly, and will typically be in
+	 * multiples of 64 bits.
+	 *
+	 * @param bits      the amount of memory to allocate
+	 * @param hashCount the number of hashes to use
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public BloomSet(int bits, int hashCount) {
+		this(bits, hashCount, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Create a BloomSet with specific configuration.
+	 *
+	 * Actual memory usage may differ slightly, and will typically be in
+	 * multiples of 64 bits.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param hashCount    the number of hashes to use
+	 * @param hashStrategy the hash function to use
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int, HashStrategy)
+	 */
+	public BloomSet(int bits, int hashCount, HashStrategy hashStrategy) {
+		this(new PagedBitStore(bits), hashCount, hashStrategy);
+	}
+
+	BloomSet(BitStore internal, int hashCount, HashStrategy hashStrategy) {
+		super(internal, hashCount, hashStrategy);
+		checkConfig(internal.sizeBits(), hashStrategy);
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Calculates the idealised false-positive rate for a given number of items.
 	 *
-	 * @throws NullPointerException {@inheritDoc}
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BloomSet#expectedFalsePositiveRatio(int, int, int)
 	 */
-	@Override
-	public boolean add(String value) {
-		if (value == null) {
-			throw new NullPointerException();
-		}
-		boolean changed = false;
-		populateBucketsCache(value);
-		for (int bucket : bucketsCache) {
-			if (!internal.get(bucket)) {
-				internal.set(bucket);
-				changed = true;
-			}
-		}
-		return changed;
+	public double expectedFalsePositiveRatio(int items) {
+		return bits.expectedFalsePositiveRatio(items);
 	}
 
 	/**
@@ -186,26 +332,7 @@ public class BloomSet
 	 * @see #add(Object)
 	 */
 	public boolean addAll(BloomSet values) {
-		checkSimilar(values);
-		int oldCount = internal.cardinality();
-		internal.or(values.internal);
-		return internal.cardinality() != oldCount;
-	}
-
-	/**
-	 * {@inheritDoc}
-	 *
-	 * @implSpec
-	 * This implementation builds a new BloomSet with the given values then
-	 * ANDs the resulting bit-set with its own.
-	 */
-	@Override
-	public boolean retainAll(Collection<?> values) {
-		BloomSet other = new BloomSet(memoryUsageBits(), hashes());
-		values.stream()
-				.filter(String.class::isInstance)
-				.forEach((o) -> other.add((String) o));
-		return retainAll(other);
+		return or(values);
 	}
 
 	/**
@@ -220,22 +347,24 @@ public class BloomSet
 	 * @see #remove(Object)
 	 */
 	public boolean retainAll(BloomSet values) {
-		checkSimilar(values);
-		int oldCount = internal.cardinality();
-		internal.and(values.internal);
-		return internal.cardinality() != oldCount;
+		return and(values);
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Returns a BloomSet which shares the content of this set, but has its own
+	 * working buffers. Changes to either set are visible in the other.
 	 *
-	 * @implSpec
-	 * This implementation resets the internal bloom bit-set. It is a constant-
-	 * time operation.
+	 * BloomSet is not thread-safe, but while no thread is modifying the
+	 * content, separate views can test membership from separate threads
+	 * concurrently. For concurrent modification, use
+	 * {@link ConcurrentBloomSet}.
+	 *
+	 * Views of an {@link OffHeapBloomSet} must not be used after it is closed.
+	 *
+	 * @return a new BloomSet backed by the same bits as this set
 	 */
-	@Override
-	public void clear() {
-		internal.clear();
+	public BloomSet view() {
+		return new BloomSet(bits.store, hashes(), hashStrategy());
 	}
 
 	/**
@@ -244,100 +373,96 @@ public class BloomSet
 	 * @return the number of bits used by this set
 	 */
 	public int memoryUsageBits() {
-		return internal.size();
+		return (int) bits.sizeBits();
 	}
 
 	/**
-	 * Returns the number of hashes generated when adding elements or testing
-	 * membership.
+	 * Returns the number of bits which are currently set.
 	 *
-	 * @return the number of hashes generated when adding elements or testing
-	 *         membership
+	 * The count is maintained as items are added, so this is a constant-time
+	 * operation (for a mapped set, the first call counts the bits).
+	 *
+	 * @return the number of set bits
+	 * @see #fillRatio()
 	 */
-	public int hashes() {
-		return bucketsCache.length;
+	public int bitCount() {
+		return (int) bits.bitCount();
 	}
 
 	/**
-	 * Returns the number of elements in this collection (not supported).
+	 * Estimates the number of distinct items in the union of this set and
+	 * another.
+	 *
+	 * This counts the bits which are set in either set, so is a linear-time
+	 * operation, but does not modify or allocate any sets.
 	 *
-	 * @throws UnsupportedOperationException this is not supported by BloomSet
-	 * @deprecated not supported
+	 * @param  other a BloomSet with the same configuration as this one
+	 * @return the estimated number of distinct items in either set
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
 	 */
-	@Override
-	@Deprecated
-	public int size() {
-		throw new UnsupportedOperationException();
+	public long estimatedUnionSize(BloomSet other) {
+		return unionSize(other);
 	}
 
 	/**
-	 * Returns an iterator over the elements contained in this collection (not
-	 * supported).
+	 * Estimates the number of distinct items which are in both this set and
+	 * another, using the estimated sizes of each set and of their union.
+	 *
+	 * If one set is saturated, every item of the other may also be in it, so
+	 * the estimate is the size of the other set ({@link Long#MAX_VALUE} if
+	 * both are saturated).
 	 *
-	 * @throws UnsupportedOperationException this is not supported by BloomSet
-	 * @deprecated not supported
+	 * @param  other a BloomSet with the same configuration as this one
+	 * @return the estimated number of distinct items in both sets
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see #estimatedUnionSize(BloomSet)
 	 */
-	@Override
-	@Deprecated
-	public Iterator<String> iterator() {
-		throw new UnsupportedOperationException();
+	public long estimatedIntersectionSize(BloomSet other) {
+		return intersectionSize(other);
 	}
 
-	/**
-	 * {@inheritDoc}
-	 */
 	@Override
-	public boolean equals(Object other) {
-		if (!(other instanceof BloomSet)) {
-			return false;
-		}
-		if (other == this) {
-			return true;
-		}
-		BloomSet o = (BloomSet) other;
-		return (
-				o.internal.equals(internal)
-				&& o.hashes() == hashes()
-		);
+	BloomSet emptyCopy() {
+		return new BloomSet(memoryUsageBits(), hashes(), hashStrategy());
 	}
 
-	/**
-	 * {@inheritDoc}
-	 */
 	@Override
-	public int hashCode() {
-		return internal.hashCode() + hashes();
+	boolean isSameKind(Object other) {
+		return other instanceof BloomSet;
 	}
 
-	private void populateBucketsCache(String value) {
-		md5.reset();
-		byte[] digest = md5.digest(value.getBytes(StandardCharsets.UTF_8));
-
-		int hashCount = hashes();
-		int bucketCount = memoryUsageBits();
+	private static BloomSet merge(BloomSet a, BloomSet b) {
+		a.addAll(b);
+		return a;
+	}
 
-		for (int i = 0; i < hashCount; ++ i) {
-			bucketsCache[i] = 0;
-		}
-		for (int p = 0; p < digest.length; ++ p) {
-			int i = p % hashCount;
-			bucketsCache[i] = bucketsCache[i] * 256 + digest[p];
-		}
-		for (int i = 0; i < hashCount; ++ i) {
-			int shift = i * bucketCount / hashCount;
-			bucketsCache[i] = Math.floorMod(
-					bucketsCache[i] + shift,
-					bucketCount
-			);
+	static void checkConfig(long bits, HashStrategy hashStrategy) {
+		if (hashStrategy == null) {
+			throw new NullPointerException();
 		}
+		checkIntBits(bits, Long.SIZE);
 	}
 
-	private void checkSimilar(BloomSet other) {
-		if (
-				other.memoryUsageBits() != memoryUsageBits()
-				|| other.hashes() != hashes()
-		) {
-			throw new IllegalArgumentException("BloomSets are not compatible");
+	/**
+	 * Checks that a set of the given size can be addressed with {@code int}
+	 * indices. Memory is allocated in whole blocks (words for most sets), so
+	 * the size is checked after rounding up.
+	 *
+	 * @param bits      the requested number of bits
+	 * @param blockBits the allocation unit, in bits (a power of 2)
+	 * @throws IllegalArgumentException if the rounded size is more than
+	 *                                  {@link Integer#MAX_VALUE}
+	 */
+	static void checkIntBits(long bits, int blockBits) {
+		long mask = blockBits - 1;
+		if (((bits + mask) & ~mask) > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"Too many bits for an int-sized set"
+			);
 		}
 	}
 }
@@ -0,0 +1,574 @@
+package com.davidje13.collections;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The binary format used to store and transfer bloom sets.
+ *
+ * All values are little-endian. The header is 40 bytes:
+ * <pre>
+ *  0: magic "BLMS"
+ *  4: int  format version (2)
+ *  8: long bit count (a multiple of 64)
+ * 16: int  hash count
+ * 20: int  hash strategy ID (1 = MurmurHash3, 2 = MD5)
+ * 24: int  hash strategy seed
+ * 28: int  flags (1 = sparse)
+ * 32: long configuration fingerprint
+ * </pre>
+ * By default this is followed by the bits as 64-bit words, so that the data
+ * can be memory-mapped directly.
+ *
+ * If the sparse flag is set, the header is instead followed by the number of
+ * non-zero words (long) and the length of the encoded words in bytes (long),
+ * then for each non-zero word, the number of zero words skipped since the
+ * last (as an unsigned LEB128 varint) followed by the word itself.
+ *
+ * Version 1 files (which have a 32-byte header with no fingerprint, no flags,
+ * and are never sparse) can still be read.
+ */
+final class BloomSetFormat {
+	static final int HEADER_BYTES = 40;
+
+	private static final int MAGIC = 0x534d4c42; // "BLMS" (little-endian)
+	private static final int VERSION = 2;
+
+	private static final int PREFIX_BYTES = 8; // magic and version
+	private static final int V1_HEADER_BYTES = 32;
+
+	private static final int FLAG_SPARSE = 1;
+
+	private static final int MURMUR3 = 1;
+	private static final int MD5 = 2;
+
+	private static final int PAGE_SHIFT = 27; // 1GB pages
+	private static final int BUFFER_BYTES = 64 * 1024;
+
+	private BloomSetFormat() {
+	}
+
+	/**
+	 * The configuration and bits of a stored bloom set.
+	 */
+	static class Stored<S extends BitStore> {
+		final S bits;
+		final int hashCount;
+		final HashStrategy hashStrategy;
+
+		Stored(S bits, int hashCount, HashStrategy hashStrategy) {
+			this.bits = bits;
+			this.hashCount = hashCount;
+			this.hashStrategy = hashStrategy;
+		}
+	}
+
+	/**
+	 * Returns a value which identifies the configuration of a set.
+	 *
+	 * Sets with the same size, hash count and hash strategy have the same
+	 * fingerprint. For the built-in hash strategies this is stable across
+	 * processes.
+	 *
+	 * @param bits         the number of bits in the set
+	 * @param hashCount    the number of hashes used by the set
+	 * @param hashStrategy the hash function used by the set
+	 * @return the fingerprint of the configuration
+	 */
+	static long fingerprint(
+			long bits,
+			int hashCount,
+			HashStrategy hashStrategy
+	) {
+		long strategy;
+		if (hashStrategy.getClass() == Murmur3HashStrategy.class) {
+			strategy = ((long) MURMUR3 << 32) |
+					(((Murmur3HashStrategy) hashStrategy).seed() & 0xFFFFFFFFL);
+		} else if (hashStrategy.getClass() == Md5HashStrategy.class) {
+			strategy = (long) MD5 << 32;
+		} else {
+			strategy = hashStrategy.hashCode();
+		}
+		return mix(mix(mix(bits) ^ hashCount) ^ strategy);
+	}
+
+	static void write(
+			Path file,
+			BitStore bits,
+			int hashCount,
+			HashStrategy hashStrategy
+	) throws IOException {
+		try (FileChannel channel = FileChannel.open(
+				file,
+				StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING
+		)) {
+			write(channel, bits, hashCount, hashStrategy, false);
+		}
+	}
+
+	/**
+	 * Writes a set to the given channel.
+	 *
+	 * @param channel      the (blocking) channel to write to
+	 * @param bits         the bits of the set
+	 * @param hashCount    the number of hashes used by the set
+	 * @param hashStrategy the hash function used by the set
+	 * @param allowSparse  {@code true} to use the sparse encoding if it is
+	 *                     smaller
+	 * @throws IOException if the channel cannot be written
+	 */
+	static void write(
+			WritableByteChannel channel,
+			BitStore bits,
+			int hashCount,
+			HashStrategy hashStrategy,
+			boolean allowSparse
+	) throws IOException {
+		long wordCount = bits.wordCount();
+		long nonZeroWords = 0;
+		long sparseBytes = 0;
+		if (allowSparse) {
+			long last = -1;
+			for (long i = 0; i < wordCount; ++ i) {
+				if (bits.getWord(i) != 0) {
+					++ nonZeroWords;
+					sparseBytes += varLongBytes(i - last - 1) + 8;
+					last = i;
+				}
+			}
+		}
+		boolean sparse = allowSparse && sparseBytes + 16 < wordCount * 8;
+
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		writeHeader(
+				buffer,
+				bits.sizeBits(),
+				hashCount,
+				hashStrategy,
+				sparse ? FLAG_SPARSE : 0
+		);
+		if (sparse) {
+			buffer.putLong(nonZeroWords);
+			buffer.putLong(sparseBytes);
+			long last = -1;
+			for (long i = 0; i < wordCount; ++ i) {
+				long word = bits.getWord(i);
+				if (word != 0) {
+					if (buffer.remaining() < 18) {
+						flush(buffer, channel);
+					}
+					putVarLong(buffer, i - last - 1);
+					buffer.putLong(word);
+					last = i;
+				}
+			}
+		} else {
+			for (long i = 0; i < wordCount; ++ i) {
+				if (!buffer.hasRemaining()) {
+					flush(buffer, channel);
+				}
+				buffer.putLong(bits.getWord(i));
+			}
+		}
+		flush(buffer, channel);
+	}
+
+	/**
+	 * Reads a set from the given channel into a new on-heap store.
+	 *
+	 * Exactly the bytes of the set are consumed, so the channel can contain
+	 * other data after the set.
+	 *
+	 * The size in the header is checked against {@code maxBits} (and, for
+	 * channels with a known size such as files, against the remaining length)
+	 * before any storage is allocated, so corrupt data cannot cause a large
+	 * allocation.
+	 *
+	 * @param channel the (blocking) channel to read from
+	 * @param name    a name for the source, used in error messages
+	 * @param maxBits the largest set which can be read
+	 * @return the stored set
+	 * @throws IOException if the channel cannot be read or does not contain a
+	 *                     valid bloom set
+	 */
+	static Stored<PagedBitStore> read(
+			ReadableByteChannel channel,
+			String name,
+			long maxBits
+	) throws IOException {
+		Reader reader = new Reader(channel, name);
+		reader.allow(PREFIX_BYTES);
+		reader.require(PREFIX_BYTES);
+		int headerBytes = headerBytes(reader.buffer, name);
+		reader.allow(headerBytes - PREFIX_BYTES);
+		reader.require(headerBytes);
+		Header h = readHeader(reader.buffer, name);
+		if (h.bits > maxBits) {
+			throw new IOException(
+					"BloomSet is too large (" + h.bits + " bits): " + name
+			);
+		}
+		long available = remainingBytes(channel);
+		long wordCount = h.bits >>> 6;
+
+		if (h.sparse) {
+			reader.allow(16);
+			long nonZeroWords = reader.getLong();
+			long sparseBytes = reader.getLong();
+			if (
+					nonZeroWords < 0 || nonZeroWords > wordCount ||
+					sparseBytes < nonZeroWords * 9 ||
+					sparseBytes > nonZeroWords * 18
+			) {
+				throw new IOException("Corrupt BloomSet data: " + name);
+			}
+			if (sparseBytes + 16 > available) {
+				throw new EOFException("Truncated BloomSet data: " + name);
+			}
+			PagedBitStore bits = new PagedBitStore(h.bits);
+			reader.allow(sparseBytes);
+			long index = -1;
+			for (long n = 0; n < nonZeroWords; ++ n) {
+				index += reader.getVarLong() + 1;
+				if (index < 0 || index >= wordCount) {
+					throw new IOException("Corrupt BloomSet data: " + name);
+				}
+				bits.setWord(index, reader.getLong());
+			}
+			if (!reader.isExhausted()) {
+				throw new IOException("Corrupt BloomSet data: " + name);
+			}
+			return new Stored<>(bits, h.hashCount, h.hashStrategy);
+		}
+
+		if (wordCount * 8 > available) {
+			throw new EOFException("Truncated BloomSet data: " + name);
+		}
+		PagedBitStore bits = new PagedBitStore(h.bits);
+		reader.allow(wordCount * 8);
+		for (long i = 0; i < wordCount; ++ i) {
+			bits.setWord(i, reader.getLong());
+		}
+		return new Stored<>(bits, h.hashCount, h.hashStrategy);
+	}
+
+	/**
+	 * Returns the number of bytes left in the given channel, or
+	 * {@link Long#MAX_VALUE} if this is not known.
+	 */
+	private static long remainingBytes(ReadableByteChannel channel)
+			throws IOException {
+		if (!(channel instanceof SeekableByteChannel)) {
+			return Long.MAX_VALUE;
+		}
+		SeekableByteChannel seekable = (SeekableByteChannel) channel;
+		return Math.max(seekable.size() - seekable.position(), 0);
+	}
+
+	/**
+	 * Maps the given file into memory (read-only).
+	 *
+	 * This does not read the bits, so takes constant time regardless of the
+	 * size of the set. The returned storage must be closed to unmap the file.
+	 *
+	 * @param file the file to map
+	 * @return the stored set, backed by the file
+	 * @throws IOException if the file cannot be read or is not a valid bloom
+	 *                     set file
+	 */
+	static Stored<DirectBitStore> map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(
+				file,
+				StandardOpenOption.READ
+		)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			header.limit(PREFIX_BYTES);
+			readFully(channel, header, file);
+			int headerBytes = headerBytes(
+					header.duplicate().flip().order(ByteOrder.LITTLE_ENDIAN),
+					file.toString()
+			);
+			header.limit(headerBytes);
+			readFully(channel, header, file);
+			header.flip();
+			Header h = readHeader(header, file.toString());
+			if (h.sparse) {
+				throw new IOException(
+						"Sparse BloomSet files cannot be mapped: " + file
+				);
+			}
+			long wordCount = h.bits >>> 6;
+			if (channel.size() < headerBytes + wordCount * 8) {
+				throw new IOException("Truncated BloomSet file: " + file);
+			}
+
+			long pageWords = 1L << PAGE_SHIFT;
+			int pageCount = (int) ((wordCount + pageWords - 1) >>> PAGE_SHIFT);
+			ByteBuffer[] pages = new ByteBuffer[pageCount];
+			for (int p = 0; p < pageCount; ++ p) {
+				long first = (long) p << PAGE_SHIFT;
+				long words = Math.min(wordCount - first, pageWords);
+				pages[p] = channel.map(
+						FileChannel.MapMode.READ_ONLY,
+						headerBytes + first * 8,
+						words * 8
+				).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			return new Stored<>(
+					new DirectBitStore(pages, wordCount, PAGE_SHIFT),
+					h.hashCount,
+					h.hashStrategy
+			);
+		}
+	}
+
+	private static void writeHeader(
+			ByteBuffer target,
+			long bits,
+			int hashCount,
+			HashStrategy hashStrategy,
+			int flags
+	) {
+		target.putInt(MAGIC);
+		target.putInt(VERSION);
+		target.putLong(bits);
+		target.putInt(hashCount);
+		target.putInt(strategyId(hashStrategy));
+		target.putInt(strategySeed(hashStrategy));
+		target.putInt(flags);
+		target.putLong(fingerprint(bits, hashCount, hashStrategy));
+	}
+
+	/**
+	 * Checks the magic number and version at the start of the given buffer
+	 * (without consuming them), and returns the size of the full header.
+	 */
+	private static int headerBytes(ByteBuffer source, String name)
+			throws IOException {
+		int start = source.position();
+		if (source.getInt(start) != MAGIC) {
+			throw new IOException("Not a BloomSet file: " + name);
+		}
+		int version = source.getInt(start + 4);
+		switch (version) {
+			case 1:
+				return V1_HEADER_BYTES;
+			case VERSION:
+				return HEADER_BYTES;
+			default:
+				throw new IOException(
+						"Unsupported BloomSet file version " + version +
+						": " + name
+				);
+		}
+	}
+
+	private static Header readHeader(ByteBuffer source, String name)
+			throws IOException {
+		source.getInt(); // magic (checked by headerBytes)
+		int version = source.getInt();
+		long bits = source.getLong();
+		int hashCount = source.getInt();
+		int strategyId = source.getInt();
+		int seed = source.getInt();
+		int flags = source.getInt();
+		// no useful configuration has more hashes than bits, and an unbounded
+		// count would make every lookup arbitrarily slow
+		if (
+				bits < 0 || (bits & 63) != 0 ||
+				hashCount < 1 || hashCount > bits ||
+				(flags & ~FLAG_SPARSE) != 0 ||
+				(version == 1 && flags != 0)
+		) {
+			throw new IOException("Corrupt BloomSet file: " + name);
+		}
+		HashStrategy hashStrategy = strategy(strategyId, seed, name);
+		if (version != 1) {
+			long fingerprint = source.getLong();
+			if (fingerprint != fingerprint(bits, hashCount, hashStrategy)) {
+				throw new IOException("Corrupt BloomSet file: " + name);
+			}
+		}
+		return new Header(
+				bits,
+				hashCount,
+				hashStrategy,
+				(flags & FLAG_SPARSE) != 0
+		);
+	}
+
+	private static class Header {
+		final long bits;
+		final int hashCount;
+		final HashStrategy hashStrategy;
+		final boolean sparse;
+
+		private Header(
+				long bits,
+				int hashCount,
+				HashStrategy hashStrategy,
+				boolean sparse
+		) {
+			this.bits = bits;
+			this.hashCount = hashCount;
+			this.hashStrategy = hashStrategy;
+			this.sparse = sparse;
+		}
+	}
+
+	/**
+	 * Buffered reads which never consume more from the channel than has been
+	 * allowed.
+	 */
+	private static class Reader {
+		private final ReadableByteChannel channel;
+		private final String name;
+		final ByteBuffer buffer;
+		private long allowance = 0;
+
+		Reader(ReadableByteChannel channel, String name) {
+			this.channel = channel;
+			this.name = name;
+			this.buffer = ByteBuffer.allocate(BUFFER_BYTES)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.flip();
+		}
+
+		void allow(long bytes) {
+			allowance += bytes;
+		}
+
+		boolean isExhausted() {
+			return allowance == 0 && !buffer.hasRemaining();
+		}
+
+		void require(int bytes) throws IOException {
+			if (buffer.remaining() >= bytes) {
+				return;
+			}
+			buffer.compact();
+			while (buffer.position() < bytes) {
+				long space = Math.min(buffer.remaining(), allowance);
+				if (space <= 0) {
+					throw new IOException("Corrupt BloomSet data: " + name);
+				}
+				buffer.limit(buffer.position() + (int) space);
+				int read = channel.read(buffer);
+				if (read < 0) {
+					throw new EOFException("Truncated BloomSet data: " + name);
+				}
+				allowance -= read;
+				buffer.limit(buffer.capacity());
+			}
+			buffer.flip();
+		}
+
+		long getLong() throws IOException {
+			require(8);
+			return buffer.getLong();
+		}
+
+		long getVarLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				require(1);
+				byte b = buffer.get();
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+			throw new IOException("Corrupt BloomSet data: " + name);
+		}
+	}
+
+	private static int varLongBytes(long value) {
+		int bytes = 1;
+		while ((value >>>= 7) != 0) {
+			++ bytes;
+		}
+		return bytes;
+	}
+
+	private static void putVarLong(ByteBuffer target, long value) {
+		while ((value & ~0x7FL) != 0) {
+			target.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		target.put((byte) value);
+	}
+
+	private static long mix(long h) {
+		// SplitMix64 finaliser
+		h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+		h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+		return h ^ (h >>> 31);
+	}
+
+	private static int strategyId(HashStrategy hashStrategy) {
+		if (hashStrategy.getClass() == Murmur3HashStrategy.class) {
+			return MURMUR3;
+		}
+		if (hashStrategy.getClass() == Md5HashStrategy.class) {
+			return MD5;
+		}
+		throw new IllegalArgumentException(
+				"Cannot store custom hash strategy " +
+				hashStrategy.getClass().getName()
+		);
+	}
+
+	private static int strategySeed(HashStrategy hashStrategy) {
+		if (hashStrategy instanceof Murmur3HashStrategy) {
+			return ((Murmur3HashStrategy) hashStrategy).seed();
+		}
+		return 0;
+	}
+
+	private static HashStrategy strategy(int id, int seed, String name)
+			throws IOException {
+		switch (id) {
+			case MURMUR3:
+				return new Murmur3HashStrategy(seed);
+			case MD5:
+				return new Md5HashStrategy();
+			default:
+				throw new IOException(
+						"Unknown hash strategy " + id + ": " + name
+				);
+		}
+	}
+
+	private static void readFully(
+			FileChannel channel,
+			ByteBuffer target,
+			Path file
+	) throws IOException {
+		while (target.hasRemaining()) {
+			if (channel.read(target) < 0) {
+				throw new IOException("Not a BloomSet file: " + file);
+			}
+		}
+	}
+
+	private static void flush(ByteBuffer buffer, WritableByteChannel channel)
+			throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
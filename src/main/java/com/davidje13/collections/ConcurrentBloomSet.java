@@ -0,0 +1,460 @@
+package com.davidje13.collections;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A thread-safe variant of {@link BloomSet}.
+ *
+ * Bits are stored in a {@code long[]} which is updated atomically, so any
+ * number of threads can add and test membership concurrently without locking.
+ * Adding is lock-free, and testing membership is wait-free.
+ *
+ * Uses the same bucket selection as {@link BloomSet}, so a ConcurrentBloomSet
+ * with the same configuration will set the same bits.
+ *
+ * Bulk operations ({@link #addAll(ConcurrentBloomSet)},
+ * {@link #retainAll(ConcurrentBloomSet)} and {@link #clear()}) are atomic for
+ * each word but not for the set as a whole.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ConcurrentBloomSet
+		extends AbstractCollection<String>
+		implements Set<String>
+{
+	private static final VarHandle WORDS =
+			MethodHandles.arrayElementVarHandle(long[].class);
+
+	private static final ThreadLocal<long[]> HASH_CACHE =
+			ThreadLocal.withInitial(() -> new long[2]);
+
+	/**
+	 * Creates a new ConcurrentBloomSet optimised for the given constraints.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @return an optimal ConcurrentBloomSet for the given configuration
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public static ConcurrentBloomSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize
+	) {
+		return new ConcurrentBloomSet(
+				bits,
+				BloomSet.idealHashCount(expectedSize, bits)
+		);
+	}
+
+	/**
+	 * Creates a new ConcurrentBloomSet optimised for the given constraints,
+	 * using a specific hash strategy.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @param hashStrategy the hash function to use
+	 * @return an optimal ConcurrentBloomSet for the given configuration
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int, HashStrategy)
+	 */
+	public static ConcurrentBloomSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize,
+			HashStrategy hashStrategy
+	) {
+		return new ConcurrentBloomSet(
+				bits,
+				BloomSet.idealHashCount(expectedSize, bits),
+				hashStrategy
+		);
+	}
+
+	private final long[] words;
+	private final HashStrategy hashStrategy;
+	private final int hashCount;
+
+	/**
+	 * Create a ConcurrentBloomSet with specific configuration.
+	 *
+	 * Actual memory usage will be rounded up to a multiple of 64 bits.
+	 *
+	 * @param bits      the amount of memory to allocate
+	 * @param hashCount the number of hashes to use
+	 * @throws IllegalArgumentException if {@code bits} rounded up to a
+	 *                                  multiple of 64 is more than
+	 *                                  {@link Integer#MAX_VALUE}
+	 * @see ConcurrentBloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public ConcurrentBloomSet(int bits, int hashCount) {
+		this(bits, hashCount, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Create a ConcurrentBloomSet with specific configuration.
+	 *
+	 * Actual memory usage will be rounded up to a multiple of 64 bits.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param hashCount    the number of hashes to use
+	 * @param hashStrategy the hash function to use
+	 * @throws IllegalArgumentException if {@code bits} rounded up to a
+	 *                                  multiple of 64 is more than
+	 *                                  {@link Integer#MAX_VALUE}
+	 * @see ConcurrentBloomSet#withMemoryAndExpectedSize(int, int, HashStrategy)
+	 */
+	public ConcurrentBloomSet(
+			int bits,
+			int hashCount,
+			HashStrategy hashStrategy
+	) {
+		if (hashStrategy == null) {
+			throw new NullPointerException();
+		}
+		BloomSet.checkIntBits(bits, Long.SIZE);
+		this.words = new long[(int) ((bits + 63L) >>> 6)];
+		this.hashCount = hashCount;
+		this.hashStrategy = hashStrategy;
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given number of items.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BloomSet#expectedFalsePositiveRatio(int, int, int)
+	 */
+	public double expectedFalsePositiveRatio(int items) {
+		return BloomSet.expectedFalsePositiveRatio(
+				items,
+				memoryUsageBits(),
+				hashes()
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation scans the whole bit-set. It is a linear-time
+	 * operation.
+	 */
+	@Override
+	public boolean isEmpty() {
+		for (int i = 0; i < words.length; ++ i) {
+			if ((long) WORDS.getAcquire(words, i) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Test membership of the given value.
+	 *
+	 * Due to the nature of bloom filters, this may report false positives, but
+	 * will never report false negatives for values which were added before
+	 * this call began.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the value appears to be in the set
+	 * @see ConcurrentBloomSet#expectedFalsePositiveRatio(int)
+	 */
+	@Override
+	public boolean contains(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		long[] hash = HASH_CACHE.get();
+		hashStrategy.hash((String) value, hash);
+		return containsHash(hash);
+	}
+
+	/**
+	 * Test membership of the lower-case form of the given value.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the lower-case value appears to be in the set
+	 * @see BloomSet#containsLowerCase(CharSequence)
+	 */
+	public boolean containsLowerCase(CharSequence value) {
+		if (value == null) {
+			return false;
+		}
+
+		long[] hash = HASH_CACHE.get();
+		hashStrategy.hashLowerCase(value, hash);
+		return containsHash(hash);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public boolean add(String value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+
+		long[] hash = HASH_CACHE.get();
+		hashStrategy.hash(value, hash);
+		return addHash(hash);
+	}
+
+	/**
+	 * Adds the lower-case form of the given value to this set.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if this set changed as a result of the call
+	 * @throws NullPointerException if the value is null
+	 * @see BloomSet#addLowerCase(CharSequence)
+	 */
+	public boolean addLowerCase(CharSequence value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+
+		long[] hash = HASH_CACHE.get();
+		hashStrategy.hashLowerCase(value, hash);
+		return addHash(hash);
+	}
+
+	/**
+	 * Adds all of the elements in the specified ConcurrentBloomSet to this set
+	 * if they're not already present.
+	 *
+	 * @param  values a ConcurrentBloomSet with the same configuration as this
+	 *                one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see #add(Object)
+	 */
+	public boolean addAll(ConcurrentBloomSet values) {
+		checkSimilar(values);
+		boolean changed = false;
+		for (int i = 0; i < words.length; ++ i) {
+			long mask = (long) WORDS.getAcquire(values.words, i);
+			if ((mask & ~(long) WORDS.getAcquire(words, i)) != 0) {
+				long old = (long) WORDS.getAndBitwiseOr(words, i, mask);
+				changed |= (mask & ~old) != 0;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation builds a new ConcurrentBloomSet with the given values
+	 * then ANDs the resulting bit-set with its own.
+	 */
+	@Override
+	public boolean retainAll(Collection<?> values) {
+		ConcurrentBloomSet other = new ConcurrentBloomSet(
+				memoryUsageBits(),
+				hashes(),
+				hashStrategy
+		);
+		values.stream()
+				.filter(String.class::isInstance)
+				.forEach((o) -> other.add((String) o));
+		return retainAll(other);
+	}
+
+	/**
+	 * Retains only the elements in this set that are contained in the
+	 * specified ConcurrentBloomSet.
+	 *
+	 * @param  values a ConcurrentBloomSet with the same configuration as this
+	 *                one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see #remove(Object)
+	 */
+	public boolean retainAll(ConcurrentBloomSet values) {
+		checkSimilar(values);
+		boolean changed = false;
+		for (int i = 0; i < words.length; ++ i) {
+			long mask = (long) WORDS.getAcquire(values.words, i);
+			if (((long) WORDS.getAcquire(words, i) & ~mask) != 0) {
+				long old = (long) WORDS.getAndBitwiseAnd(words, i, mask);
+				changed |= (old & ~mask) != 0;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation resets each word of the internal bloom bit-set in
+	 * turn. It is a linear-time operation.
+	 */
+	@Override
+	public void clear() {
+		for (int i = 0; i < words.length; ++ i) {
+			WORDS.setRelease(words, i, 0L);
+		}
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public int memoryUsageBits() {
+		return words.length * 64;
+	}
+
+	/**
+	 * Returns the number of hashes generated when adding elements or testing
+	 * membership.
+	 *
+	 * @return the number of hashes generated when adding elements or testing
+	 *         membership
+	 */
+	public int hashes() {
+		return hashCount;
+	}
+
+	/**
+	 * Returns the hash function used when adding elements or testing
+	 * membership.
+	 *
+	 * @return the hash function used by this set
+	 */
+	public HashStrategy hashStrategy() {
+		return hashStrategy;
+	}
+
+	/**
+	 * Returns the number of elements in this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       ConcurrentBloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public int size() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns an iterator over the elements contained in this collection (not
+	 * supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       ConcurrentBloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public Iterator<String> iterator() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof ConcurrentBloomSet)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		ConcurrentBloomSet o = (ConcurrentBloomSet) other;
+		if (
+				o.words.length != words.length
+				|| o.hashes() != hashes()
+				|| !o.hashStrategy.equals(hashStrategy)
+		) {
+			return false;
+		}
+		for (int i = 0; i < words.length; ++ i) {
+			if (
+					(long) WORDS.getAcquire(o.words, i) !=
+					(long) WORDS.getAcquire(words, i)
+			) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		long h = 1234;
+		for (int i = 0; i < words.length; ++ i) {
+			h ^= (long) WORDS.getAcquire(words, i) * (i + 1);
+		}
+		return (int) ((h >> 32) ^ h) + hashes();
+	}
+
+	private boolean containsHash(long[] hash) {
+		int bucketCount = memoryUsageBits();
+		long index = hash[0];
+		long step = hash[1];
+		for (int i = 0; i < hashCount; ++ i) {
+			int bucket = Math.floorMod(index, bucketCount);
+			long word = (long) WORDS.getAcquire(words, bucket >>> 6);
+			if ((word & (1L << bucket)) == 0) {
+				return false;
+			}
+			index += step;
+			step += i + 1;
+		}
+		return true;
+	}
+
+	private boolean addHash(long[] hash) {
+		boolean changed = false;
+		int bucketCount = memoryUsageBits();
+		long index = hash[0];
+		long step = hash[1];
+		for (int i = 0; i < hashCount; ++ i) {
+			int bucket = Math.floorMod(index, bucketCount);
+			long mask = 1L << bucket;
+			// only write if necessary, to avoid contention on shared words
+			if (((long) WORDS.getAcquire(words, bucket >>> 6) & mask) == 0) {
+				long old = (long) WORDS.getAndBitwiseOr(
+						words,
+						bucket >>> 6,
+						mask
+				);
+				changed |= (old & mask) == 0;
+			}
+			index += step;
+			step += i + 1;
+		}
+		return changed;
+	}
+
+	private void checkSimilar(ConcurrentBloomSet other) {
+		if (
+				other.memoryUsageBits() != memoryUsageBits()
+				|| other.hashes() != hashes()
+				|| !other.hashStrategy.equals(hashStrategy)
+		) {
+			throw new IllegalArgumentException(
+					"ConcurrentBloomSets are not compatible"
+			);
+		}
+	}
+}
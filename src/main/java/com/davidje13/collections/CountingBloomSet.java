@@ -0,0 +1,425 @@
+package com.davidje13.collections;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A variant of {@link BloomSet} which supports removing items.
+ *
+ * Each bucket holds a small counter instead of a single bit. Adding an item
+ * increments its counters and removing it decrements them, so items can be
+ * removed without rebuilding the set. Counters are packed into 64-bit words
+ * (4 bits each by default) and saturate at their maximum value; a saturated
+ * counter is never decremented, which avoids false negatives at the cost of
+ * leaving a small number of buckets permanently set.
+ *
+ * Only items which were added should be removed. Removing an item which was
+ * never added (but is reported as present due to a false positive) can cause
+ * false negatives for other items.
+ *
+ * Uses the same bucket selection as {@link BloomSet}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class CountingBloomSet
+		extends AbstractCollection<String>
+		implements Set<String>
+{
+	private static final int DEFAULT_COUNTER_BITS = 4;
+
+	/**
+	 * Creates a new CountingBloomSet optimised for the given constraints,
+	 * using 4-bit counters.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @return an optimal CountingBloomSet for the given configuration
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public static CountingBloomSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize
+	) {
+		return withMemoryAndExpectedSize(
+				bits,
+				expectedSize,
+				DEFAULT_COUNTER_BITS,
+				new Murmur3HashStrategy()
+		);
+	}
+
+	/**
+	 * Creates a new CountingBloomSet optimised for the given constraints,
+	 * using a specific counter size and hash strategy.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @param counterBits  the size of each counter (2, 4, 8 or 16)
+	 * @param hashStrategy the hash function to use
+	 * @return an optimal CountingBloomSet for the given configuration
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int, HashStrategy)
+	 */
+	public static CountingBloomSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize,
+			int counterBits,
+			HashStrategy hashStrategy
+	) {
+		checkCounterBits(counterBits);
+		int counters = bits / counterBits;
+		return new CountingBloomSet(
+				counters,
+				BloomSet.idealHashCount(expectedSize, counters),
+				counterBits,
+				hashStrategy
+		);
+	}
+
+	private final long[] words;
+	private final int counters;
+	private final int counterBits;
+	private final int counterShift;
+	private final int indexShift;
+	private final long counterMax;
+	private final HashStrategy hashStrategy;
+	private final long[] hashCache = new long[2];
+	private final int hashCount;
+
+	/**
+	 * Create a CountingBloomSet with specific configuration, using 4-bit
+	 * counters.
+	 *
+	 * @param counters  the number of counters (buckets) to allocate
+	 * @param hashCount the number of hashes to use
+	 * @see CountingBloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public CountingBloomSet(int counters, int hashCount) {
+		this(
+				counters,
+				hashCount,
+				DEFAULT_COUNTER_BITS,
+				new Murmur3HashStrategy()
+		);
+	}
+
+	/**
+	 * Create a CountingBloomSet with specific configuration.
+	 *
+	 * Actual memory usage will be rounded up to a multiple of 64 bits.
+	 *
+	 * @param counters     the number of counters (buckets) to allocate
+	 * @param hashCount    the number of hashes to use
+	 * @param counterBits  the size of each counter (2, 4, 8 or 16)
+	 * @param hashStrategy the hash function to use
+	 * @see CountingBloomSet#withMemoryAndExpectedSize(int, int, int,
+	 *      HashStrategy)
+	 */
+	public CountingBloomSet(
+			int counters,
+			int hashCount,
+			int counterBits,
+			HashStrategy hashStrategy
+	) {
+		checkCounterBits(counterBits);
+		if (counters < 1) {
+			throw new IllegalArgumentException("counters must be positive");
+		}
+		if (hashStrategy == null) {
+			throw new NullPointerException();
+		}
+		this.counterBits = counterBits;
+		this.counterShift = Integer.numberOfTrailingZeros(counterBits);
+		this.indexShift = 6 - counterShift;
+		this.counterMax = (1L << counterBits) - 1;
+		this.words = new long[(int) (
+				((long) counters + (1 << indexShift) - 1) >>> indexShift
+		)];
+		this.counters = counters;
+		this.hashCount = hashCount;
+		this.hashStrategy = hashStrategy;
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given number of items.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BloomSet#expectedFalsePositiveRatio(int, int, int)
+	 */
+	public double expectedFalsePositiveRatio(int items) {
+		return BloomSet.expectedFalsePositiveRatio(items, counters, hashCount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation scans the counters until it finds a non-zero one.
+	 */
+	@Override
+	public boolean isEmpty() {
+		for (long word : words) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Test membership of the given value.
+	 *
+	 * Due to the nature of bloom filters, this may report false positives, but
+	 * will never report false negatives (provided only added values have been
+	 * removed).
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the value appears to be in the set
+	 * @see CountingBloomSet#expectedFalsePositiveRatio(int)
+	 */
+	@Override
+	public boolean contains(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		hashStrategy.hash((String) value, hashCache);
+		return containsHash();
+	}
+
+	/**
+	 * Adds the given value to this set.
+	 *
+	 * Values can be added multiple times, in which case they must be removed
+	 * the same number of times before they are no longer reported as present.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if the value did not already appear to be present
+	 * @throws NullPointerException if the value is null
+	 */
+	@Override
+	public boolean add(String value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+
+		hashStrategy.hash(value, hashCache);
+		boolean changed = false;
+		long index = hashCache[0];
+		long step = hashCache[1];
+		for (int i = 0; i < hashCount; ++ i) {
+			changed |= increment(Math.floorMod(index, counters));
+			index += step;
+			step += i + 1;
+		}
+		return changed;
+	}
+
+	/**
+	 * Removes one occurrence of the given value from this set.
+	 *
+	 * If the value does not appear to be present, this has no effect.
+	 *
+	 * @param value the value to remove (this should have been added)
+	 * @return {@code true} if the value appeared to be present
+	 */
+	@Override
+	public boolean remove(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		hashStrategy.hash((String) value, hashCache);
+		if (!containsHash()) {
+			return false;
+		}
+		long index = hashCache[0];
+		long step = hashCache[1];
+		for (int i = 0; i < hashCount; ++ i) {
+			decrement(Math.floorMod(index, counters));
+			index += step;
+			step += i + 1;
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation calls {@link #remove(Object)} for each value, so
+	 * values should only be given if they have been added.
+	 */
+	@Override
+	public boolean removeAll(Collection<?> values) {
+		boolean changed = false;
+		for (Object value : values) {
+			changed |= remove(value);
+		}
+		return changed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(words, 0);
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public long memoryUsageBits() {
+		return words.length * 64L;
+	}
+
+	/**
+	 * Returns the number of counters (buckets) in this set.
+	 *
+	 * @return the number of counters in this set
+	 */
+	public int counters() {
+		return counters;
+	}
+
+	/**
+	 * Returns the size of each counter in bits.
+	 *
+	 * @return the size of each counter in bits
+	 */
+	public int counterBits() {
+		return counterBits;
+	}
+
+	/**
+	 * Returns the number of hashes generated when adding elements or testing
+	 * membership.
+	 *
+	 * @return the number of hashes generated when adding elements or testing
+	 *         membership
+	 */
+	public int hashes() {
+		return hashCount;
+	}
+
+	/**
+	 * Returns the hash function used when adding elements or testing
+	 * membership.
+	 *
+	 * @return the hash function used by this set
+	 */
+	public HashStrategy hashStrategy() {
+		return hashStrategy;
+	}
+
+	/**
+	 * Returns the number of elements in this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       CountingBloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public int size() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns an iterator over the elements contained in this collection (not
+	 * supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       CountingBloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public Iterator<String> iterator() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof CountingBloomSet)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		CountingBloomSet o = (CountingBloomSet) other;
+		return (
+				o.counters == counters
+				&& o.counterBits == counterBits
+				&& o.hashCount == hashCount
+				&& o.hashStrategy.equals(hashStrategy)
+				&& Arrays.equals(o.words, words)
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(words) + hashCount;
+	}
+
+	private boolean containsHash() {
+		long index = hashCache[0];
+		long step = hashCache[1];
+		for (int i = 0; i < hashCount; ++ i) {
+			if (counter(Math.floorMod(index, counters)) == 0) {
+				return false;
+			}
+			index += step;
+			step += i + 1;
+		}
+		return true;
+	}
+
+	private long counter(int counter) {
+		int shift = (counter << counterShift) & 63;
+		return (words[counter >>> indexShift] >>> shift) & counterMax;
+	}
+
+	private boolean increment(int counter) {
+		int word = counter >>> indexShift;
+		int shift = (counter << counterShift) & 63;
+		long value = (words[word] >>> shift) & counterMax;
+		if (value == counterMax) {
+			return false; // saturated
+		}
+		words[word] += 1L << shift;
+		return value == 0;
+	}
+
+	private void decrement(int counter) {
+		int word = counter >>> indexShift;
+		int shift = (counter << counterShift) & 63;
+		long value = (words[word] >>> shift) & counterMax;
+		if (value == 0 || value == counterMax) {
+			return; // empty (only possible for false positives) or saturated
+		}
+		words[word] -= 1L << shift;
+	}
+
+	private static void checkCounterBits(int counterBits) {
+		if (
+				counterBits != 2 && counterBits != 4 &&
+				counterBits != 8 && counterBits != 16
+		) {
+			throw new IllegalArgumentException(
+					"counterBits must be 2, 4, 8 or 16"
+			);
+		}
+	}
+}
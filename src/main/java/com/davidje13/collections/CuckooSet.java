@@ -0,0 +1,561 @@
+package com.davidje13.collections;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A set with similar properties to {@link BloomSet}, implemented as a cuckoo
+ * filter (Fan et al., "Cuckoo Filter: Practically Better Than Bloom").
+ *
+ * Each item is stored as a small fingerprint in one of two candidate buckets
+ * of 4 slots. Membership tests read at most 2 buckets, and items can be
+ * removed. At low false-positive rates (roughly below 3%) this uses less
+ * memory per item than a bloom filter.
+ *
+ * Inserting into a full bucket relocates existing fingerprints to their
+ * alternate buckets, up to a fixed number of times. The set can reach about
+ * 95% occupancy; after that, adding fails with {@link IllegalStateException}.
+ *
+ * As with {@link CountingBloomSet}, only items which were added should be
+ * removed, and items added multiple times must be removed the same number of
+ * times.
+ */
+@SuppressWarnings("WeakerAccess")
+public class CuckooSet
+		extends AbstractCollection<String>
+		implements Set<String>
+{
+	private static final int SLOTS_PER_BUCKET = 4;
+	private static final int MAX_KICKS = 500;
+	private static final double MAX_LOAD = 0.95;
+
+	/**
+	 * Calculates the idealised false-positive rate for a given configuration.
+	 *
+	 * @param items           the number of items expected to be in the set
+	 * @param buckets         the number of buckets in the set
+	 * @param fingerprintBits the size of each fingerprint
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 */
+	public static double expectedFalsePositiveRatio(
+			int items,
+			int buckets,
+			int fingerprintBits
+	) {
+		// each lookup compares against the entries in 2 buckets; each entry
+		// matches with probability 1 / (2^f - 1) (fingerprints are non-zero)
+		double entries = 2.0 * items / buckets;
+		double miss = 1.0 - 1.0 / ((1L << fingerprintBits) - 1);
+		return 1.0 - Math.pow(miss, entries);
+	}
+
+	/**
+	 * Creates a new CuckooSet optimised for the given constraints.
+	 *
+	 * The largest fingerprints which leave room for the expected number of
+	 * items are used. The number of buckets is always a power of 2, so up to
+	 * half of the given memory may be unused.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @return an optimal CuckooSet for the given configuration
+	 */
+	public static CuckooSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize
+	) {
+		return withMemoryAndExpectedSize(
+				bits,
+				expectedSize,
+				new Murmur3HashStrategy()
+		);
+	}
+
+	/**
+	 * Creates a new CuckooSet optimised for the given constraints, using a
+	 * specific hash strategy.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @param hashStrategy the hash function to use
+	 * @return an optimal CuckooSet for the given configuration
+	 * @see CuckooSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public static CuckooSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize,
+			HashStrategy hashStrategy
+	) {
+		int fingerprintBits = 16;
+		int buckets = bucketsForMemory(bits, fingerprintBits);
+		if (buckets * SLOTS_PER_BUCKET * MAX_LOAD < expectedSize) {
+			fingerprintBits = 8;
+			buckets = bucketsForMemory(bits, fingerprintBits);
+		}
+		return new CuckooSet(buckets, fingerprintBits, hashStrategy);
+	}
+
+	private final long[] words;
+	private final int bucketMask;
+	private final int fingerprintBits;
+	private final int slotShift;
+	private final int indexShift;
+	private final long fingerprintMask;
+	private final HashStrategy hashStrategy;
+	private final long[] hashCache = new long[2];
+	private long count = 0;
+	private long kickState = 0x9E3779B97F4A7C15L;
+
+	// an entry which could not be placed after MAX_KICKS relocations
+	private boolean hasVictim = false;
+	private int victimBucket;
+	private long victimFingerprint;
+
+	/**
+	 * Create a CuckooSet with specific configuration.
+	 *
+	 * @param buckets         the number of buckets (rounded up to a power of
+	 *                        2); each bucket holds 4 items
+	 * @param fingerprintBits the size of each fingerprint (8 or 16)
+	 * @see CuckooSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public CuckooSet(int buckets, int fingerprintBits) {
+		this(buckets, fingerprintBits, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Create a CuckooSet with specific configuration.
+	 *
+	 * @param buckets         the number of buckets (rounded up to a power of
+	 *                        2); each bucket holds 4 items
+	 * @param fingerprintBits the size of each fingerprint (8 or 16)
+	 * @param hashStrategy    the hash function to use
+	 * @see CuckooSet#withMemoryAndExpectedSize(int, int, HashStrategy)
+	 */
+	public CuckooSet(
+			int buckets,
+			int fingerprintBits,
+			HashStrategy hashStrategy
+	) {
+		if (fingerprintBits != 8 && fingerprintBits != 16) {
+			throw new IllegalArgumentException(
+					"fingerprintBits must be 8 or 16"
+			);
+		}
+		if (buckets < 1 || buckets > (1 << 28)) {
+			throw new IllegalArgumentException("Unsupported bucket count");
+		}
+		if (hashStrategy == null) {
+			throw new NullPointerException();
+		}
+		int bucketCount = Integer.highestOneBit(buckets);
+		if (bucketCount < buckets) {
+			bucketCount <<= 1;
+		}
+		this.bucketMask = bucketCount - 1;
+		this.fingerprintBits = fingerprintBits;
+		this.slotShift = Integer.numberOfTrailingZeros(fingerprintBits);
+		this.indexShift = 6 - slotShift;
+		this.fingerprintMask = (1L << fingerprintBits) - 1;
+		long slots = (long) bucketCount * SLOTS_PER_BUCKET;
+		this.words = new long[(int) (
+				(slots + (1 << indexShift) - 1) >>> indexShift
+		)];
+		this.hashStrategy = hashStrategy;
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given number of items.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see CuckooSet#expectedFalsePositiveRatio(int, int, int)
+	 */
+	public double expectedFalsePositiveRatio(int items) {
+		return expectedFalsePositiveRatio(items, buckets(), fingerprintBits);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Test membership of the given value.
+	 *
+	 * Due to the nature of cuckoo filters, this may report false positives,
+	 * but will never report false negatives (provided only added values have
+	 * been removed).
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the value appears to be in the set
+	 * @see CuckooSet#expectedFalsePositiveRatio(int)
+	 */
+	@Override
+	public boolean contains(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		hashStrategy.hash((String) value, hashCache);
+		return containsHash();
+	}
+
+	/**
+	 * Test membership of the lower-case form of the given value.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the lower-case value appears to be in the set
+	 * @see BloomSet#containsLowerCase(CharSequence)
+	 */
+	public boolean containsLowerCase(CharSequence value) {
+		if (value == null) {
+			return false;
+		}
+
+		hashStrategy.hashLowerCase(value, hashCache);
+		return containsHash();
+	}
+
+	/**
+	 * Adds the given value to this set.
+	 *
+	 * Values can be added multiple times, in which case they must be removed
+	 * the same number of times before they are no longer reported as present.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if the value did not already appear to be present
+	 * @throws NullPointerException  if the value is null
+	 * @throws IllegalStateException if the set is full
+	 */
+	@Override
+	public boolean add(String value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+
+		hashStrategy.hash(value, hashCache);
+		return addHash();
+	}
+
+	/**
+	 * Adds the lower-case form of the given value to this set.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if the value did not already appear to be present
+	 * @throws NullPointerException  if the value is null
+	 * @throws IllegalStateException if the set is full
+	 * @see CuckooSet#add(String)
+	 */
+	public boolean addLowerCase(CharSequence value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+
+		hashStrategy.hashLowerCase(value, hashCache);
+		return addHash();
+	}
+
+	/**
+	 * Removes one occurrence of the given value from this set.
+	 *
+	 * If the value does not appear to be present, this has no effect.
+	 *
+	 * @param value the value to remove (this should have been added)
+	 * @return {@code true} if the value appeared to be present
+	 */
+	@Override
+	public boolean remove(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		hashStrategy.hash((String) value, hashCache);
+		long fingerprint = fingerprint();
+		int bucket1 = bucket();
+		int bucket2 = alternateBucket(bucket1, fingerprint);
+
+		if (
+				hasVictim && victimFingerprint == fingerprint &&
+				(victimBucket == bucket1 || victimBucket == bucket2)
+		) {
+			hasVictim = false;
+			-- count;
+			return true;
+		}
+		if (!removeFrom(bucket1, fingerprint)) {
+			if (!removeFrom(bucket2, fingerprint)) {
+				return false;
+			}
+		}
+		-- count;
+		if (hasVictim) {
+			// space is now available, so the victim can probably be placed
+			hasVictim = false;
+			-- count;
+			insert(victimBucket, victimFingerprint);
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation calls {@link #remove(Object)} for each value, so
+	 * values should only be given if they have been added.
+	 */
+	@Override
+	public boolean removeAll(Collection<?> values) {
+		boolean changed = false;
+		for (Object value : values) {
+			changed |= remove(value);
+		}
+		return changed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(words, 0);
+		count = 0;
+		hasVictim = false;
+	}
+
+	/**
+	 * Returns the proportion of slots which are occupied.
+	 *
+	 * @return a value from 0 (empty) to 1 (full)
+	 */
+	public double loadFactor() {
+		return count / ((double) buckets() * SLOTS_PER_BUCKET);
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public long memoryUsageBits() {
+		return words.length * 64L;
+	}
+
+	/**
+	 * Returns the number of buckets in this set.
+	 *
+	 * @return the number of buckets in this set
+	 */
+	public int buckets() {
+		return bucketMask + 1;
+	}
+
+	/**
+	 * Returns the size of each fingerprint in bits.
+	 *
+	 * @return the size of each fingerprint in bits
+	 */
+	public int fingerprintBits() {
+		return fingerprintBits;
+	}
+
+	/**
+	 * Returns the hash function used when adding elements or testing
+	 * membership.
+	 *
+	 * @return the hash function used by this set
+	 */
+	public HashStrategy hashStrategy() {
+		return hashStrategy;
+	}
+
+	/**
+	 * Returns the number of elements in this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       CuckooSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public int size() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns an iterator over the elements contained in this collection (not
+	 * supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       CuckooSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public Iterator<String> iterator() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof CuckooSet)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		CuckooSet o = (CuckooSet) other;
+		return (
+				o.fingerprintBits == fingerprintBits
+				&& o.hashStrategy.equals(hashStrategy)
+				&& Arrays.equals(o.words, words)
+				&& o.hasVictim == hasVictim
+				&& (!hasVictim || (
+						o.victimBucket == victimBucket
+						&& o.victimFingerprint == victimFingerprint
+				))
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(words) + fingerprintBits;
+	}
+
+	private boolean containsHash() {
+		long fingerprint = fingerprint();
+		int bucket1 = bucket();
+		int bucket2 = alternateBucket(bucket1, fingerprint);
+		return (
+				bucketContains(bucket1, fingerprint)
+				|| bucketContains(bucket2, fingerprint)
+				|| (
+						hasVictim && victimFingerprint == fingerprint &&
+						(victimBucket == bucket1 || victimBucket == bucket2)
+				)
+		);
+	}
+
+	private boolean addHash() {
+		if (hasVictim) {
+			throw new IllegalStateException("CuckooSet is full");
+		}
+		boolean present = containsHash();
+		insert(bucket(), fingerprint());
+		return !present;
+	}
+
+	private void insert(int bucket, long fingerprint) {
+		++ count;
+		if (insertInto(bucket, fingerprint)) {
+			return;
+		}
+		int current = alternateBucket(bucket, fingerprint);
+		if (insertInto(current, fingerprint)) {
+			return;
+		}
+		for (int kick = 0; kick < MAX_KICKS; ++ kick) {
+			// evict a random entry and move it to its alternate bucket
+			int slot = current * SLOTS_PER_BUCKET + (int) (nextRandom() & 3);
+			long evicted = slot(slot);
+			setSlot(slot, fingerprint);
+			fingerprint = evicted;
+			current = alternateBucket(current, fingerprint);
+			if (insertInto(current, fingerprint)) {
+				return;
+			}
+		}
+		hasVictim = true;
+		victimBucket = current;
+		victimFingerprint = fingerprint;
+	}
+
+	private boolean bucketContains(int bucket, long fingerprint) {
+		int first = bucket * SLOTS_PER_BUCKET;
+		for (int i = 0; i < SLOTS_PER_BUCKET; ++ i) {
+			if (slot(first + i) == fingerprint) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean insertInto(int bucket, long fingerprint) {
+		int first = bucket * SLOTS_PER_BUCKET;
+		for (int i = 0; i < SLOTS_PER_BUCKET; ++ i) {
+			if (slot(first + i) == 0) {
+				setSlot(first + i, fingerprint);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean removeFrom(int bucket, long fingerprint) {
+		int first = bucket * SLOTS_PER_BUCKET;
+		for (int i = 0; i < SLOTS_PER_BUCKET; ++ i) {
+			if (slot(first + i) == fingerprint) {
+				setSlot(first + i, 0);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private long slot(int slot) {
+		int shift = (slot << slotShift) & 63;
+		return (words[slot >>> indexShift] >>> shift) & fingerprintMask;
+	}
+
+	private void setSlot(int slot, long fingerprint) {
+		int word = slot >>> indexShift;
+		int shift = (slot << slotShift) & 63;
+		words[word] = (words[word] & ~(fingerprintMask << shift)) |
+				(fingerprint << shift);
+	}
+
+	private int bucket() {
+		return (int) hashCache[0] & bucketMask;
+	}
+
+	private long fingerprint() {
+		long fingerprint = hashCache[1] >>> (64 - fingerprintBits);
+		// 0 marks an empty slot
+		return (fingerprint == 0) ? 1 : fingerprint;
+	}
+
+	private int alternateBucket(int bucket, long fingerprint) {
+		// partial-key cuckoo hashing: applying this twice gives the original
+		// bucket, so the alternate can be found from the fingerprint alone
+		long mixed = fingerprint * 0xC6A4A7935BD1E995L;
+		return (bucket ^ (int) (mixed >>> 32)) & bucketMask;
+	}
+
+	private long nextRandom() {
+		// xorshift64; deterministic so that behaviour is repeatable
+		long x = kickState;
+		x ^= x << 13;
+		x ^= x >>> 7;
+		x ^= x << 17;
+		kickState = x;
+		return x;
+	}
+
+	private static int bucketsForMemory(int bits, int fingerprintBits) {
+		int buckets = bits / (fingerprintBits * SLOTS_PER_BUCKET);
+		return Math.max(Integer.highestOneBit(buckets), 1);
+	}
+}
@@ -0,0 +1,192 @@
+package com.davidje13.collections;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Off-heap bit storage using direct {@link ByteBuffer}s.
+ *
+ * The memory is released by {@link #close()} rather than waiting for garbage
+ * collection. The store can also wrap existing buffers, such as memory-mapped
+ * files, in which case closing unmaps them. The store must not be used (by
+ * any thread) after it has been closed.
+ */
+class DirectBitStore extends BitStore implements AutoCloseable {
+	private static final int DEFAULT_PAGE_SHIFT = 27; // 1GB pages
+
+	private static final Consumer<ByteBuffer> CLEANER = findCleaner();
+
+	private ByteBuffer[] buffers;
+	private LongBuffer[] pages;
+	private final long wordCount;
+	private final int pageShift;
+	private final long pageMask;
+
+	/**
+	 * Allocates the store for a new off-heap bloom set, after checking the
+	 * set's configuration.
+	 *
+	 * Off-heap sets must check their configuration here rather than leaving
+	 * it to their superclass constructor, since if that threw, nothing could
+	 * release the memory.
+	 *
+	 * @param bits         the number of bits to allocate
+	 * @param hashCount    the number of hashes the set will use
+	 * @param hashStrategy the hash function the set will use
+	 * @param intIndexed   {@code true} if the set is limited to {@code int}
+	 *                     indices (after rounding up to whole words)
+	 * @return the new store
+	 * @throws IllegalArgumentException if the configuration is not valid
+	 * @throws NullPointerException if {@code hashStrategy} is null
+	 */
+	static DirectBitStore forBloomSet(
+			long bits,
+			int hashCount,
+			HashStrategy hashStrategy,
+			boolean intIndexed
+	) {
+		if (hashStrategy == null) {
+			throw new NullPointerException();
+		}
+		BloomBits.checkHashCount(hashCount);
+		if (intIndexed) {
+			BloomSet.checkIntBits(bits, Long.SIZE);
+		}
+		return new DirectBitStore(bits);
+	}
+
+	DirectBitStore(long bits) {
+		this(bits, DEFAULT_PAGE_SHIFT);
+	}
+
+	DirectBitStore(long bits, int pageShift) {
+		if (bits < 0) {
+			throw new IllegalArgumentException("bits must not be negative");
+		}
+		this.wordCount = (bits + 63) >>> 6;
+		this.pageShift = pageShift;
+		this.pageMask = (1L << pageShift) - 1;
+
+		long pageCount = (wordCount + pageMask) >>> pageShift;
+		if (pageCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many bits: " + bits);
+		}
+		this.buffers = new ByteBuffer[(int) pageCount];
+		this.pages = new LongBuffer[(int) pageCount];
+		try {
+			for (int p = 0; p < pages.length; ++ p) {
+				long remaining = wordCount - ((long) p << pageShift);
+				int words = (int) Math.min(remaining, pageMask + 1);
+				// allocateDirect always returns zeroed memory
+				buffers[p] = ByteBuffer.allocateDirect(words * 8)
+						.order(ByteOrder.nativeOrder());
+				pages[p] = buffers[p].asLongBuffer();
+			}
+		} catch (OutOfMemoryError e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Wraps existing direct buffers, which become owned by this store.
+	 *
+	 * Each buffer except the last must contain exactly {@code 1 << pageShift}
+	 * words. The buffers' byte order is used. If the buffers are read-only,
+	 * any attempt to change a bit will throw
+	 * {@link java.nio.ReadOnlyBufferException}.
+	 *
+	 * @param buffers   the pages of storage
+	 * @param wordCount the total number of words in the buffers
+	 * @param pageShift log2 of the number of words in each page
+	 */
+	DirectBitStore(ByteBuffer[] buffers, long wordCount, int pageShift) {
+		this.wordCount = wordCount;
+		this.pageShift = pageShift;
+		this.pageMask = (1L << pageShift) - 1;
+		this.buffers = buffers.clone();
+		this.pages = new LongBuffer[buffers.length];
+		for (int p = 0; p < pages.length; ++ p) {
+			pages[p] = this.buffers[p].asLongBuffer();
+		}
+		invalidateCardinality();
+	}
+
+	@Override
+	long wordCount() {
+		return wordCount;
+	}
+
+	@Override
+	long getWord(long index) {
+		return pages()[(int) (index >>> pageShift)]
+				.get((int) (index & pageMask));
+	}
+
+	@Override
+	void putWord(long index, long word) {
+		pages()[(int) (index >>> pageShift)]
+				.put((int) (index & pageMask), word);
+	}
+
+	/**
+	 * Releases the off-heap memory used by this store.
+	 *
+	 * Calling this multiple times has no effect.
+	 */
+	@Override
+	public void close() {
+		ByteBuffer[] released = buffers;
+		buffers = null;
+		pages = null;
+		if (released == null) {
+			return;
+		}
+		for (ByteBuffer buffer : released) {
+			if (buffer != null) {
+				CLEANER.accept(buffer);
+			}
+		}
+	}
+
+	boolean isClosed() {
+		return pages == null;
+	}
+
+	private LongBuffer[] pages() {
+		LongBuffer[] current = pages;
+		if (current == null) {
+			throw new IllegalStateException("Storage has been closed");
+		}
+		return current;
+	}
+
+	private static Consumer<ByteBuffer> findCleaner() {
+		// sun.misc.Unsafe#invokeCleaner frees direct memory immediately
+		// (Java 9+); if it is not available, memory is freed when the buffer
+		// is garbage collected.
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			Object unsafe = field.get(null);
+			Method invokeCleaner = unsafeClass.getMethod(
+					"invokeCleaner",
+					ByteBuffer.class
+			);
+			return (buffer) -> {
+				try {
+					invokeCleaner.invoke(unsafe, buffer);
+				} catch (ReflectiveOperationException ignored) {
+					// leave it to the garbage collector
+				}
+			};
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return (buffer) -> {};
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.davidje13.collections;
+
+/**
+ * Describes how to feed the fields of a key into a hash function, for use by
+ * {@link GenericBloomSet}.
+ *
+ * Implementations must be deterministic: equal keys must always produce the
+ * same sequence of values. Variable-length fields (such as strings) should be
+ * preceded by their length or followed by a separator, so that different
+ * keys cannot produce the same bytes (e.g. {@code "ab", "c"} and
+ * {@code "a", "bc"}).
+ *
+ * <pre>{@code
+ * Funnel<Event> funnel = (event, sink) -> sink
+ *         .putString(event.tenant).putByte((byte) 0)
+ *         .putLong(event.id)
+ *         .putLong(event.timestamp);
+ * }</pre>
+ *
+ * @param <T> the type of key
+ */
+@FunctionalInterface
+public interface Funnel<T> {
+	/**
+	 * Sends the fields of the given key to the sink.
+	 *
+	 * @param key  the key to hash
+	 * @param sink the destination for the key's fields
+	 */
+	void funnel(T key, KeySink sink);
+}
@@ -0,0 +1,249 @@
+package com.davidje13.collections;
+
+/**
+ * A variant of {@link BloomSet} for arbitrary keys.
+ *
+ * Keys are described by a {@link Funnel}, which streams their fields
+ * directly into an incremental MurmurHash3 (x64 128-bit), so composite keys
+ * do not need to be concatenated into Strings first. Buckets are chosen
+ * using the same enhanced double hashing as {@link BloomSet}, and a funnel
+ * which only calls {@link KeySink#putString(CharSequence)} produces the same
+ * bits as a BloomSet using the default {@link Murmur3HashStrategy}.
+ *
+ * This is not a {@link java.util.Collection}, since membership can only be
+ * tested for keys of the correct type.
+ *
+ * @param <T> the type of key
+ */
+@SuppressWarnings("WeakerAccess")
+public class GenericBloomSet<T> {
+	/**
+	 * Creates a new GenericBloomSet optimised for the given constraints.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @param funnel       describes how to hash each key
+	 * @param <T>          the type of key
+	 * @return an optimal GenericBloomSet for the given configuration
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public static <T> GenericBloomSet<T> withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize,
+			Funnel<? super T> funnel
+	) {
+		return new GenericBloomSet<>(
+				bits,
+				BloomSet.idealHashCount(expectedSize, bits),
+				funnel
+		);
+	}
+
+	private final BloomBits bits;
+	private final Funnel<? super T> funnel;
+	private final Murmur3Hasher hasher = new Murmur3Hasher(0);
+	private final long[] hashCache = new long[2];
+
+	/**
+	 * Create a GenericBloomSet with specific configuration.
+	 *
+	 * Actual memory usage may differ slightly, and will typically be in
+	 * multiples of 64 bits.
+	 *
+	 * @param bits      the amount of memory to allocate
+	 * @param hashCount the number of hashes to use
+	 * @param funnel    describes how to hash each key
+	 * @throws IllegalArgumentException if {@code bits} rounded up to a
+	 *                                  multiple of 64 is more than
+	 *                                  {@link Integer#MAX_VALUE}
+	 * @see GenericBloomSet#withMemoryAndExpectedSize(int, int, Funnel)
+	 */
+	public GenericBloomSet(int bits, int hashCount, Funnel<? super T> funnel) {
+		if (funnel == null) {
+			throw new NullPointerException();
+		}
+		BloomSet.checkIntBits(bits, Long.SIZE);
+		this.bits = new BloomBits(new PagedBitStore(bits), hashCount, funnel);
+		this.funnel = funnel;
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given number of items.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BloomSet#expectedFalsePositiveRatio(int, int, int)
+	 */
+	public double expectedFalsePositiveRatio(int items) {
+		return bits.expectedFalsePositiveRatio(items);
+	}
+
+	/**
+	 * Returns {@code true} if no keys have been added.
+	 *
+	 * @return {@code true} if this set is empty
+	 */
+	public boolean isEmpty() {
+		return bits.isEmpty();
+	}
+
+	/**
+	 * Test membership of the given key.
+	 *
+	 * Due to the nature of bloom filters, this may report false positives, but
+	 * will never report false negatives.
+	 *
+	 * @param key the key to test for membership
+	 * @return {@code true} if the key appears to be in the set
+	 * @see GenericBloomSet#expectedFalsePositiveRatio(int)
+	 */
+	public boolean contains(T key) {
+		if (key == null) {
+			return false;
+		}
+		hash(key);
+		return bits.containsHash(hashCache[0], hashCache[1]);
+	}
+
+	/**
+	 * Adds the given key to this set.
+	 *
+	 * @param key the key to add
+	 * @return {@code true} if this set changed as a result of the call
+	 * @throws NullPointerException if the key is null
+	 */
+	public boolean add(T key) {
+		if (key == null) {
+			throw new NullPointerException();
+		}
+		hash(key);
+		return bits.addHash(hashCache[0], hashCache[1]);
+	}
+
+	/**
+	 * Adds all of the keys in the specified GenericBloomSet to this set if
+	 * they're not already present.
+	 *
+	 * @param  keys a GenericBloomSet with the same configuration (including
+	 *              the same funnel) as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see BloomSet#addAll(BloomSet)
+	 */
+	public boolean addAll(GenericBloomSet<? extends T> keys) {
+		return bits.or(keys.bits);
+	}
+
+	/**
+	 * Retains only the keys in this set that are contained in the specified
+	 * GenericBloomSet.
+	 *
+	 * @param  keys a GenericBloomSet with the same configuration (including
+	 *              the same funnel) as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see BloomSet#retainAll(BloomSet)
+	 */
+	public boolean retainAll(GenericBloomSet<? extends T> keys) {
+		return bits.and(keys.bits);
+	}
+
+	/**
+	 * Removes all keys from this set. This is a linear-time operation.
+	 */
+	public void clear() {
+		bits.clear();
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public int memoryUsageBits() {
+		return (int) bits.sizeBits();
+	}
+
+	/**
+	 * Returns the number of bits which are currently set.
+	 *
+	 * @return the number of set bits
+	 * @see BloomSet#bitCount()
+	 */
+	public int bitCount() {
+		return (int) bits.bitCount();
+	}
+
+	/**
+	 * Returns the proportion of bits which are currently set.
+	 *
+	 * @return a value from 0 (empty) to 1 (saturated)
+	 * @see BloomSet#fillRatio()
+	 */
+	public double fillRatio() {
+		return bits.fillRatio();
+	}
+
+	/**
+	 * Estimates the number of distinct keys in this set from the number of
+	 * set bits. This is a constant-time operation.
+	 *
+	 * @return the estimated number of distinct keys in this set
+	 * @see BloomSet#estimatedSize()
+	 */
+	public long estimatedSize() {
+		return bits.estimatedSize();
+	}
+
+	/**
+	 * Returns the number of hashes generated when adding keys or testing
+	 * membership.
+	 *
+	 * @return the number of hashes generated when adding keys or testing
+	 *         membership
+	 */
+	public int hashes() {
+		return bits.hashes();
+	}
+
+	/**
+	 * Returns the funnel used to hash keys.
+	 *
+	 * @return the funnel used by this set
+	 */
+	public Funnel<? super T> funnel() {
+		return funnel;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof GenericBloomSet)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		return ((GenericBloomSet<?>) other).bits.contentEquals(bits);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return bits.contentHashCode();
+	}
+
+	private void hash(T key) {
+		hasher.reset();
+		funnel.funnel(key, hasher);
+		hasher.finish(hashCache);
+	}
+}
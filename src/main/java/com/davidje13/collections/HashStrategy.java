@@ -0,0 +1,44 @@
+package com.davidje13.collections;
+
+/**
+ * A hash function which can be used by {@link BloomSet} to choose buckets.
+ *
+ * Implementations must be deterministic and thread-safe, and should override
+ * {@link Object#equals(Object)} so that sets using equivalent strategies can
+ * be combined.
+ *
+ * @see Murmur3HashStrategy
+ * @see Md5HashStrategy
+ */
+public interface HashStrategy {
+	/**
+	 * Calculates a 128-bit hash of the given value.
+	 *
+	 * @param value  the value to hash
+	 * @param target an array of at least 2 elements which will receive the
+	 *               hash in its first 2 elements
+	 */
+	void hash(CharSequence value, long[] target);
+
+	/**
+	 * Calculates a 128-bit hash of the lower-case form of the given value.
+	 *
+	 * The result must be the same as calling {@link #hash} with each code
+	 * point of the value converted by {@link Character#toLowerCase(int)}.
+	 *
+	 * @implSpec
+	 * The default implementation builds a lower-case copy of the value, then
+	 * hashes it.
+	 *
+	 * @param value  the value to hash
+	 * @param target an array of at least 2 elements which will receive the
+	 *               hash in its first 2 elements
+	 */
+	default void hashLowerCase(CharSequence value, long[] target) {
+		StringBuilder lower = new StringBuilder(value.length());
+		value.codePoints()
+				.map(Character::toLowerCase)
+				.forEach(lower::appendCodePoint);
+		hash(lower, target);
+	}
+}
@@ -0,0 +1,356 @@
+package com.davidje13.collections;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps a {@link BloomSet} to count adds and lookups, sample lookup latency,
+ * and compare the current false-positive rate with the designed one.
+ *
+ * Counters use {@link LongAdder}, so they do not contend between threads (the
+ * wrapped set itself is not thread-safe; see {@link ConcurrentBloomSet}).
+ * Latency is sampled for 1 in 64 lookups, to keep the cost of timing low.
+ * When disabled (with {@link #setEnabled(boolean)}), the only overhead is a
+ * single volatile read per operation.
+ *
+ * Statistics can be published through JMX with {@link #registerMBean(String)}.
+ * The wrapped set is only read by the thread which uses it: the statistics
+ * which depend on its content ({@link #getFillRatio()},
+ * {@link #getEstimatedSize()} and {@link #getCurrentFalsePositiveRatio()})
+ * are computed from a count of set bits which that thread publishes after
+ * each change, so they are always consistent with each other. The count is
+ * not refreshed while instrumentation is disabled, or by changes made
+ * directly to the wrapped set.
+ */
+@SuppressWarnings("WeakerAccess")
+public class InstrumentedBloomSet
+		extends AbstractCollection<String>
+		implements Set<String>, InstrumentedBloomSetMBean
+{
+	private static final int LATENCY_SAMPLE_MASK = 63;
+
+	private final BloomSet delegate;
+	private final int expectedSize;
+	private volatile boolean enabled = true;
+
+	private final LongAdder adds = new LongAdder();
+	private final LongAdder changingAdds = new LongAdder();
+	private final LongAdder lookups = new LongAdder();
+	private final LongAdder positives = new LongAdder();
+	private final LatencyHistogram lookupLatency = new LatencyHistogram();
+	private volatile long bitCount;
+
+	private ObjectName registeredName = null;
+
+	/**
+	 * Wraps the given set.
+	 *
+	 * @param delegate     the set to instrument
+	 * @param expectedSize the number of items the set was designed for (used
+	 *                     to calculate {@link #getDesignFalsePositiveRatio()})
+	 */
+	public InstrumentedBloomSet(BloomSet delegate, int expectedSize) {
+		if (delegate == null) {
+			throw new NullPointerException();
+		}
+		this.delegate = delegate;
+		this.expectedSize = expectedSize;
+		this.bitCount = delegate.bitCount();
+	}
+
+	/**
+	 * Returns the wrapped set. Operations on the wrapped set are not counted.
+	 *
+	 * @return the wrapped set
+	 */
+	public BloomSet delegate() {
+		return delegate;
+	}
+
+	/**
+	 * Publishes this set's statistics to the platform MBean server, as
+	 * {@code com.davidje13.collections:type=BloomSet,name=<name>}.
+	 *
+	 * @param name a name which identifies this set
+	 * @return the name under which the MBean was registered
+	 * @throws JMException if the MBean cannot be registered (e.g. the name is
+	 *                     already in use)
+	 * @throws IllegalStateException if this set is already registered
+	 */
+	public synchronized ObjectName registerMBean(String name)
+			throws JMException
+	{
+		if (registeredName != null) {
+			throw new IllegalStateException("Already registered");
+		}
+		ObjectName objectName = new ObjectName(
+				"com.davidje13.collections:type=BloomSet,name=" +
+				ObjectName.quote(name)
+		);
+		ManagementFactory.getPlatformMBeanServer()
+				.registerMBean(this, objectName);
+		registeredName = objectName;
+		return objectName;
+	}
+
+	/**
+	 * Removes this set's statistics from the platform MBean server. Has no
+	 * effect if they are not registered.
+	 *
+	 * @throws JMException if the MBean cannot be unregistered
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (registeredName == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		if (server.isRegistered(registeredName)) {
+			server.unregisterMBean(registeredName);
+		}
+		registeredName = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(Object value) {
+		if (!enabled) {
+			return delegate.contains(value);
+		}
+		if (!shouldSampleLatency()) {
+			return countLookup(delegate.contains(value));
+		}
+		long begin = System.nanoTime();
+		boolean result = delegate.contains(value);
+		lookupLatency.record(System.nanoTime() - begin);
+		return countLookup(result);
+	}
+
+	/**
+	 * Test membership of the lower-case form of the given value.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the lower-case value appears to be in the set
+	 * @see BloomSet#containsLowerCase(CharSequence)
+	 */
+	public boolean containsLowerCase(CharSequence value) {
+		if (!enabled) {
+			return delegate.containsLowerCase(value);
+		}
+		if (!shouldSampleLatency()) {
+			return countLookup(delegate.containsLowerCase(value));
+		}
+		long begin = System.nanoTime();
+		boolean result = delegate.containsLowerCase(value);
+		lookupLatency.record(System.nanoTime() - begin);
+		return countLookup(result);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(String value) {
+		boolean changed = delegate.add(value);
+		if (enabled) {
+			countAdd(changed);
+		}
+		return changed;
+	}
+
+	/**
+	 * Adds the lower-case form of the given value to this set.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if this set changed as a result of the call
+	 * @see BloomSet#addLowerCase(CharSequence)
+	 */
+	public boolean addLowerCase(CharSequence value) {
+		boolean changed = delegate.addLowerCase(value);
+		if (enabled) {
+			countAdd(changed);
+		}
+		return changed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean retainAll(Collection<?> values) {
+		boolean changed = delegate.retainAll(values);
+		bitCount = delegate.bitCount();
+		return changed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return delegate.isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Statistics are not reset; see {@link #resetStatistics()}.
+	 */
+	@Override
+	public void clear() {
+		delegate.clear();
+		bitCount = 0;
+	}
+
+	/**
+	 * Returns the number of elements in this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by BloomSet
+	 * @deprecated not supported
+	 * @see #getEstimatedSize()
+	 */
+	@Override
+	@Deprecated
+	@SuppressWarnings("deprecation")
+	public int size() {
+		return delegate.size();
+	}
+
+	/**
+	 * Returns an iterator over the elements contained in this collection (not
+	 * supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by BloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	@SuppressWarnings("deprecation")
+	public Iterator<String> iterator() {
+		return delegate.iterator();
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public long getAdds() {
+		return adds.sum();
+	}
+
+	@Override
+	public long getChangingAdds() {
+		return changingAdds.sum();
+	}
+
+	@Override
+	public long getLookups() {
+		return lookups.sum();
+	}
+
+	@Override
+	public long getPositives() {
+		return positives.sum();
+	}
+
+	@Override
+	public double getPositiveRatio() {
+		long total = lookups.sum();
+		return (total == 0) ? 0 : positives.sum() / (double) total;
+	}
+
+	@Override
+	public double getFillRatio() {
+		// the size and hash count are fixed, so can be read from any thread
+		return bitCount / (double) delegate.memoryUsageBits();
+	}
+
+	@Override
+	public long getEstimatedSize() {
+		return Math.round(BloomSet.estimatedItems(
+				bitCount,
+				delegate.memoryUsageBits(),
+				delegate.hashes()
+		));
+	}
+
+	@Override
+	public double getDesignFalsePositiveRatio() {
+		return delegate.expectedFalsePositiveRatio(expectedSize);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * A value which is not in the set is reported as present if all of its
+	 * bits are set, so this is the fill ratio raised to the power of the hash
+	 * count.
+	 */
+	@Override
+	public double getCurrentFalsePositiveRatio() {
+		return Math.pow(getFillRatio(), delegate.hashes());
+	}
+
+	@Override
+	public long getLookupLatencyP50Nanos() {
+		return lookupLatency.percentileNanos(50);
+	}
+
+	@Override
+	public long getLookupLatencyP99Nanos() {
+		return lookupLatency.percentileNanos(99);
+	}
+
+	@Override
+	public long[] getLookupLatencyHistogram() {
+		return lookupLatency.snapshot();
+	}
+
+	@Override
+	public void resetStatistics() {
+		adds.reset();
+		changingAdds.reset();
+		lookups.reset();
+		positives.reset();
+		lookupLatency.reset();
+	}
+
+	private boolean countLookup(boolean found) {
+		lookups.increment();
+		if (found) {
+			positives.increment();
+		}
+		return found;
+	}
+
+	private void countAdd(boolean changed) {
+		adds.increment();
+		if (changed) {
+			changingAdds.increment();
+			bitCount = delegate.bitCount();
+		}
+	}
+
+	private static boolean shouldSampleLatency() {
+		return (
+				(ThreadLocalRandom.current().nextInt() & LATENCY_SAMPLE_MASK)
+				== 0
+		);
+	}
+}
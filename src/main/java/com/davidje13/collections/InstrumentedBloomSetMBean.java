@@ -0,0 +1,82 @@
+package com.davidje13.collections;
+
+/**
+ * The JMX management interface of {@link InstrumentedBloomSet}.
+ */
+public interface InstrumentedBloomSetMBean {
+	/**
+	 * @return {@code true} if operations are currently being counted
+	 */
+	boolean isEnabled();
+
+	/**
+	 * @param enabled {@code true} to count operations
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * @return the number of calls to add
+	 */
+	long getAdds();
+
+	/**
+	 * @return the number of calls to add which changed the set
+	 */
+	long getChangingAdds();
+
+	/**
+	 * @return the number of membership tests
+	 */
+	long getLookups();
+
+	/**
+	 * @return the number of membership tests which returned {@code true}
+	 */
+	long getPositives();
+
+	/**
+	 * @return the proportion of membership tests which returned {@code true}
+	 */
+	double getPositiveRatio();
+
+	/**
+	 * @return the proportion of bits which are set
+	 */
+	double getFillRatio();
+
+	/**
+	 * @return the estimated number of distinct items in the set
+	 */
+	long getEstimatedSize();
+
+	/**
+	 * @return the expected false-positive rate at the set's design capacity
+	 */
+	double getDesignFalsePositiveRatio();
+
+	/**
+	 * @return the false-positive rate implied by the current fill level
+	 */
+	double getCurrentFalsePositiveRatio();
+
+	/**
+	 * @return the median sampled lookup latency (upper bound, nanoseconds)
+	 */
+	long getLookupLatencyP50Nanos();
+
+	/**
+	 * @return the 99th percentile sampled lookup latency (upper bound,
+	 *         nanoseconds)
+	 */
+	long getLookupLatencyP99Nanos();
+
+	/**
+	 * @return sampled lookup latency counts in power-of-two nanosecond buckets
+	 */
+	long[] getLookupLatencyHistogram();
+
+	/**
+	 * Resets all counters and histograms to 0.
+	 */
+	void resetStatistics();
+}
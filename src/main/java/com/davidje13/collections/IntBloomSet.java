@@ -0,0 +1,211 @@
+package com.davidje13.collections;
+
+/**
+ * A variant of {@link BloomSet} for {@code int} keys.
+ *
+ * Keys are hashed in the same way as {@link LongBloomSet}, without building
+ * strings or allocating memory.
+ *
+ * @see LongBloomSet
+ */
+@SuppressWarnings("WeakerAccess")
+public class IntBloomSet {
+	/**
+	 * Creates a new IntBloomSet optimised for the given constraints.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @return an optimal IntBloomSet for the given configuration
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public static IntBloomSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize
+	) {
+		return new IntBloomSet(
+				bits,
+				BloomSet.idealHashCount(expectedSize, bits)
+		);
+	}
+
+	private final LongBloomSet keys;
+
+	/**
+	 * Create an IntBloomSet with specific configuration.
+	 *
+	 * Actual memory usage may differ slightly, and will typically be in
+	 * multiples of 64 bits.
+	 *
+	 * @param bits      the amount of memory to allocate
+	 * @param hashCount the number of hashes to use
+	 * @see IntBloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public IntBloomSet(int bits, int hashCount) {
+		this.keys = new LongBloomSet(bits, hashCount);
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given number of items.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BloomSet#expectedFalsePositiveRatio(int, int, int)
+	 */
+	public double expectedFalsePositiveRatio(int items) {
+		return keys.expectedFalsePositiveRatio(items);
+	}
+
+	/**
+	 * Returns {@code true} if no keys have been added.
+	 *
+	 * @return {@code true} if this set is empty
+	 */
+	public boolean isEmpty() {
+		return keys.isEmpty();
+	}
+
+	/**
+	 * Test membership of the given key.
+	 *
+	 * Due to the nature of bloom filters, this may report false positives, but
+	 * will never report false negatives.
+	 *
+	 * @param key the key to test for membership
+	 * @return {@code true} if the key appears to be in the set
+	 * @see IntBloomSet#expectedFalsePositiveRatio(int)
+	 */
+	public boolean contains(int key) {
+		return keys.contains(key);
+	}
+
+	/**
+	 * Adds the given key to this set.
+	 *
+	 * @param key the key to add
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	public boolean add(int key) {
+		return keys.add(key);
+	}
+
+	/**
+	 * Adds all of the given keys to this set.
+	 *
+	 * @param keys the keys to add
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	public boolean addAll(int[] keys) {
+		boolean changed = false;
+		for (int key : keys) {
+			changed |= this.keys.add(key);
+		}
+		return changed;
+	}
+
+	/**
+	 * Adds all of the keys in the specified IntBloomSet to this set if
+	 * they're not already present.
+	 *
+	 * @param  keys an IntBloomSet with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see BloomSet#addAll(BloomSet)
+	 */
+	public boolean addAll(IntBloomSet keys) {
+		return this.keys.addAll(keys.keys);
+	}
+
+	/**
+	 * Retains only the keys in this set that are contained in the specified
+	 * IntBloomSet.
+	 *
+	 * @param  keys an IntBloomSet with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see BloomSet#retainAll(BloomSet)
+	 */
+	public boolean retainAll(IntBloomSet keys) {
+		return this.keys.retainAll(keys.keys);
+	}
+
+	/**
+	 * Removes all keys from this set. This is a linear-time operation.
+	 */
+	public void clear() {
+		keys.clear();
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public int memoryUsageBits() {
+		return keys.memoryUsageBits();
+	}
+
+	/**
+	 * Returns the number of bits which are currently set.
+	 *
+	 * @return the number of set bits
+	 * @see BloomSet#bitCount()
+	 */
+	public int bitCount() {
+		return keys.bitCount();
+	}
+
+	/**
+	 * Returns the proportion of bits which are currently set.
+	 *
+	 * @return a value from 0 (empty) to 1 (saturated)
+	 * @see BloomSet#fillRatio()
+	 */
+	public double fillRatio() {
+		return keys.fillRatio();
+	}
+
+	/**
+	 * Estimates the number of distinct keys in this set from the number of
+	 * set bits. This is a constant-time operation.
+	 *
+	 * @return the estimated number of distinct keys in this set
+	 * @see BloomSet#estimatedSize()
+	 */
+	public long estimatedSize() {
+		return keys.estimatedSize();
+	}
+
+	/**
+	 * Returns the number of hashes generated when adding keys or testing
+	 * membership.
+	 *
+	 * @return the number of hashes generated when adding keys or testing
+	 *         membership
+	 */
+	public int hashes() {
+		return keys.hashes();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof IntBloomSet)) {
+			return false;
+		}
+		return ((IntBloomSet) other).keys.equals(keys);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return keys.hashCode();
+	}
+}
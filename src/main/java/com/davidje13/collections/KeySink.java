@@ -0,0 +1,50 @@
+package com.davidje13.collections;
+
+/**
+ * A destination for the fields of a key, used by {@link Funnel}.
+ *
+ * Values are consumed immediately (multi-byte values in little-endian order),
+ * so nothing is allocated while hashing.
+ */
+public interface KeySink {
+	/**
+	 * Adds a single byte.
+	 *
+	 * @param value the byte to add
+	 * @return this sink
+	 */
+	KeySink putByte(byte value);
+
+	/**
+	 * Adds a boolean as a single byte (1 or 0).
+	 *
+	 * @param value the boolean to add
+	 * @return this sink
+	 */
+	KeySink putBoolean(boolean value);
+
+	/**
+	 * Adds the 4 bytes of an int.
+	 *
+	 * @param value the int to add
+	 * @return this sink
+	 */
+	KeySink putInt(int value);
+
+	/**
+	 * Adds the 8 bytes of a long.
+	 *
+	 * @param value the long to add
+	 * @return this sink
+	 */
+	KeySink putLong(long value);
+
+	/**
+	 * Adds the UTF-8 encoding of a character sequence (without a length or
+	 * terminator).
+	 *
+	 * @param value the characters to add
+	 * @return this sink
+	 */
+	KeySink putString(CharSequence value);
+}
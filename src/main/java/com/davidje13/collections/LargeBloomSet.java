@@ -0,0 +1,253 @@
+package com.davidje13.collections;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A variant of {@link BloomSet} which can use more than
+ * {@link Integer#MAX_VALUE} bits (256MB).
+ *
+ * Bits are addressed using {@code long} indices and stored in pages, so there
+ * is no need to shard very large filters manually.
+ */
+@SuppressWarnings("WeakerAccess")
+public class LargeBloomSet extends AbstractBloomSet<LargeBloomSet> {
+	/**
+	 * Creates a new LargeBloomSet optimised for the given constraints.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @return an optimal LargeBloomSet for the given configuration
+	 * @see BloomSet#idealHashCount(long, long)
+	 */
+	public static LargeBloomSet withMemoryAndExpectedSize(
+			long bits,
+			long expectedSize
+	) {
+		return new LargeBloomSet(
+				bits,
+				BloomSet.idealHashCount(expectedSize, bits)
+		);
+	}
+
+	/**
+	 * Creates a new LargeBloomSet optimised for the given constraints, using a
+	 * specific hash strategy.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @param hashStrategy the hash function to use
+	 * @return an optimal LargeBloomSet for the given configuration
+	 * @see BloomSet#idealHashCount(long, long)
+	 */
+	public static LargeBloomSet withMemoryAndExpectedSize(
+			long bits,
+			long expectedSize,
+			HashStrategy hashStrategy
+	) {
+		return new LargeBloomSet(
+				bits,
+				BloomSet.idealHashCount(expectedSize, bits),
+				hashStrategy
+		);
+	}
+
+	/**
+	 * Reads a set written by {@link #writeTo(OutputStream)}.
+	 *
+	 * @param in the stream to read from (this is not closed)
+	 * @return a new LargeBloomSet with the stored configuration and content
+	 * @throws IOException if the stream cannot be read or does not contain a
+	 *                     valid LargeBloomSet
+	 * @see #readFrom(ReadableByteChannel)
+	 */
+	public static LargeBloomSet readFrom(InputStream in) throws IOException {
+		return readFrom(Channels.newChannel(in));
+	}
+
+	/**
+	 * Reads a set written by {@link #writeTo(WritableByteChannel)}.
+	 *
+	 * Only the bytes belonging to the set are consumed, so further data can
+	 * follow it in the channel.
+	 *
+	 * @param channel the (blocking) channel to read from (this is not closed)
+	 * @return a new LargeBloomSet with the stored configuration and content
+	 * @throws IOException if the channel cannot be read or does not contain a
+	 *                     valid LargeBloomSet
+	 * @see #readFrom(ReadableByteChannel, long)
+	 */
+	public static LargeBloomSet readFrom(ReadableByteChannel channel)
+			throws IOException {
+		return readFrom(channel, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Reads a set written by {@link #writeTo(WritableByteChannel)}, rejecting
+	 * sets larger than a given size.
+	 *
+	 * The size is checked before any memory is allocated, so this should be
+	 * used when reading from untrusted sources.
+	 *
+	 * @param channel the (blocking) channel to read from (this is not closed)
+	 * @param maxBits the largest set to accept
+	 * @return a new LargeBloomSet with the stored configuration and content
+	 * @throws IOException if the channel cannot be read, does not contain a
+	 *                     valid LargeBloomSet, or contains a set with more
+	 *                     than {@code maxBits} bits
+	 */
+	public static LargeBloomSet readFrom(
+			ReadableByteChannel channel,
+			long maxBits
+	) throws IOException {
+		BloomSetFormat.Stored<PagedBitStore> stored =
+				BloomSetFormat.read(channel, "stream", maxBits);
+		return new LargeBloomSet(
+				stored.bits,
+				stored.hashCount,
+				stored.hashStrategy
+		);
+	}
+
+	/**
+	 * Create a LargeBloomSet with specific configuration.
+	 *
+	 * Actual memory usage will be rounded up to a multiple of 64 bits.
+	 *
+	 * @param bits      the amount of memory to allocate
+	 * @param hashCount the number of hashes to use
+	 * @see LargeBloomSet#withMemoryAndExpectedSize(long, long)
+	 */
+	public LargeBloomSet(long bits, int hashCount) {
+		this(bits, hashCount, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Create a LargeBloomSet with specific configuration.
+	 *
+	 * Actual memory usage will be rounded up to a multiple of 64 bits.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param hashCount    the number of hashes to use
+	 * @param hashStrategy the hash function to use
+	 * @see LargeBloomSet#withMemoryAndExpectedSize(long, long, HashStrategy)
+	 */
+	public LargeBloomSet(long bits, int hashCount, HashStrategy hashStrategy) {
+		this(new PagedBitStore(bits), hashCount, hashStrategy);
+	}
+
+	LargeBloomSet(
+			BitStore internal,
+			int hashCount,
+			HashStrategy hashStrategy
+	) {
+		super(internal, hashCount, hashStrategy);
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given number of items.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BloomSet#expectedFalsePositiveRatio(long, long, int)
+	 */
+	public double expectedFalsePositiveRatio(long items) {
+		return bits.expectedFalsePositiveRatio(items);
+	}
+
+	/**
+	 * Adds all of the elements in the specified LargeBloomSet to this set if
+	 * they're not already present.
+	 *
+	 * @param  values a LargeBloomSet with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see #add(Object)
+	 */
+	public boolean addAll(LargeBloomSet values) {
+		return or(values);
+	}
+
+	/**
+	 * Retains only the elements in this set that are contained in the
+	 * specified LargeBloomSet.
+	 *
+	 * @param  values a LargeBloomSet with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see #remove(Object)
+	 */
+	public boolean retainAll(LargeBloomSet values) {
+		return and(values);
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public long memoryUsageBits() {
+		return bits.sizeBits();
+	}
+
+	/**
+	 * Returns the number of bits which are currently set.
+	 *
+	 * The count is maintained as items are added, so this is a constant-time
+	 * operation (for a mapped set, the first call counts the bits).
+	 *
+	 * @return the number of set bits
+	 * @see #fillRatio()
+	 */
+	public long bitCount() {
+		return bits.bitCount();
+	}
+
+	/**
+	 * Estimates the number of distinct items in the union of this set and
+	 * another. This is a linear-time operation.
+	 *
+	 * @param  other a LargeBloomSet with the same configuration as this one
+	 * @return the estimated number of distinct items in either set
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see BloomSet#estimatedUnionSize(BloomSet)
+	 */
+	public long estimatedUnionSize(LargeBloomSet other) {
+		return unionSize(other);
+	}
+
+	/**
+	 * Estimates the number of distinct items which are in both this set and
+	 * another. This is a linear-time operation.
+	 *
+	 * @param  other a LargeBloomSet with the same configuration as this one
+	 * @return the estimated number of distinct items in both sets
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see BloomSet#estimatedIntersectionSize(BloomSet)
+	 */
+	public long estimatedIntersectionSize(LargeBloomSet other) {
+		return intersectionSize(other);
+	}
+
+	@Override
+	LargeBloomSet emptyCopy() {
+		return new LargeBloomSet(memoryUsageBits(), hashes(), hashStrategy());
+	}
+
+	@Override
+	boolean isSameKind(Object other) {
+		return other instanceof LargeBloomSet;
+	}
+}
@@ -0,0 +1,66 @@
+package com.davidje13.collections;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of durations with power-of-two buckets.
+ *
+ * Bucket {@code b} counts durations from {@code 2^(b-1)} to
+ * {@code 2^b - 1} nanoseconds (bucket 0 counts durations of 0).
+ */
+final class LatencyHistogram {
+	private static final int BUCKETS = 64;
+
+	private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+	LatencyHistogram() {
+		for (int b = 0; b < BUCKETS; ++ b) {
+			counts[b] = new LongAdder();
+		}
+	}
+
+	void record(long nanos) {
+		counts[64 - Long.numberOfLeadingZeros(Math.max(nanos, 0))].increment();
+	}
+
+	long[] snapshot() {
+		long[] result = new long[BUCKETS];
+		for (int b = 0; b < BUCKETS; ++ b) {
+			result[b] = counts[b].sum();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an upper bound for the given percentile.
+	 *
+	 * @param percentile the percentile to find (0 - 100)
+	 * @return the upper bound (in nanoseconds) of the bucket containing the
+	 *         percentile, or 0 if nothing has been recorded
+	 */
+	long percentileNanos(double percentile) {
+		long[] snapshot = snapshot();
+		long total = 0;
+		for (long count : snapshot) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long target = (long) Math.ceil(total * percentile / 100.0);
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; ++ b) {
+			seen += snapshot[b];
+			if (seen >= Math.max(target, 1)) {
+				return (b == 0) ? 0 : (1L << b) - 1;
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	void reset() {
+		for (LongAdder count : counts) {
+			count.reset();
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package com.davidje13.collections;
+
+/**
+ * A variant of {@link BloomSet} for {@code long} keys.
+ *
+ * Keys are hashed directly with a 64-bit mixing function, so adding and
+ * testing keys does not need to build or encode strings and does not
+ * allocate memory. Buckets are chosen using the same enhanced double hashing
+ * as {@link BloomSet}.
+ *
+ * This is not a {@link java.util.Collection}, since that would require keys
+ * to be boxed.
+ *
+ * @see IntBloomSet
+ */
+@SuppressWarnings("WeakerAccess")
+public class LongBloomSet {
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Creates a new LongBloomSet optimised for the given constraints.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @return an optimal LongBloomSet for the given configuration
+	 * @see BloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public static LongBloomSet withMemoryAndExpectedSize(
+			int bits,
+			int expectedSize
+	) {
+		return new LongBloomSet(
+				bits,
+				BloomSet.idealHashCount(expectedSize, bits)
+		);
+	}
+
+	private final BloomBits bits;
+
+	/**
+	 * Create a LongBloomSet with specific configuration.
+	 *
+	 * Actual memory usage may differ slightly, and will typically be in
+	 * multiples of 64 bits.
+	 *
+	 * @param bits      the amount of memory to allocate
+	 * @param hashCount the number of hashes to use
+	 * @throws IllegalArgumentException if {@code bits} rounded up to a
+	 *                                  multiple of 64 is more than
+	 *                                  {@link Integer#MAX_VALUE}
+	 * @see LongBloomSet#withMemoryAndExpectedSize(int, int)
+	 */
+	public LongBloomSet(int bits, int hashCount) {
+		BloomSet.checkIntBits(bits, Long.SIZE);
+		this.bits = new BloomBits(
+				new PagedBitStore(bits),
+				hashCount,
+				LongBloomSet.class
+		);
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for a given number of items.
+	 *
+	 * @param items the number of items expected to be in the set
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 * @see BloomSet#expectedFalsePositiveRatio(int, int, int)
+	 */
+	public double expectedFalsePositiveRatio(int items) {
+		return bits.expectedFalsePositiveRatio(items);
+	}
+
+	/**
+	 * Returns {@code true} if no keys have been added.
+	 *
+	 * @return {@code true} if this set is empty
+	 */
+	public boolean isEmpty() {
+		return bits.isEmpty();
+	}
+
+	/**
+	 * Test membership of the given key.
+	 *
+	 * Due to the nature of bloom filters, this may report false positives, but
+	 * will never report false negatives.
+	 *
+	 * @param key the key to test for membership
+	 * @return {@code true} if the key appears to be in the set
+	 * @see LongBloomSet#expectedFalsePositiveRatio(int)
+	 */
+	public boolean contains(long key) {
+		long h1 = mix(key);
+		return bits.containsHash(h1, mix(h1 + GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Adds the given key to this set.
+	 *
+	 * @param key the key to add
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	public boolean add(long key) {
+		long h1 = mix(key);
+		return bits.addHash(h1, mix(h1 + GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Adds all of the given keys to this set.
+	 *
+	 * @param keys the keys to add
+	 * @return {@code true} if this set changed as a result of the call
+	 */
+	public boolean addAll(long[] keys) {
+		boolean changed = false;
+		for (long key : keys) {
+			changed |= add(key);
+		}
+		return changed;
+	}
+
+	/**
+	 * Adds all of the keys in the specified LongBloomSet to this set if
+	 * they're not already present.
+	 *
+	 * @param  keys a LongBloomSet with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see BloomSet#addAll(BloomSet)
+	 */
+	public boolean addAll(LongBloomSet keys) {
+		return bits.or(keys.bits);
+	}
+
+	/**
+	 * Retains only the keys in this set that are contained in the specified
+	 * LongBloomSet.
+	 *
+	 * @param  keys a LongBloomSet with the same configuration as this one
+	 * @return {@code true} if this set changed as a result of the call
+	 *
+	 * @throws IllegalArgumentException if the two sets do not have similar
+	 *                                  configuration
+	 * @see BloomSet#retainAll(BloomSet)
+	 */
+	public boolean retainAll(LongBloomSet keys) {
+		return bits.and(keys.bits);
+	}
+
+	/**
+	 * Removes all keys from this set. This is a linear-time operation.
+	 */
+	public void clear() {
+		bits.clear();
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public int memoryUsageBits() {
+		return (int) bits.sizeBits();
+	}
+
+	/**
+	 * Returns the number of bits which are currently set.
+	 *
+	 * @return the number of set bits
+	 * @see BloomSet#bitCount()
+	 */
+	public int bitCount() {
+		return (int) bits.bitCount();
+	}
+
+	/**
+	 * Returns the proportion of bits which are currently set.
+	 *
+	 * @return a value from 0 (empty) to 1 (saturated)
+	 * @see BloomSet#fillRatio()
+	 */
+	public double fillRatio() {
+		return bits.fillRatio();
+	}
+
+	/**
+	 * Estimates the number of distinct keys in this set from the number of
+	 * set bits. This is a constant-time operation.
+	 *
+	 * @return the estimated number of distinct keys in this set
+	 * @see BloomSet#estimatedSize()
+	 */
+	public long estimatedSize() {
+		return bits.estimatedSize();
+	}
+
+	/**
+	 * Returns the number of hashes generated when adding keys or testing
+	 * membership.
+	 *
+	 * @return the number of hashes generated when adding keys or testing
+	 *         membership
+	 */
+	public int hashes() {
+		return bits.hashes();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof LongBloomSet)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		return ((LongBloomSet) other).bits.contentEquals(bits);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return bits.contentHashCode();
+	}
+
+	private static long mix(long k) {
+		// a bijection, so distinct keys never collide before bucket selection
+		return Murmur3Hasher.fmix64(k);
+	}
+}
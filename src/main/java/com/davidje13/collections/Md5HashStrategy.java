@@ -0,0 +1,58 @@
+package com.davidje13.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes Strings using the UTF-8 encoded MD5 digest.
+ *
+ * This is slow compared to {@link Murmur3HashStrategy}, but is kept for
+ * compatibility with the digest used by earlier versions of {@link BloomSet}.
+ * It also allocates memory for every value hashed.
+ */
+public class Md5HashStrategy implements HashStrategy {
+	private static final ThreadLocal<MessageDigest> MD5 =
+			ThreadLocal.withInitial(Md5HashStrategy::createDigest);
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void hash(CharSequence value, long[] target) {
+		MessageDigest md5 = MD5.get();
+		md5.reset();
+		byte[] digest = md5.digest(
+				value.toString().getBytes(StandardCharsets.UTF_8)
+		);
+
+		ByteBuffer buffer = ByteBuffer.wrap(digest);
+		target[0] = buffer.getLong();
+		target[1] = buffer.getLong();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Md5HashStrategy;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Md5HashStrategy.class.getName().hashCode();
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("MD5");
+		} catch(NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.davidje13.collections;
+
+/**
+ * Hashes Strings using the x64 128-bit variant of MurmurHash3 over their UTF-8
+ * encoding.
+ *
+ * This is a fast non-cryptographic hash with good distribution, and is the
+ * default strategy used by {@link BloomSet}. It uses the same implementation
+ * as {@link GenericBloomSet}'s key hashing.
+ *
+ * @see <a href="https://github.com/aappleby/smhasher">SMHasher</a>
+ */
+public class Murmur3HashStrategy implements HashStrategy {
+	private static final ThreadLocal<Murmur3Hasher> HASHER =
+			ThreadLocal.withInitial(() -> new Murmur3Hasher(0));
+
+	private final long seed;
+
+	/**
+	 * Create a MurmurHash3 strategy with a seed of 0.
+	 */
+	public Murmur3HashStrategy() {
+		this(0);
+	}
+
+	/**
+	 * Create a MurmurHash3 strategy with a specific seed.
+	 *
+	 * @param seed the seed to use (only the lower 32 bits are used)
+	 */
+	public Murmur3HashStrategy(int seed) {
+		this.seed = seed & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implNote
+	 * The value is encoded to UTF-8 on-the-fly, so no memory is allocated.
+	 */
+	@Override
+	public void hash(CharSequence value, long[] target) {
+		hash(value, false, target);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implNote
+	 * The value is lower-cased and encoded to UTF-8 on-the-fly, so no memory
+	 * is allocated.
+	 */
+	@Override
+	public void hashLowerCase(CharSequence value, long[] target) {
+		hash(value, true, target);
+	}
+
+	private void hash(CharSequence value, boolean lowerCase, long[] target) {
+		Murmur3Hasher hasher = HASHER.get();
+		hasher.reset((int) seed);
+		if (lowerCase) {
+			hasher.putLowerCaseString(value);
+		} else {
+			hasher.putString(value);
+		}
+		hasher.finish(target);
+	}
+
+	/**
+	 * Returns the seed used by this strategy.
+	 *
+	 * @return the seed used by this strategy
+	 */
+	public int seed() {
+		return (int) seed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof Murmur3HashStrategy)) {
+			return false;
+		}
+		return ((Murmur3HashStrategy) other).seed == seed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Long.hashCode(seed) * 31 + 3;
+	}
+}
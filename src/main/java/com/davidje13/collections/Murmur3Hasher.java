@@ -0,0 +1,246 @@
+package com.davidje13.collections;
+
+/**
+ * An incremental form of the x64 128-bit variant of MurmurHash3.
+ *
+ * Fields are buffered into 16-byte blocks as they arrive, so keys can be
+ * hashed without building an intermediate byte array. This is also the
+ * implementation behind {@link Murmur3HashStrategy}, so hashing only a string
+ * gives the same result as that strategy with the same seed.
+ *
+ * Instances are reusable but not thread-safe.
+ */
+final class Murmur3Hasher implements KeySink {
+	private static final long C1 = 0x87c37b91114253d5L;
+	private static final long C2 = 0x4cf5ad432745937fL;
+
+	private long seed;
+
+	private long h1;
+	private long h2;
+	private long k1;
+	private boolean haveK1;
+	private long lane;
+	private int laneBytes;
+	private long length;
+
+	Murmur3Hasher(int seed) {
+		this.seed = seed & 0xFFFFFFFFL;
+		reset();
+	}
+
+	/**
+	 * Discards any data and changes the seed, ready to hash a new key.
+	 *
+	 * @param seed the seed to use (only the lower 32 bits are used)
+	 */
+	void reset(int seed) {
+		this.seed = seed & 0xFFFFFFFFL;
+		reset();
+	}
+
+	/**
+	 * Discards any data, ready to hash a new key.
+	 */
+	void reset() {
+		h1 = seed;
+		h2 = seed;
+		k1 = 0;
+		haveK1 = false;
+		lane = 0;
+		laneBytes = 0;
+		length = 0;
+	}
+
+	/**
+	 * Completes the hash of all data since the last reset.
+	 *
+	 * @param target an array of at least 2 elements which will receive the
+	 *               hash in its first 2 elements
+	 */
+	void finish(long[] target) {
+		long a = h1;
+		long b = h2;
+		if (haveK1) {
+			a ^= mixK1(k1);
+			b ^= mixK2(lane);
+		} else {
+			a ^= mixK1(lane);
+		}
+
+		a ^= length;
+		b ^= length;
+		a += b;
+		b += a;
+		a = fmix64(a);
+		b = fmix64(b);
+		a += b;
+		b += a;
+
+		target[0] = a;
+		target[1] = b;
+	}
+
+	@Override
+	public KeySink putByte(byte value) {
+		put(value & 0xFFL, 1);
+		return this;
+	}
+
+	@Override
+	public KeySink putBoolean(boolean value) {
+		put(value ? 1 : 0, 1);
+		return this;
+	}
+
+	@Override
+	public KeySink putInt(int value) {
+		put(value & 0xFFFFFFFFL, 4);
+		return this;
+	}
+
+	@Override
+	public KeySink putLong(long value) {
+		put(value, 8);
+		return this;
+	}
+
+	@Override
+	public KeySink putString(CharSequence value) {
+		putString(value, false);
+		return this;
+	}
+
+	/**
+	 * Appends the UTF-8 encoding of the lower-case form of the given value
+	 * (converting each code point with {@link Character#toLowerCase(int)}).
+	 *
+	 * @param value the value to append
+	 * @return this hasher
+	 */
+	KeySink putLowerCaseString(CharSequence value) {
+		putString(value, true);
+		return this;
+	}
+
+	private void putString(CharSequence value, boolean lowerCase) {
+		// collect up to a word of UTF-8 bytes locally before passing them on,
+		// which keeps the per-character work out of the hasher's fields
+		long word = 0;
+		int wordBytes = 0;
+
+		int count = value.length();
+		for (int i = 0; i < count; ++ i) {
+			int c = value.charAt(i);
+			if (Character.isHighSurrogate((char) c) && i + 1 < count) {
+				char next = value.charAt(i + 1);
+				if (Character.isLowSurrogate(next)) {
+					c = Character.toCodePoint((char) c, next);
+					++ i;
+				}
+			}
+			if (lowerCase) {
+				c = Character.toLowerCase(c);
+			}
+
+			// little-endian UTF-8 bytes of c, and their count
+			long bytes;
+			int n;
+			if (c < 0x80) {
+				bytes = c;
+				n = 1;
+			} else if (c < 0x800) {
+				bytes = (0xC0 | (c >>> 6))
+						| ((0x80 | (c & 0x3F)) << 8);
+				n = 2;
+			} else if (Character.isSurrogate((char) c) && c < 0x10000) {
+				bytes = '?'; // unpaired surrogate (matches String.getBytes)
+				n = 1;
+			} else if (c < 0x10000) {
+				bytes = (0xE0 | (c >>> 12))
+						| ((0x80 | ((c >>> 6) & 0x3F)) << 8)
+						| ((0x80 | (c & 0x3F)) << 16);
+				n = 3;
+			} else {
+				bytes = (0xF0 | (c >>> 18))
+						| ((0x80 | ((c >>> 12) & 0x3F)) << 8)
+						| ((0x80 | ((c >>> 6) & 0x3F)) << 16)
+						| ((long) (0x80 | (c & 0x3F)) << 24);
+				n = 4;
+			}
+
+			if (wordBytes + n > 8) {
+				put(word, wordBytes);
+				word = 0;
+				wordBytes = 0;
+			}
+			word |= bytes << (wordBytes * 8);
+			wordBytes += n;
+		}
+		if (wordBytes > 0) {
+			put(word, wordBytes);
+		}
+	}
+
+	/**
+	 * Appends the lowest {@code n} bytes of {@code bytes} (little-endian), for
+	 * {@code n} from 1 to 8. Any higher bytes must be 0.
+	 */
+	private void put(long bytes, int n) {
+		length += n;
+
+		int free = 8 - laneBytes;
+		lane |= bytes << (laneBytes * 8);
+		if (n < free) {
+			laneBytes += n;
+			return;
+		}
+
+		if (haveK1) {
+			h1 ^= mixK1(k1);
+			h1 = Long.rotateLeft(h1, 27);
+			h1 += h2;
+			h1 = h1 * 5 + 0x52dce729;
+			h2 ^= mixK2(lane);
+			h2 = Long.rotateLeft(h2, 31);
+			h2 += h1;
+			h2 = h2 * 5 + 0x38495ab5;
+		} else {
+			k1 = lane;
+		}
+		haveK1 = !haveK1;
+		// shifting a long by 64 has no effect, so a full lane is a special case
+		lane = (free == 8) ? 0 : bytes >>> (free * 8);
+		laneBytes = n - free;
+	}
+
+	private static long mixK1(long k1) {
+		k1 *= C1;
+		k1 = Long.rotateLeft(k1, 31);
+		k1 *= C2;
+		return k1;
+	}
+
+	private static long mixK2(long k2) {
+		k2 *= C2;
+		k2 = Long.rotateLeft(k2, 33);
+		k2 *= C1;
+		return k2;
+	}
+
+	/**
+	 * The MurmurHash3 64-bit finalisation mix. This is a bijection with good
+	 * avalanche behaviour, so it is also used to hash primitive keys.
+	 *
+	 * @param k the value to mix
+	 * @return the mixed value
+	 */
+	static long fmix64(long k) {
+		k ^= k >>> 33;
+		k *= 0xff51afd7ed558ccdL;
+		k ^= k >>> 33;
+		k *= 0xc4ceb9fe1a85ec53L;
+		k ^= k >>> 33;
+		return k;
+	}
+}
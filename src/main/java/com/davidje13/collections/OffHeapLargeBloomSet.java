@@ -0,0 +1,129 @@
+package com.davidje13.collections;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A {@link LargeBloomSet} which stores its bits outside of the Java heap.
+ *
+ * This avoids garbage collection overhead for large filters. The memory must
+ * be released explicitly by calling {@link #close()}, after which the set
+ * must not be used. Closing is not thread-safe: no other thread may be using
+ * the set at the time.
+ *
+ * Off-heap memory is limited by {@code -XX:MaxDirectMemorySize}.
+ *
+ * @see OffHeapBloomSet
+ */
+public class OffHeapLargeBloomSet
+		extends LargeBloomSet
+		implements AutoCloseable
+{
+	/**
+	 * Creates a new OffHeapLargeBloomSet optimised for the given constraints.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param expectedSize the expected number of items
+	 * @return an optimal OffHeapLargeBloomSet for the given configuration
+	 * @see LargeBloomSet#withMemoryAndExpectedSize(long, long)
+	 */
+	public static OffHeapLargeBloomSet withMemoryAndExpectedSize(
+			long bits,
+			long expectedSize
+	) {
+		return new OffHeapLargeBloomSet(
+				bits,
+				BloomSet.idealHashCount(expectedSize, bits)
+		);
+	}
+
+	/**
+	 * Opens a file written by {@link LargeBloomSet#writeTo(Path)}.
+	 *
+	 * The file is memory-mapped read-only, so this takes constant time
+	 * regardless of the size of the set, and the pages are shared with any
+	 * other process which maps the same file. Adding new values to the
+	 * returned set will throw {@link UnsupportedOperationException}. The
+	 * file must not be modified while it is mapped, and {@link #close()}
+	 * should be called to unmap it.
+	 *
+	 * @param file the file to open
+	 * @return a read-only set backed by the file
+	 * @throws IOException if the file cannot be read or is not a valid
+	 *                     BloomSet file
+	 */
+	public static OffHeapLargeBloomSet map(Path file) throws IOException {
+		BloomSetFormat.Stored<DirectBitStore> stored = BloomSetFormat.map(file);
+		try {
+			return new OffHeapLargeBloomSet(
+					stored.bits,
+					stored.hashCount,
+					stored.hashStrategy
+			);
+		} catch (RuntimeException e) {
+			stored.bits.close();
+			throw e;
+		}
+	}
+
+	private final DirectBitStore store;
+
+	/**
+	 * Create an OffHeapLargeBloomSet with specific configuration.
+	 *
+	 * @param bits      the amount of memory to allocate
+	 * @param hashCount the number of hashes to use
+	 * @see OffHeapLargeBloomSet#withMemoryAndExpectedSize(long, long)
+	 */
+	public OffHeapLargeBloomSet(long bits, int hashCount) {
+		this(bits, hashCount, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Create an OffHeapLargeBloomSet with specific configuration.
+	 *
+	 * @param bits         the amount of memory to allocate
+	 * @param hashCount    the number of hashes to use
+	 * @param hashStrategy the hash function to use
+	 */
+	public OffHeapLargeBloomSet(
+			long bits,
+			int hashCount,
+			HashStrategy hashStrategy
+	) {
+		this(
+				DirectBitStore.forBloomSet(bits, hashCount, hashStrategy, false),
+				hashCount,
+				hashStrategy
+		);
+	}
+
+	private OffHeapLargeBloomSet(
+			DirectBitStore store,
+			int hashCount,
+			HashStrategy hashStrategy
+	) {
+		super(store, hashCount, hashStrategy);
+		this.store = store;
+	}
+
+	/**
+	 * Releases the off-heap memory used by this set.
+	 *
+	 * Any further use of the set will throw {@link IllegalStateException}.
+	 * Calling this multiple times has no effect.
+	 */
+	@Override
+	public void close() {
+		store.close();
+	}
+
+	/**
+	 * Returns whether {@link #close()} has been called.
+	 *
+	 * @return {@code true} if the set has been closed
+	 */
+	public boolean isClosed() {
+		return store.isClosed();
+	}
+}
@@ -0,0 +1,163 @@
+package com.davidje13.collections;
+
+import java.util.Arrays;
+
+/**
+ * On-heap bit storage split into pages, so that it can hold more than
+ * {@link Integer#MAX_VALUE} bits.
+ */
+class PagedBitStore extends BitStore {
+	private static final int DEFAULT_PAGE_SHIFT = 20; // 8MB pages
+
+	private final long[][] pages;
+	private final long wordCount;
+	private final int pageShift;
+	private final long pageMask;
+
+	PagedBitStore(long bits) {
+		this(bits, DEFAULT_PAGE_SHIFT);
+	}
+
+	PagedBitStore(long bits, int pageShift) {
+		if (bits < 0) {
+			throw new IllegalArgumentException("bits must not be negative");
+		}
+		this.wordCount = (bits + 63) >>> 6;
+		this.pageShift = pageShift;
+		this.pageMask = (1L << pageShift) - 1;
+
+		long pageCount = (wordCount + pageMask) >>> pageShift;
+		if (pageCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many bits: " + bits);
+		}
+		this.pages = new long[(int) pageCount][];
+		for (int p = 0; p < pages.length; ++ p) {
+			long remaining = wordCount - ((long) p << pageShift);
+			pages[p] = new long[(int) Math.min(remaining, pageMask + 1)];
+		}
+	}
+
+	@Override
+	long wordCount() {
+		return wordCount;
+	}
+
+	@Override
+	long getWord(long index) {
+		return pages[(int) (index >>> pageShift)][(int) (index & pageMask)];
+	}
+
+	@Override
+	void putWord(long index, long word) {
+		pages[(int) (index >>> pageShift)][(int) (index & pageMask)] = word;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * If the other store is a PagedBitStore with the same layout, this works
+	 * directly on the page arrays. The new count of set bits is calculated in
+	 * the same pass, and also reveals whether anything changed (an OR can
+	 * only add bits).
+	 */
+	@Override
+	boolean or(BitStore other) {
+		long[][] sources = matchingPages(other);
+		if (sources == null) {
+			return super.or(other);
+		}
+		long before = cardinality();
+		long count = 0;
+		for (int p = 0; p < pages.length; ++ p) {
+			long[] page = pages[p];
+			long[] source = sources[p];
+			for (int i = 0; i < page.length; ++ i) {
+				long word = page[i] | source[i];
+				page[i] = word;
+				count += Long.bitCount(word);
+			}
+		}
+		recordCardinality(count);
+		return count != before;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * If the other store is a PagedBitStore with the same layout, this works
+	 * directly on the page arrays. The new count of set bits is calculated in
+	 * the same pass, and also reveals whether anything changed (an AND can
+	 * only remove bits).
+	 */
+	@Override
+	boolean and(BitStore other) {
+		long[][] sources = matchingPages(other);
+		if (sources == null) {
+			return super.and(other);
+		}
+		long before = cardinality();
+		long count = 0;
+		for (int p = 0; p < pages.length; ++ p) {
+			long[] page = pages[p];
+			long[] source = sources[p];
+			for (int i = 0; i < page.length; ++ i) {
+				long word = page[i] & source[i];
+				page[i] = word;
+				count += Long.bitCount(word);
+			}
+		}
+		recordCardinality(count);
+		return count != before;
+	}
+
+	@Override
+	long unionCardinality(BitStore other) {
+		long[][] sources = matchingPages(other);
+		if (sources == null) {
+			return super.unionCardinality(other);
+		}
+		long count = 0;
+		for (int p = 0; p < pages.length; ++ p) {
+			long[] page = pages[p];
+			long[] source = sources[p];
+			for (int i = 0; i < page.length; ++ i) {
+				count += Long.bitCount(page[i] | source[i]);
+			}
+		}
+		return count;
+	}
+
+	@Override
+	boolean contentEquals(BitStore other) {
+		long[][] sources = matchingPages(other);
+		if (sources == null) {
+			return super.contentEquals(other);
+		}
+		for (int p = 0; p < pages.length; ++ p) {
+			if (!Arrays.equals(pages[p], sources[p])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	void clearWords() {
+		for (long[] page : pages) {
+			Arrays.fill(page, 0);
+		}
+	}
+
+	private long[][] matchingPages(BitStore other) {
+		if (!(other instanceof PagedBitStore)) {
+			return null;
+		}
+		PagedBitStore o = (PagedBitStore) other;
+		if (o.wordCount != wordCount || o.pageShift != pageShift) {
+			return null;
+		}
+		return o.pages;
+	}
+}
@@ -0,0 +1,338 @@
+package com.davidje13.collections;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A bloom set which grows automatically as items are added, so the final
+ * number of items does not need to be known in advance.
+ *
+ * Items are stored in a chain of {@link BloomSet} slices (Almeida et al.,
+ * "Scalable Bloom Filters"). When the newest slice reaches its capacity, a
+ * new slice is added with twice the capacity and a tighter false-positive
+ * rate, so that the overall false-positive rate stays below the target no
+ * matter how many items are added. Memory use is proportional to the number
+ * of items actually added.
+ *
+ * Membership tests must check every slice, so they become slightly slower
+ * as the set grows (logarithmically in the number of items).
+ */
+@SuppressWarnings("WeakerAccess")
+public class ScalableBloomSet
+		extends AbstractCollection<String>
+		implements Set<String>
+{
+	private static final int GROWTH_FACTOR = 2;
+	private static final double TIGHTENING_RATIO = 0.8;
+
+	private final List<BloomSet> slices = new ArrayList<>();
+	private final int initialCapacity;
+	private final double falsePositiveRatio;
+	private final HashStrategy hashStrategy;
+	private final long[] hashCache = new long[2];
+	private BloomSet current;
+	private long currentCapacity;
+	private long currentCount;
+
+	/**
+	 * Create a ScalableBloomSet with the given initial capacity and target
+	 * false-positive rate.
+	 *
+	 * @param initialCapacity    the number of items the first slice holds
+	 * @param falsePositiveRatio the maximum overall false-positive rate
+	 *                           (0 - 1)
+	 */
+	public ScalableBloomSet(int initialCapacity, double falsePositiveRatio) {
+		this(initialCapacity, falsePositiveRatio, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Create a ScalableBloomSet with the given initial capacity and target
+	 * false-positive rate, using a specific hash strategy.
+	 *
+	 * @param initialCapacity    the number of items the first slice holds
+	 * @param falsePositiveRatio the maximum overall false-positive rate
+	 *                           (0 - 1)
+	 * @param hashStrategy       the hash function to use
+	 */
+	public ScalableBloomSet(
+			int initialCapacity,
+			double falsePositiveRatio,
+			HashStrategy hashStrategy
+	) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException(
+					"initialCapacity must be positive"
+			);
+		}
+		if (!(falsePositiveRatio > 0 && falsePositiveRatio < 1)) {
+			throw new IllegalArgumentException(
+					"falsePositiveRatio must be between 0 and 1"
+			);
+		}
+		if (hashStrategy == null) {
+			throw new NullPointerException();
+		}
+		this.initialCapacity = initialCapacity;
+		this.falsePositiveRatio = falsePositiveRatio;
+		this.hashStrategy = hashStrategy;
+		addSlice();
+	}
+
+	/**
+	 * Calculates the idealised false-positive rate for the current content.
+	 *
+	 * This will not exceed the target false-positive rate.
+	 *
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 */
+	public double expectedFalsePositiveRatio() {
+		double trueNegativeRatio = 1.0;
+		long capacity = initialCapacity;
+		for (BloomSet slice : slices) {
+			long items = (slice == current) ? currentCount : capacity;
+			trueNegativeRatio *= 1.0 - BloomSet.expectedFalsePositiveRatio(
+					items,
+					slice.memoryUsageBits(),
+					slice.hashes()
+			);
+			capacity *= GROWTH_FACTOR;
+		}
+		return 1.0 - trueNegativeRatio;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return slices.size() == 1 && currentCount == 0;
+	}
+
+	/**
+	 * Test membership of the given value.
+	 *
+	 * Due to the nature of bloom filters, this may report false positives, but
+	 * will never report false negatives.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the value appears to be in the set
+	 * @see ScalableBloomSet#expectedFalsePositiveRatio()
+	 */
+	@Override
+	public boolean contains(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		hashStrategy.hash((String) value, hashCache);
+		return containsHash();
+	}
+
+	/**
+	 * Test membership of the lower-case form of the given value.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the lower-case value appears to be in the set
+	 * @see BloomSet#containsLowerCase(CharSequence)
+	 */
+	public boolean containsLowerCase(CharSequence value) {
+		if (value == null) {
+			return false;
+		}
+
+		hashStrategy.hashLowerCase(value, hashCache);
+		return containsHash();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public boolean add(String value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+
+		hashStrategy.hash(value, hashCache);
+		return addHash();
+	}
+
+	/**
+	 * Adds the lower-case form of the given value to this set.
+	 *
+	 * @param value the value to add
+	 * @return {@code true} if this set changed as a result of the call
+	 * @throws NullPointerException if the value is null
+	 * @see BloomSet#addLowerCase(CharSequence)
+	 */
+	public boolean addLowerCase(CharSequence value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+
+		hashStrategy.hashLowerCase(value, hashCache);
+		return addHash();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implSpec
+	 * This implementation discards all slices and starts again with a single
+	 * slice of the initial capacity.
+	 */
+	@Override
+	public void clear() {
+		slices.clear();
+		addSlice();
+	}
+
+	/**
+	 * Returns the number of bits used by this set (across all slices).
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public long memoryUsageBits() {
+		long total = 0;
+		for (BloomSet slice : slices) {
+			total += slice.memoryUsageBits();
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the number of slices which this set currently uses.
+	 *
+	 * @return the number of slices in this set
+	 */
+	public int slices() {
+		return slices.size();
+	}
+
+	/**
+	 * Returns the target false-positive rate of this set.
+	 *
+	 * @return the maximum overall false-positive rate
+	 */
+	public double targetFalsePositiveRatio() {
+		return falsePositiveRatio;
+	}
+
+	/**
+	 * Returns the hash function used when adding elements or testing
+	 * membership.
+	 *
+	 * @return the hash function used by this set
+	 */
+	public HashStrategy hashStrategy() {
+		return hashStrategy;
+	}
+
+	/**
+	 * Returns the number of elements in this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       ScalableBloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public int size() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns an iterator over the elements contained in this collection (not
+	 * supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by
+	 *                                       ScalableBloomSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public Iterator<String> iterator() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof ScalableBloomSet)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		ScalableBloomSet o = (ScalableBloomSet) other;
+		return (
+				o.initialCapacity == initialCapacity
+				&& o.falsePositiveRatio == falsePositiveRatio
+				&& o.slices.equals(slices)
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return slices.hashCode();
+	}
+
+	private boolean containsHash() {
+		// the newest slice holds the most items, so check it first
+		for (int i = slices.size(); -- i >= 0;) {
+			if (slices.get(i).containsHash(hashCache)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean addHash() {
+		if (containsHash()) {
+			return false;
+		}
+		if (currentCount >= currentCapacity) {
+			addSlice();
+		}
+		current.addHash(hashCache);
+		++ currentCount;
+		return true;
+	}
+
+	private void addSlice() {
+		int index = slices.size();
+		long capacity = (index == 0)
+				? initialCapacity
+				: currentCapacity * GROWTH_FACTOR;
+		double sliceRatio = falsePositiveRatio * (1 - TIGHTENING_RATIO) *
+				Math.pow(TIGHTENING_RATIO, index);
+		long bits = BloomSet.idealMemoryBits(capacity, sliceRatio);
+		try {
+			BloomSet.checkIntBits(bits, Long.SIZE);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException(
+					"ScalableBloomSet cannot grow any further",
+					e
+			);
+		}
+		current = new BloomSet(
+				(int) bits,
+				BloomSet.idealHashCount(capacity, bits),
+				hashStrategy
+		);
+		slices.add(current);
+		currentCapacity = capacity;
+		currentCount = 0;
+	}
+}
@@ -0,0 +1,402 @@
+package com.davidje13.collections;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * An immutable set with similar properties to {@link BloomSet}, implemented
+ * as an xor filter (Graf &amp; Lemire, "Xor Filters: Faster and Smaller Than
+ * Bloom and Cuckoo Filters").
+ *
+ * The set is built once from all of its items, and uses about 9.84 bits per
+ * item for a false-positive rate of about 0.4% (1/256). Membership tests read
+ * exactly three bytes.
+ *
+ * Adding or removing items is not supported.
+ */
+@SuppressWarnings("WeakerAccess")
+public class XorSet
+		extends AbstractCollection<String>
+		implements Set<String>
+{
+	private static final int MAX_ATTEMPTS = 100;
+
+	/**
+	 * Builds an XorSet containing the given values.
+	 *
+	 * @param values the values to include
+	 * @return a new XorSet containing the values
+	 * @throws NullPointerException if any value is null
+	 */
+	public static XorSet of(Collection<String> values) {
+		return of(values.stream());
+	}
+
+	/**
+	 * Builds an XorSet containing the given values.
+	 *
+	 * @param values the values to include
+	 * @return a new XorSet containing the values
+	 * @throws NullPointerException if any value is null
+	 */
+	public static XorSet of(Stream<String> values) {
+		return of(values, new Murmur3HashStrategy());
+	}
+
+	/**
+	 * Builds an XorSet containing the given values, using a specific hash
+	 * strategy.
+	 *
+	 * @param values       the values to include
+	 * @param hashStrategy the hash function to use
+	 * @return a new XorSet containing the values
+	 * @throws NullPointerException if any value is null
+	 */
+	public static XorSet of(
+			Stream<String> values,
+			HashStrategy hashStrategy
+	) {
+		KeyCollector keys = new KeyCollector(hashStrategy, false);
+		values.forEachOrdered(keys::add);
+		return new XorSet(keys.toArray(), hashStrategy);
+	}
+
+	/**
+	 * Builds an XorSet containing the lower-case forms of the given values.
+	 *
+	 * @param values the values to include
+	 * @return a new XorSet containing the lower-case values
+	 * @throws NullPointerException if any value is null
+	 * @see BloomSet#addLowerCase(CharSequence)
+	 */
+	public static XorSet ofLowerCase(Stream<? extends CharSequence> values) {
+		HashStrategy hashStrategy = new Murmur3HashStrategy();
+		KeyCollector keys = new KeyCollector(hashStrategy, true);
+		values.forEachOrdered(keys::add);
+		return new XorSet(keys.toArray(), hashStrategy);
+	}
+
+	private final byte[] fingerprints;
+	private final int blockLength;
+	private final long seed;
+	private final boolean empty;
+	private final HashStrategy hashStrategy;
+	private final long[] hashCache = new long[2];
+
+	private XorSet(long[] keys, HashStrategy hashStrategy) {
+		this.hashStrategy = hashStrategy;
+
+		Arrays.sort(keys);
+		int size = 0;
+		for (int i = 0; i < keys.length; ++ i) {
+			if (i == 0 || keys[i] != keys[i - 1]) {
+				keys[size++] = keys[i];
+			}
+		}
+
+		int capacity = (int) (32 + Math.ceil(1.23 * size));
+		capacity = capacity / 3 * 3;
+		this.blockLength = capacity / 3;
+		this.empty = (size == 0);
+
+		long[] stackHashes = new long[size];
+		byte[] stackSlots = new byte[size];
+		long seedState = 0x9E3779B97F4A7C15L;
+		for (int attempt = 0; ; ++ attempt) {
+			if (attempt == MAX_ATTEMPTS) {
+				throw new IllegalStateException("Failed to build XorSet");
+			}
+			seedState = Murmur3Hasher.fmix64(seedState + 0x9E3779B97F4A7C15L);
+			boolean success = peel(
+					keys,
+					size,
+					seedState,
+					capacity,
+					stackHashes,
+					stackSlots
+			);
+			if (success) {
+				break;
+			}
+		}
+		this.seed = seedState;
+
+		this.fingerprints = new byte[capacity];
+		for (int i = size; -- i >= 0;) {
+			long hash = stackHashes[i];
+			int h0 = slot(hash, 0);
+			int h1 = slot(hash, 1);
+			int h2 = slot(hash, 2);
+			int target = slot(hash, stackSlots[i]);
+			// the target slot is still 0, so can be included in the xor
+			fingerprints[target] = (byte) (
+					fingerprint(hash) ^
+					fingerprints[h0] ^
+					fingerprints[h1] ^
+					fingerprints[h2]
+			);
+		}
+	}
+
+	/**
+	 * Returns the idealised false-positive rate of this set.
+	 *
+	 * @return a value from 0 (no false positives) to 1 (always false positives)
+	 */
+	public double expectedFalsePositiveRatio() {
+		return empty ? 0 : 1.0 / 256;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	/**
+	 * Test membership of the given value.
+	 *
+	 * Due to the nature of xor filters, this may report false positives, but
+	 * will never report false negatives.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the value appears to be in the set
+	 * @see XorSet#expectedFalsePositiveRatio()
+	 */
+	@Override
+	public boolean contains(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		hashStrategy.hash((String) value, hashCache);
+		return containsKey(hashCache[0]);
+	}
+
+	/**
+	 * Test membership of the lower-case form of the given value.
+	 *
+	 * @param value the value to test for membership
+	 * @return {@code true} if the lower-case value appears to be in the set
+	 * @see BloomSet#containsLowerCase(CharSequence)
+	 */
+	public boolean containsLowerCase(CharSequence value) {
+		if (value == null) {
+			return false;
+		}
+
+		hashStrategy.hashLowerCase(value, hashCache);
+		return containsKey(hashCache[0]);
+	}
+
+	/**
+	 * Removes the given value from this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException XorSet is immutable
+	 */
+	@Override
+	public boolean remove(Object value) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Removes all values from this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException XorSet is immutable
+	 */
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns the number of bits used by this set.
+	 *
+	 * @return the number of bits used by this set
+	 */
+	public long memoryUsageBits() {
+		return fingerprints.length * 8L;
+	}
+
+	/**
+	 * Returns the hash function used when testing membership.
+	 *
+	 * @return the hash function used by this set
+	 */
+	public HashStrategy hashStrategy() {
+		return hashStrategy;
+	}
+
+	/**
+	 * Returns the number of elements in this collection (not supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by XorSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public int size() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns an iterator over the elements contained in this collection (not
+	 * supported).
+	 *
+	 * @throws UnsupportedOperationException this is not supported by XorSet
+	 * @deprecated not supported
+	 */
+	@Override
+	@Deprecated
+	public Iterator<String> iterator() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof XorSet)) {
+			return false;
+		}
+		if (other == this) {
+			return true;
+		}
+		XorSet o = (XorSet) other;
+		return (
+				o.seed == seed
+				&& o.empty == empty
+				&& o.hashStrategy.equals(hashStrategy)
+				&& Arrays.equals(o.fingerprints, fingerprints)
+		);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(fingerprints);
+	}
+
+	private boolean containsKey(long key) {
+		if (empty) {
+			return false;
+		}
+		long hash = Murmur3Hasher.fmix64(key + seed);
+		return fingerprint(hash) == (byte) (
+				fingerprints[slot(hash, 0)] ^
+				fingerprints[slot(hash, 1)] ^
+				fingerprints[slot(hash, 2)]
+		);
+	}
+
+	/**
+	 * Attempts to find an order in which every key can be assigned a slot
+	 * which is not used by any later key.
+	 *
+	 * @return {@code true} if successful (the stack is populated)
+	 */
+	private boolean peel(
+			long[] keys,
+			int size,
+			long seed,
+			int capacity,
+			long[] stackHashes,
+			byte[] stackSlots
+	) {
+		int[] counts = new int[capacity];
+		long[] hashes = new long[capacity];
+		for (int i = 0; i < size; ++ i) {
+			long hash = Murmur3Hasher.fmix64(keys[i] + seed);
+			for (int h = 0; h < 3; ++ h) {
+				int slot = slot(hash, h);
+				++ counts[slot];
+				hashes[slot] ^= hash;
+			}
+		}
+
+		int[] queue = new int[capacity];
+		int queueSize = 0;
+		for (int slot = 0; slot < capacity; ++ slot) {
+			if (counts[slot] == 1) {
+				queue[queueSize++] = slot;
+			}
+		}
+
+		int stackSize = 0;
+		while (queueSize > 0) {
+			int slot = queue[--queueSize];
+			if (counts[slot] != 1) {
+				continue;
+			}
+			long hash = hashes[slot];
+			stackHashes[stackSize] = hash;
+			for (int h = 0; h < 3; ++ h) {
+				int other = slot(hash, h);
+				if (other == slot) {
+					stackSlots[stackSize] = (byte) h;
+				}
+				-- counts[other];
+				hashes[other] ^= hash;
+				if (counts[other] == 1) {
+					queue[queueSize++] = other;
+				}
+			}
+			++ stackSize;
+		}
+		return stackSize == size;
+	}
+
+	private int slot(long hash, int index) {
+		long r = Long.rotateLeft(hash, index * 21);
+		return (int) (((r & 0xFFFFFFFFL) * blockLength) >>> 32) +
+				index * blockLength;
+	}
+
+	private static byte fingerprint(long hash) {
+		return (byte) (hash ^ (hash >>> 32));
+	}
+
+	private static class KeyCollector {
+		private final HashStrategy hashStrategy;
+		private final boolean lowerCase;
+		private final long[] hash = new long[2];
+		private long[] keys = new long[1024];
+		private int size = 0;
+
+		KeyCollector(HashStrategy hashStrategy, boolean lowerCase) {
+			if (hashStrategy == null) {
+				throw new NullPointerException();
+			}
+			this.hashStrategy = hashStrategy;
+			this.lowerCase = lowerCase;
+		}
+
+		void add(CharSequence value) {
+			if (value == null) {
+				throw new NullPointerException();
+			}
+			if (lowerCase) {
+				hashStrategy.hashLowerCase(value, hash);
+			} else {
+				hashStrategy.hash(value, hash);
+			}
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+			}
+			keys[size++] = hash[0];
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(keys, size);
+		}
+	}
+}
@@ -1,15 +1,25 @@
 package com.davidje13;
 
 import com.davidje13.testutil.IntegrationTestUtils.Output;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 
 import static com.davidje13.testutil.IntegrationTestUtils.getOutputFrom;
 import static com.davidje13.testutil.IntegrationTestUtils.getResource;
 import static com.davidje13.testutil.IntegrationTestUtils.setStdInContent;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
 public class MainIntegrationTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
 	@Test
 	public void main_reportsWordsFromStdInNotFoundInWordListFile() {
 		String input = "foo abc baz def";
@@ -54,6 +64,86 @@ public class MainIntegrationTest {
 		));
 	}
 
+	@Test
+	public void main_savesAndLoadsFilterFiles() throws IOException {
+		File filter = folder.newFile();
+
+		Output saveOutput = getOutputFrom(() -> Main.main(new String[]{
+				getResource("word-list.txt").getPath(),
+				"--save",
+				filter.getPath()
+		}));
+
+		assertThat(saveOutput.out, equalTo(""));
+		assertThat(saveOutput.err, equalTo(""));
+
+		setStdInContent("foo abc baz def");
+		Output output = getOutputFrom(() -> Main.main(new String[]{
+				"--filter",
+				filter.getPath()
+		}));
+
+		assertThat(output.out, equalTo("abc\ndef\n"));
+		assertThat(output.err, equalTo(""));
+	}
+
+	@Test
+	public void main_reportsAnErrorIfTheFilterIsNotFound() {
+		setStdInContent("foo");
+		Output output = getOutputFrom(() -> Main.main(new String[]{
+				"--filter",
+				"nope"
+		}));
+
+		assertThat(output.out, equalTo(""));
+		assertThat(output.err, equalTo("Failed to load filter from nope\n"));
+	}
+
+	@Test
+	public void main_reportsWordsFromInputFileNotFoundInWordListFile()
+			throws IOException {
+		File input = folder.newFile();
+		Files.write(input.toPath(), "foo abc baz def".getBytes(UTF_8));
+
+		Output output = getOutputFrom(() -> Main.main(new String[]{
+				getResource("word-list.txt").getPath(),
+				"--input",
+				input.getPath()
+		}));
+
+		assertThat(output.out, equalTo("abc\ndef\n"));
+		assertThat(output.err, equalTo(""));
+	}
+
+	@Test
+	public void main_reportsWordsFromInputFileInAnyOrder_ifUnordered()
+			throws IOException {
+		File input = folder.newFile();
+		Files.write(input.toPath(), "foo abc baz def".getBytes(UTF_8));
+
+		Output output = getOutputFrom(() -> Main.main(new String[]{
+				getResource("word-list.txt").getPath(),
+				"--input",
+				input.getPath(),
+				"--unordered"
+		}));
+
+		assertThat(output.out, equalTo("abc\ndef\n"));
+		assertThat(output.err, equalTo(""));
+	}
+
+	@Test
+	public void main_reportsAnErrorIfTheInputFileIsNotFound() {
+		Output output = getOutputFrom(() -> Main.main(new String[]{
+				getResource("word-list.txt").getPath(),
+				"--input",
+				"nope"
+		}));
+
+		assertThat(output.out, equalTo(""));
+		assertThat(output.err, equalTo("Failed to read input from nope\n"));
+	}
+
 	@Test
 	public void main_displaysUsage_ifCalledWithoutArguments() {
 		Output output = getOutputFrom(() -> Main.main(new String[]{}));
@@ -65,8 +155,18 @@ public class MainIntegrationTest {
 				"\n" +
 				"Usage:\n" +
 				"  ./program <path_to_word_list>\n" +
+				"  ./program --filter <path_to_filter>\n" +
 				"  - provide words to check to stdin\n" +
-				"  - non-matching words are reported to stdout\n"
+				"  - non-matching words are reported to stdout\n" +
+				"\n" +
+				"  ./program <path_to_word_list> --input <path_to_text>\n" +
+				"  ./program --filter <path_to_filter> --input <path_to_text>\n" +
+				"  - checks a file using all available cores\n" +
+				"  - add --unordered to report words as soon as\n" +
+				"    they are found, rather than in file order\n" +
+				"\n" +
+				"  ./program <path_to_word_list> --save <path_to_filter>\n" +
+				"  - builds a filter file for fast startup\n"
 		));
 	}
 
@@ -0,0 +1,141 @@
+package com.davidje13;
+
+import com.davidje13.collections.BloomSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ParallelWordCheckerTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final BloomSet dictionary = new BloomSet(64 * 1024, 5);
+
+	{
+		dictionary.addAll(asList("foo", "bar", "x1"));
+	}
+
+	@Test
+	public void check_reportsWordsNotInTheDictionary() throws IOException {
+		assertThat(
+				unknownWords("foo abc bar def", 4, 1024, true),
+				equalTo("abc\ndef\n")
+		);
+	}
+
+	@Test
+	public void check_isNotCaseSensitive() throws IOException {
+		assertThat(unknownWords("FOO Bar", 4, 1024, true), equalTo(""));
+	}
+
+	@Test
+	public void check_reportsNothing_forEmptyFiles() throws IOException {
+		assertThat(unknownWords("", 4, 1024, true), equalTo(""));
+	}
+
+	@Test
+	public void check_doesNotSplitWordsBetweenChunks() throws IOException {
+		// chunk boundaries fall inside words
+		assertThat(
+				unknownWords("foo abcdef bar,ghijk", 4, 5, true),
+				equalTo("abcdef\nghijk\n")
+		);
+	}
+
+	@Test
+	public void check_reportsWordsInFileOrder_ifOrdered() throws IOException {
+		String input = numberedWords(20000);
+
+		assertThat(
+				unknownWords(input, 8, 1000, true),
+				equalTo(sequentialUnknownWords(input))
+		);
+	}
+
+	@Test
+	public void check_reportsAllWords_ifUnordered() throws IOException {
+		String input = numberedWords(20000);
+
+		String[] found = unknownWords(input, 8, 1000, false).split("\n");
+		String[] expected = sequentialUnknownWords(input).split("\n");
+		Arrays.sort(found);
+		Arrays.sort(expected);
+
+		assertThat(found, equalTo(expected));
+	}
+
+	@Test
+	public void check_matchesSequentialChecking_forLargeInputs()
+			throws IOException {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 50000; ++ i) {
+			input.append("foo, Bar x1 w").append(i).append(".\n");
+		}
+		String text = input.toString();
+
+		assertThat(
+				unknownWords(text, 4, 64 * 1024, true),
+				equalTo(sequentialUnknownWords(text))
+		);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsNonPositiveThreadCounts() {
+		new ParallelWordChecker(dictionary, 0, 1024, true);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsNonPositiveChunkSizes() {
+		new ParallelWordChecker(dictionary, 4, 0, true);
+	}
+
+	private String unknownWords(
+			String input,
+			int threads,
+			int chunkSize,
+			boolean ordered
+	) throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, input.getBytes(UTF_8));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FileChannel in = FileChannel.open(file)) {
+			new ParallelWordChecker(dictionary, threads, chunkSize, ordered)
+					.check(in, Channels.newChannel(out));
+		}
+		return new String(out.toByteArray(), UTF_8);
+	}
+
+	private String sequentialUnknownWords(String input) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new WordChecker(dictionary).check(
+				Channels.newChannel(new ByteArrayInputStream(
+						input.getBytes(UTF_8)
+				)),
+				Channels.newChannel(out)
+		);
+		return new String(out.toByteArray(), UTF_8);
+	}
+
+	private static String numberedWords(int count) {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < count; ++ i) {
+			input.append("w").append(i).append(" foo ");
+		}
+		return input.toString();
+	}
+}
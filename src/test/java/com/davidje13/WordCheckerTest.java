@@ -0,0 +1,159 @@
+package com.davidje13;
+
+import com.davidje13.collections.BloomSet;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static com.davidje13.testutil.TestUtils.averageAllocatedBytes;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class WordCheckerTest {
+	private final BloomSet dictionary = new BloomSet(64 * 1024, 5);
+	private final WordChecker checker = new WordChecker(dictionary);
+
+	{
+		dictionary.addAll(asList("foo", "bar", "x1"));
+	}
+
+	@Test
+	public void check_reportsWordsNotInTheDictionary() throws IOException {
+		assertThat(unknownWords("foo abc bar def"), equalTo("abc\ndef\n"));
+	}
+
+	@Test
+	public void check_isNotCaseSensitive() throws IOException {
+		assertThat(unknownWords("FOO Bar"), equalTo(""));
+	}
+
+	@Test
+	public void check_splitsWordsOnNonAlphanumericCharacters()
+			throws IOException {
+		assertThat(
+				unknownWords("foo,woo\n\tx1!caf\u00E9s \u2603 -- bar"),
+				equalTo("woo\ncaf\ns\n")
+		);
+	}
+
+	@Test
+	public void check_reportsWordsWhichSpanReadBuffers() throws IOException {
+		StringBuilder input = new StringBuilder();
+		while (input.length() < 200000) {
+			input.append("foo ");
+		}
+		input.append("abcdef");
+
+		assertThat(unknownWords(input.toString()), equalTo("abcdef\n"));
+	}
+
+	@Test
+	public void check_reportsVeryLongWords() throws IOException {
+		StringBuilder input = new StringBuilder();
+		while (input.length() < 100000) {
+			input.append("abcdefgh");
+		}
+		String longWord = input.toString();
+
+		assertThat(
+				unknownWords("foo " + longWord + " bar baz"),
+				equalTo(longWord + "\nbaz\n")
+		);
+	}
+
+	@Test
+	public void check_readsDirectBuffers() throws IOException {
+		byte[] text = "xx foo abc bar def".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer in = ByteBuffer.allocateDirect(text.length).put(text);
+		in.position(3);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		checker.check(in, Channels.newChannel(out));
+
+		assertThat(
+				new String(out.toByteArray(), StandardCharsets.UTF_8),
+				equalTo("abc\ndef\n")
+		);
+		assertThat(in.position(), equalTo(3));
+	}
+
+	@Test
+	public void check_buffersOutput() throws IOException {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 1000; ++ i) {
+			input.append("abc ");
+		}
+		int[] writes = {0};
+		WritableByteChannel out = new WritableByteChannel() {
+			@Override
+			public int write(ByteBuffer src) {
+				++ writes[0];
+				int n = src.remaining();
+				src.position(src.limit());
+				return n;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+
+		checker.check(channel(input.toString()), out);
+
+		assertThat(writes[0], equalTo(1));
+	}
+
+	@Test
+	public void check_doesNotAllocateMemory_forKnownWords() {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 10000; ++ i) {
+			input.append("foo, bar. ");
+		}
+		byte[] text = input.toString().getBytes(StandardCharsets.UTF_8);
+		WritableByteChannel out = Channels.newChannel(
+				new ByteArrayOutputStream()
+		);
+
+		double bytes = averageAllocatedBytes(100, () -> {
+			try {
+				checker.check(
+						Channels.newChannel(new ByteArrayInputStream(text)),
+						out
+				);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		// 20000 words per check; only the input stream and channel (with its
+		// transfer buffer) are allocated
+		assertThat(bytes / 20000, lessThan(1.0));
+	}
+
+	private String unknownWords(String input) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		checker.check(channel(input), Channels.newChannel(out));
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static ReadableByteChannel channel(String input) {
+		return Channels.newChannel(new ByteArrayInputStream(
+				input.getBytes(StandardCharsets.UTF_8)
+		));
+	}
+}
@@ -0,0 +1,94 @@
+package com.davidje13.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class BlockedBloomSetStatisticalTest {
+	@Before
+	public void generateDeterministicRandomMembership() {
+		int itemCount = 100000;
+
+		List<String> values = IntStream.range(0, itemCount * 2)
+				.mapToObj((v) -> "value-" + v)
+				.collect(toList());
+		Collections.shuffle(values, new Random(1234));
+
+		members = values.subList(0, itemCount);
+		nonmembers = values.subList(itemCount, itemCount * 2);
+	}
+
+	@Test
+	public void cacheLineBlocks_haveNoFalseNegatives() {
+		BlockedBloomSet set = BlockedBloomSet.withMemoryAndExpectedSize(
+				members.size() * 10,
+				members.size()
+		);
+		set.addAll(members);
+
+		assertThat(countFailureRatio(set::contains, members), equalTo(0.0));
+	}
+
+	@Test
+	public void splitBlocks_haveNoFalseNegatives() {
+		BlockedBloomSet set = BlockedBloomSet.splitBlock(members.size() * 10);
+		set.addAll(members);
+
+		assertThat(countFailureRatio(set::contains, members), equalTo(0.0));
+	}
+
+	@Test
+	public void expectedFalsePositiveRatio_isAccurate_forCacheLineBlocks() {
+		BlockedBloomSet set = BlockedBloomSet.withMemoryAndExpectedSize(
+				members.size() * 10,
+				members.size()
+		);
+		set.addAll(members);
+
+		double errorRate = countFailureRatio(
+				(v) -> !set.contains(v),
+				nonmembers
+		);
+		double predicted = set.expectedFalsePositiveRatio(members.size());
+
+		assertThat(predicted, greaterThan(errorRate * 0.8));
+		assertThat(predicted, lessThan(errorRate * 1.25));
+	}
+
+	@Test
+	public void expectedFalsePositiveRatio_isAccurate_forSplitBlocks() {
+		BlockedBloomSet set = BlockedBloomSet.splitBlock(members.size() * 10);
+		set.addAll(members);
+
+		double errorRate = countFailureRatio(
+				(v) -> !set.contains(v),
+				nonmembers
+		);
+		double predicted = set.expectedFalsePositiveRatio(members.size());
+
+		assertThat(predicted, greaterThan(errorRate * 0.8));
+		assertThat(predicted, lessThan(errorRate * 1.25));
+	}
+
+	private <T> double countFailureRatio(Predicate<T> check, List<T> values) {
+		long failures = values.stream()
+				.filter((value) -> !check.test(value))
+				.count();
+
+		return failures / (double) values.size();
+	}
+
+	private List<String> members;
+	private List<String> nonmembers;
+}
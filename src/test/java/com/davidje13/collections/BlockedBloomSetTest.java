@@ -0,0 +1,171 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+@SuppressWarnings("TypeMayBeWeakened")
+public class BlockedBloomSetTest {
+	private final BlockedBloomSet bloomSet =
+			BlockedBloomSet.withMemoryAndExpectedSize(1024, 10);
+
+	private final BlockedBloomSet splitSet = BlockedBloomSet.splitBlock(1024);
+
+	@Test
+	public void blockedBloomSet_implementsJavaUtilSet() {
+		assertThat(bloomSet, instanceOf(Set.class));
+	}
+
+	@Test
+	public void add_returnsTrue_ifTheCollectionChanges() {
+		assertThat(bloomSet.add("abc"), equalTo(true));
+		assertThat(splitSet.add("abc"), equalTo(true));
+	}
+
+	@Test
+	public void add_returnsFalse_ifTheItemHasAlreadyBeenAdded() {
+		bloomSet.add("abc");
+		splitSet.add("abc");
+		assertThat(bloomSet.add("abc"), equalTo(false));
+		assertThat(splitSet.add("abc"), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void add_rejectsNullItems() {
+		bloomSet.add(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsSizesWhichRoundUpBeyondIntRange() {
+		new BlockedBloomSet(Integer.MAX_VALUE - 100, 3);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void splitBlock_rejectsSizesWhichRoundUpBeyondIntRange() {
+		BlockedBloomSet.splitBlock(Integer.MAX_VALUE - 100);
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedItems() {
+		bloomSet.add("abc");
+		splitSet.add("abc");
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(splitSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void contains_probablyReturnsFalse_ifItemIsNotFound() {
+		bloomSet.add("abc");
+		splitSet.add("abc");
+		assertThat(bloomSet.contains("def"), equalTo(false));
+		assertThat(splitSet.contains("def"), equalTo(false));
+	}
+
+	@Test
+	public void containsLowerCase_returnsTrue_forLowerCaseItems() {
+		bloomSet.addLowerCase("AbC");
+		assertThat(bloomSet.containsLowerCase("ABC"), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void splitBlock_usesEightHashes() {
+		assertThat(splitSet.hashes(), equalTo(8));
+		assertThat(splitSet.isSplitBlock(), equalTo(true));
+		assertThat(bloomSet.isSplitBlock(), equalTo(false));
+	}
+
+	@Test
+	public void memoryUsageBits_isRoundedToWholeBlocks() {
+		assertThat(new BlockedBloomSet(1, 2).memoryUsageBits(), equalTo(512));
+		assertThat(
+				BlockedBloomSet.splitBlock(1).memoryUsageBits(),
+				equalTo(256)
+		);
+	}
+
+	@Test
+	public void addAll_acceptsSimilarSets() {
+		bloomSet.add("abc");
+
+		BlockedBloomSet bloomSet2 = new BlockedBloomSet(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes()
+		);
+		bloomSet2.add("def");
+
+		assertThat(bloomSet.addAll(bloomSet2), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+		assertThat(bloomSet.addAll(bloomSet2), equalTo(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAll_rejectsDifferentLayouts() {
+		BlockedBloomSet blocked = new BlockedBloomSet(1024, 8);
+		blocked.addAll(BlockedBloomSet.splitBlock(1024));
+	}
+
+	@Test
+	public void retainAll_keepsOnlySpecifiedItems() {
+		splitSet.add("abc");
+		splitSet.add("def");
+
+		assertThat(splitSet.retainAll(asList("def", "ghi")), equalTo(true));
+
+		assertThat(splitSet.contains("abc"), equalTo(false));
+		assertThat(splitSet.contains("def"), equalTo(true));
+		assertThat(splitSet.contains("ghi"), equalTo(false));
+	}
+
+	@Test
+	public void clear_removesAllItems() {
+		bloomSet.add("abc");
+
+		bloomSet.clear();
+
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+	}
+
+	@Test
+	public void equals_returnsTrue_forSimilarSets() {
+		BlockedBloomSet bloomSet1 = BlockedBloomSet.splitBlock(512);
+		BlockedBloomSet bloomSet2 = BlockedBloomSet.splitBlock(512);
+		bloomSet1.add("abc");
+		bloomSet1.add("def");
+		bloomSet2.add("def");
+		bloomSet2.add("abc");
+
+		assertThat(bloomSet1.equals(bloomSet2), equalTo(true));
+		assertThat(bloomSet1.hashCode(), equalTo(bloomSet2.hashCode()));
+	}
+
+	@Test
+	public void expectedFalsePositiveRatio_isWorseThanClassicBloomSet() {
+		double classic = BloomSet.expectedFalsePositiveRatio(1000, 10000, 7);
+		double blocked = BlockedBloomSet.expectedFalsePositiveRatio(
+				1000,
+				10000,
+				7
+		);
+
+		assertThat(blocked, greaterThan(classic));
+		assertThat(blocked, lessThan(classic * 2));
+	}
+
+	@Test
+	public void idealHashCount_isSimilarToClassicBloomSet() {
+		int hashes = BlockedBloomSet.idealHashCount(1000, 10000);
+
+		assertThat(hashes, greaterThan(4));
+		assertThat(hashes, lessThan(9));
+	}
+}
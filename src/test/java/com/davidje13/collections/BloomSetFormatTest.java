@@ -0,0 +1,418 @@
+package com.davidje13.collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+
+public class BloomSetFormatTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void map_loadsSetsWrittenByWriteTo() throws IOException {
+		Path file = folder.newFile().toPath();
+		BloomSet original = BloomSet.withMemoryAndExpectedSize(1024, 10);
+		original.add("abc");
+		original.add("def");
+
+		original.writeTo(file);
+
+		try (OffHeapBloomSet loaded = OffHeapBloomSet.map(file)) {
+			assertThat(loaded.contains("abc"), equalTo(true));
+			assertThat(loaded.contains("def"), equalTo(true));
+			assertThat(loaded.contains("ghi"), equalTo(false));
+			assertThat(loaded.equals(original), equalTo(true));
+		}
+	}
+
+	@Test
+	public void bitCount_countsTheBitsOfMappedSets() throws IOException {
+		Path file = folder.newFile().toPath();
+		BloomSet original = BloomSet.withMemoryAndExpectedSize(1024, 10);
+		original.add("abc");
+		original.add("def");
+
+		original.writeTo(file);
+
+		try (OffHeapBloomSet loaded = OffHeapBloomSet.map(file)) {
+			assertThat(loaded.isEmpty(), equalTo(false));
+			assertThat(loaded.bitCount(), equalTo(original.bitCount()));
+		}
+		try (InputStream in = Files.newInputStream(file)) {
+			BloomSet read = BloomSet.readFrom(in);
+			assertThat(read.bitCount(), equalTo(original.bitCount()));
+		}
+	}
+
+	@Test
+	public void writeTo_writesHeaderAndWords() throws IOException {
+		Path file = folder.newFile().toPath();
+
+		new BloomSet(256, 3).writeTo(file);
+
+		assertThat(
+				Files.size(file),
+				equalTo((long) BloomSetFormat.HEADER_BYTES + 256 / 8)
+		);
+	}
+
+	@Test
+	public void map_preservesTheHashStrategy() throws IOException {
+		Path file = folder.newFile().toPath();
+		BloomSet seeded = new BloomSet(1024, 4, new Murmur3HashStrategy(7));
+		seeded.add("abc");
+		BloomSet md5 = new BloomSet(1024, 4, new Md5HashStrategy());
+		md5.add("abc");
+
+		seeded.writeTo(file);
+		try (OffHeapBloomSet loaded = OffHeapBloomSet.map(file)) {
+			assertThat(
+					loaded.hashStrategy(),
+					equalTo(new Murmur3HashStrategy(7))
+			);
+			assertThat(loaded.hashes(), equalTo(4));
+			assertThat(loaded.contains("abc"), equalTo(true));
+		}
+
+		md5.writeTo(file);
+		try (OffHeapBloomSet loaded = OffHeapBloomSet.map(file)) {
+			assertThat(loaded.hashStrategy(), equalTo(new Md5HashStrategy()));
+			assertThat(loaded.contains("abc"), equalTo(true));
+		}
+	}
+
+	@Test
+	public void map_supportsLargeBloomSets() throws IOException {
+		Path file = folder.newFile().toPath();
+		LargeBloomSet original = LargeBloomSet.withMemoryAndExpectedSize(
+				4096,
+				10
+		);
+		original.add("abc");
+
+		original.writeTo(file);
+
+		try (OffHeapLargeBloomSet loaded = OffHeapLargeBloomSet.map(file)) {
+			assertThat(loaded.contains("abc"), equalTo(true));
+			assertThat(loaded.equals(original), equalTo(true));
+		}
+	}
+
+	@Test
+	public void add_returnsFalse_forExistingItemsInMappedSets()
+			throws IOException {
+		Path file = folder.newFile().toPath();
+		BloomSet original = BloomSet.withMemoryAndExpectedSize(1024, 10);
+		original.add("abc");
+		original.writeTo(file);
+
+		try (OffHeapBloomSet loaded = OffHeapBloomSet.map(file)) {
+			assertThat(loaded.add("abc"), equalTo(false));
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void add_throws_forNewItemsInMappedSets() throws IOException {
+		Path file = folder.newFile().toPath();
+		new BloomSet(1024, 4).writeTo(file);
+
+		try (OffHeapBloomSet loaded = OffHeapBloomSet.map(file)) {
+			loaded.add("abc");
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void writeTo_rejectsCustomHashStrategies() throws IOException {
+		Path file = folder.newFile().toPath();
+		HashStrategy custom = (value, target) -> {
+			target[0] = value.length();
+			target[1] = 1;
+		};
+
+		new BloomSet(1024, 4, custom).writeTo(file);
+	}
+
+	@Test(expected = IOException.class)
+	public void map_rejectsFilesWithoutAHeader() throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, "not a BloomSet file, just some text".getBytes());
+
+		OffHeapBloomSet.map(file).close();
+	}
+
+	@Test(expected = IOException.class)
+	public void map_rejectsTruncatedFiles() throws IOException {
+		Path file = folder.newFile().toPath();
+		new BloomSet(1024, 4).writeTo(file);
+		byte[] data = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(data, data.length - 8));
+
+		OffHeapBloomSet.map(file).close();
+	}
+
+	@Test
+	public void readFrom_loadsSetsWrittenByWriteTo() throws IOException {
+		BloomSet original = BloomSet.withMemoryAndExpectedSize(1024, 10);
+		original.add("abc");
+		original.add("def");
+
+		BloomSet loaded = BloomSet.readFrom(serialise(original));
+
+		assertThat(loaded.contains("abc"), equalTo(true));
+		assertThat(loaded.contains("def"), equalTo(true));
+		assertThat(loaded.contains("ghi"), equalTo(false));
+		assertThat(loaded.equals(original), equalTo(true));
+		assertThat(loaded.hashStrategy(), equalTo(original.hashStrategy()));
+	}
+
+	@Test
+	public void writeTo_compressesSparseSets() throws IOException {
+		BloomSet original = new BloomSet(64 * 1024, 3);
+		original.add("abc");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		original.writeTo(out);
+
+		assertThat(out.size(), lessThan(BloomSetFormat.HEADER_BYTES + 64));
+		BloomSet loaded = BloomSet.readFrom(
+				new ByteArrayInputStream(out.toByteArray())
+		);
+		assertThat(loaded.equals(original), equalTo(true));
+	}
+
+	@Test
+	public void writeTo_storesDenseSetsDirectly() throws IOException {
+		BloomSet original = new BloomSet(256, 3);
+		for (int i = 0; i < 100; ++ i) {
+			original.add("item" + i);
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		original.writeTo(out);
+
+		assertThat(out.size(), equalTo(BloomSetFormat.HEADER_BYTES + 256 / 8));
+		BloomSet loaded = BloomSet.readFrom(
+				new ByteArrayInputStream(out.toByteArray())
+		);
+		assertThat(loaded.equals(original), equalTo(true));
+	}
+
+	@Test
+	public void readFrom_consumesOnlyTheSet() throws IOException {
+		BloomSet first = new BloomSet(64 * 1024, 3);
+		first.add("abc");
+		BloomSet second = new BloomSet(256, 2);
+		second.add("def");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		first.writeTo(out);
+		second.writeTo(out);
+		out.write(7);
+		InputStream in = new ByteArrayInputStream(out.toByteArray());
+
+		assertThat(BloomSet.readFrom(in).equals(first), equalTo(true));
+		assertThat(BloomSet.readFrom(in).equals(second), equalTo(true));
+		assertThat(in.read(), equalTo(7));
+	}
+
+	@Test
+	public void readFrom_supportsLargeBloomSets() throws IOException {
+		LargeBloomSet original = new LargeBloomSet(4096, 3);
+		original.add("abc");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		original.writeTo(out);
+		LargeBloomSet loaded = LargeBloomSet.readFrom(
+				new ByteArrayInputStream(out.toByteArray())
+		);
+
+		assertThat(loaded.equals(original), equalTo(true));
+	}
+
+	@Test(expected = IOException.class)
+	public void readFrom_rejectsTruncatedData() throws IOException {
+		BloomSet original = new BloomSet(64 * 1024, 3);
+		original.add("abc");
+		byte[] data = serialise(original).readAllBytes();
+
+		BloomSet.readFrom(new ByteArrayInputStream(
+				Arrays.copyOf(data, data.length - 1)
+		));
+	}
+
+	@Test(expected = IOException.class)
+	public void readFrom_rejectsModifiedConfiguration() throws IOException {
+		byte[] data = serialise(new BloomSet(256, 3)).readAllBytes();
+		data[16] = 4; // hash count
+
+		BloomSet.readFrom(new ByteArrayInputStream(data));
+	}
+
+	@Test(expected = IOException.class)
+	public void readFrom_rejectsMoreHashesThanBits() throws IOException {
+		Path file = folder.newFile().toPath();
+		new BloomSet(256, 3).writeTo(file);
+		// version 1 has no fingerprint to catch the change
+		byte[] data = toVersion1(Files.readAllBytes(file));
+		data[16] = 1; // hash count 257
+		data[17] = 1;
+
+		BloomSet.readFrom(new ByteArrayInputStream(data));
+	}
+
+	@Test(expected = IOException.class)
+	public void map_rejectsSparseData() throws IOException {
+		Path file = folder.newFile().toPath();
+		BloomSet original = new BloomSet(64 * 1024, 3);
+		original.add("abc");
+		Files.write(file, serialise(original).readAllBytes());
+
+		OffHeapBloomSet.map(file).close();
+	}
+
+	@Test
+	public void map_loadsVersion1Files() throws IOException {
+		Path file = folder.newFile().toPath();
+		BloomSet original = BloomSet.withMemoryAndExpectedSize(1024, 10);
+		original.add("abc");
+		original.writeTo(file);
+		Files.write(file, toVersion1(Files.readAllBytes(file)));
+
+		try (OffHeapBloomSet loaded = OffHeapBloomSet.map(file)) {
+			assertThat(loaded.contains("abc"), equalTo(true));
+			assertThat(loaded.equals(original), equalTo(true));
+		}
+	}
+
+	@Test
+	public void readFrom_loadsVersion1Data() throws IOException {
+		Path file = folder.newFile().toPath();
+		BloomSet original = BloomSet.withMemoryAndExpectedSize(1024, 10);
+		original.add("abc");
+		original.writeTo(file);
+		byte[] data = toVersion1(Files.readAllBytes(file));
+
+		BloomSet loaded = BloomSet.readFrom(new ByteArrayInputStream(data));
+
+		assertThat(loaded.equals(original), equalTo(true));
+	}
+
+	@Test(expected = IOException.class)
+	public void readFrom_rejectsUnknownVersions() throws IOException {
+		byte[] data = serialise(new BloomSet(256, 3)).readAllBytes();
+		data[4] = 3; // version
+
+		BloomSet.readFrom(new ByteArrayInputStream(data));
+	}
+
+	@Test(expected = IOException.class)
+	public void readFrom_rejectsSetsLargerThanTheLimit() throws IOException {
+		byte[] data = header(1L << 40, 0);
+
+		LargeBloomSet.readFrom(
+				Channels.newChannel(new ByteArrayInputStream(data)),
+				1L << 30
+		);
+	}
+
+	@Test(expected = IOException.class)
+	public void readFrom_rejectsHeadersLargerThanTheFile() throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, header(1L << 40, 0));
+
+		try (FileChannel channel = FileChannel.open(file)) {
+			LargeBloomSet.readFrom(channel);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void readFrom_rejectsSparseDataLargerThanTheFile()
+			throws IOException {
+		Path file = folder.newFile().toPath();
+		ByteBuffer data = ByteBuffer.allocate(BloomSetFormat.HEADER_BYTES + 16)
+				.order(ByteOrder.LITTLE_ENDIAN)
+				.put(header(1L << 40, 1))
+				.putLong(1000) // non-zero words
+				.putLong(9000); // encoded bytes
+		Files.write(file, data.array());
+
+		try (FileChannel channel = FileChannel.open(file)) {
+			LargeBloomSet.readFrom(channel);
+		}
+	}
+
+	@Test
+	public void configurationFingerprint_matchesForSimilarSets() {
+		BloomSet set1 = new BloomSet(256, 3);
+		set1.add("abc");
+		BloomSet set2 = new BloomSet(256, 3);
+
+		assertThat(
+				set1.configurationFingerprint(),
+				equalTo(set2.configurationFingerprint())
+		);
+		assertThat(
+				new BloomSet(256, 4).configurationFingerprint(),
+				not(equalTo(set1.configurationFingerprint()))
+		);
+		assertThat(
+				new BloomSet(512, 3).configurationFingerprint(),
+				not(equalTo(set1.configurationFingerprint()))
+		);
+		assertThat(
+				new BloomSet(256, 3, new Murmur3HashStrategy(1))
+						.configurationFingerprint(),
+				not(equalTo(set1.configurationFingerprint()))
+		);
+	}
+
+	private static byte[] header(long bits, int flags) {
+		HashStrategy strategy = new Murmur3HashStrategy();
+		return ByteBuffer.allocate(BloomSetFormat.HEADER_BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN)
+				.putInt(0x534d4c42) // "BLMS"
+				.putInt(2) // version
+				.putLong(bits)
+				.putInt(3) // hash count
+				.putInt(1) // MurmurHash3
+				.putInt(0) // seed
+				.putInt(flags)
+				.putLong(BloomSetFormat.fingerprint(bits, 3, strategy))
+				.array();
+	}
+
+	/**
+	 * Converts a dense version 2 file to version 1 (which has no
+	 * fingerprint).
+	 */
+	private static byte[] toVersion1(byte[] data) {
+		byte[] result = new byte[data.length - 8];
+		System.arraycopy(data, 0, result, 0, 32);
+		System.arraycopy(data, 40, result, 32, data.length - 40);
+		result[4] = 1; // version
+		return result;
+	}
+
+	private static InputStream serialise(BloomSet set) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		set.writeTo(out);
+		return new ByteArrayInputStream(out.toByteArray());
+	}
+}
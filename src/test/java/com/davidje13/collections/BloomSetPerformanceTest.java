@@ -4,11 +4,9 @@ import org.junit.Test;
 
 import java.util.Collection;
 
+import static com.davidje13.testutil.TestUtils.averageAllocatedBytes;
 import static com.davidje13.testutil.TestUtils.averageMemoryUsageBytes;
-import static com.davidje13.testutil.TestUtils.averageTimeTakenMillis;
-import static com.davidje13.testutil.TestUtils.timeTakenMillis;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.lessThan;
 
 public class BloomSetPerformanceTest {
@@ -26,42 +24,56 @@ public class BloomSetPerformanceTest {
 	}
 
 	@Test
-	public void constructingAndAddingLargeNumbersOfItems_runsQuickly() {
-		int memory = 1024 * 1024 * 8; // 1MB
-
-		long millis = timeTakenMillis(() -> {
-			BloomSet bloomSet = new BloomSet(memory, 5);
-			for(int i = 0; i < 1000000; ++i) {
-				bloomSet.add("value-" + i);
-			}
-			assertThat(bloomSet.contains("value-0"), equalTo(true));
-		});
+	@SuppressWarnings("ResultOfMethodCallIgnored")
+	public void contains_doesNotAllocateMemory() {
+		BloomSet bloomSet = seededBloomSet();
+
+		double bytes = averageAllocatedBytes(100000, () ->
+				bloomSet.contains("value-1234567")
+		);
 
-		assertThat(millis, lessThan(1000L));
+		assertThat(bytes, lessThan(1.0));
 	}
 
 	@Test
 	@SuppressWarnings("ResultOfMethodCallIgnored")
-	public void contains_returnsQuickly_evenWhenSetIsLarge() {
+	public void containsLowerCase_doesNotAllocateMemory() {
 		BloomSet bloomSet = seededBloomSet();
+		CharSequence value = new StringBuilder("Value-1234567");
 
-		double millis = averageTimeTakenMillis(100000, () ->
-				bloomSet.contains("value-1234567")
+		double bytes = averageAllocatedBytes(100000, () ->
+				bloomSet.containsLowerCase(value)
 		);
 
-		assertThat(millis, lessThan(0.001)); // 1 microsecond
+		assertThat(bytes, lessThan(1.0));
 	}
 
 	@Test
-	@SuppressWarnings("ResultOfMethodCallIgnored")
-	public void isEmpty_runsQuickly_evenWhenSetIsLarge() {
+	public void add_doesNotAllocateMemory() {
 		BloomSet bloomSet = seededBloomSet();
 
-		double millis = averageTimeTakenMillis(100000,
-				bloomSet::isEmpty
+		double bytes = averageAllocatedBytes(100000, () ->
+				bloomSet.add("value-1234567")
+		);
+
+		assertThat(bytes, lessThan(1.0));
+	}
+
+	@Test
+	public void containsAllArray_doesNotAllocateMemory() {
+		BloomSet bloomSet = seededBloomSet();
+		String[] values = new String[256];
+		for (int i = 0; i < values.length; ++ i) {
+			values[i] = "value-" + (i * 1000);
+		}
+		boolean[] results = new boolean[values.length];
+		bloomSet.containsAll(values, results);
+
+		double bytes = averageAllocatedBytes(1000, () ->
+				bloomSet.containsAll(values, results)
 		);
 
-		assertThat(millis, lessThan(0.001)); // 1 microsecond
+		assertThat(bytes, lessThan(1.0));
 	}
 
 	private BloomSet seededBloomSet() {
@@ -67,6 +67,97 @@ public class BloomSetStatisticalTest {
 		assertThat(predicted, lessThan(errorRate * 2.0));
 	}
 
+	@Test
+	public void expectedFalsePositiveRatio_isAccurate_forManyHashes() {
+		int memory = members.size() * 10;
+		BloomSet manyHashes = new BloomSet(memory, 20);
+		manyHashes.addAll(members);
+
+		double errorRate = countFailureRatio(
+				(v) -> !manyHashes.contains(v),
+				nonmembers
+		);
+
+		double predicted = manyHashes.expectedFalsePositiveRatio(
+				members.size()
+		);
+
+		assertThat(predicted, greaterThan(errorRate * 0.9));
+		assertThat(predicted, lessThan(errorRate * 1.1));
+	}
+
+	@Test
+	public void falsePositiveRatio_isConsistent_acrossHashStrategies() {
+		int memory = members.size() * 10;
+		BloomSet murmur3 = new BloomSet(memory, 20, new Murmur3HashStrategy());
+		BloomSet md5 = new BloomSet(memory, 20, new Md5HashStrategy());
+		murmur3.addAll(members);
+		md5.addAll(members);
+
+		double murmur3ErrorRate = countFailureRatio(
+				(v) -> !murmur3.contains(v),
+				nonmembers
+		);
+		double md5ErrorRate = countFailureRatio(
+				(v) -> !md5.contains(v),
+				nonmembers
+		);
+
+		assertThat(murmur3ErrorRate, greaterThan(md5ErrorRate * 0.9));
+		assertThat(murmur3ErrorRate, lessThan(md5ErrorRate * 1.1));
+	}
+
+	@Test
+	public void containsAllArray_matchesContains() {
+		String[] values = nonmembers.toArray(new String[0]);
+		boolean[] results = new boolean[values.length];
+
+		bloomSet.containsAll(values, results);
+
+		for (int i = 0; i < values.length; ++ i) {
+			assertThat(results[i], equalTo(bloomSet.contains(values[i])));
+		}
+	}
+
+	@Test
+	public void addAllArray_matchesAddAll() {
+		BloomSet batched = BloomSet.withMemoryAndExpectedSize(
+				bloomSet.memoryUsageBits(),
+				members.size()
+		);
+
+		batched.addAll(members.toArray(new String[0]));
+
+		assertThat(batched.equals(bloomSet), equalTo(true));
+	}
+
+	@Test
+	public void estimatedSize_isCloseToTheNumberOfItems() {
+		long estimate = bloomSet.estimatedSize();
+
+		assertThat(estimate, greaterThan(members.size() * 98L / 100));
+		assertThat(estimate, lessThan(members.size() * 102L / 100));
+	}
+
+	@Test
+	public void estimatedUnionAndIntersectionSizes_areClose() {
+		BloomSet other = BloomSet.withMemoryAndExpectedSize(
+				bloomSet.memoryUsageBits(),
+				members.size()
+		);
+		// half of the members, and an equal number of non-members
+		other.addAll(members.subList(0, members.size() / 2));
+		other.addAll(nonmembers.subList(0, members.size() / 2));
+
+		long union = bloomSet.estimatedUnionSize(other);
+		long intersection = bloomSet.estimatedIntersectionSize(other);
+
+		assertThat(union, greaterThan(members.size() * 147L / 100));
+		assertThat(union, lessThan(members.size() * 153L / 100));
+		assertThat(intersection, greaterThan(members.size() * 45L / 100));
+		assertThat(intersection, lessThan(members.size() * 55L / 100));
+	}
+
 	private <T> double countFailureRatio(Predicate<T> check, List<T> values) {
 		long failures = values.stream()
 				.filter((value) -> !check.test(value))
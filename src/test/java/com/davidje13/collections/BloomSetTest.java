@@ -3,11 +3,15 @@ package com.davidje13.collections;
 import org.junit.Test;
 
 import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.not;
 
 @SuppressWarnings("TypeMayBeWeakened")
@@ -55,6 +59,75 @@ public class BloomSetTest {
 		assertThat(bloomSet.contains("def"), equalTo(false));
 	}
 
+	@Test
+	public void contains_returnsTrue_forAddedItems_usingMd5() {
+		BloomSet md5Set = new BloomSet(128, 3, new Md5HashStrategy());
+		md5Set.add("abc");
+
+		assertThat(md5Set.contains("abc"), equalTo(true));
+		assertThat(md5Set.contains("def"), equalTo(false));
+	}
+
+	@Test
+	public void hashStrategy_defaultsToMurmur3() {
+		assertThat(
+				bloomSet.hashStrategy(),
+				instanceOf(Murmur3HashStrategy.class)
+		);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void constructor_rejectsNullHashStrategy() {
+		new BloomSet(128, 2, null);
+	}
+
+	@Test
+	public void containsLowerCase_returnsTrue_forLowerCaseItems() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.containsLowerCase("AbC"), equalTo(true));
+	}
+
+	@Test
+	public void containsLowerCase_acceptsAnyCharSequence() {
+		bloomSet.add("abc");
+		StringBuilder value = new StringBuilder("ABC");
+		assertThat(bloomSet.containsLowerCase(value), equalTo(true));
+	}
+
+	@Test
+	public void containsLowerCase_probablyReturnsFalse_forMixedCaseItems() {
+		bloomSet.add("AbC");
+		assertThat(bloomSet.containsLowerCase("AbC"), equalTo(false));
+	}
+
+	@Test
+	public void containsLowerCase_returnsFalse_forNull() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.containsLowerCase(null), equalTo(false));
+	}
+
+	@Test
+	public void addLowerCase_addsTheLowerCaseForm() {
+		bloomSet.addLowerCase("AbC");
+
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("AbC"), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void addLowerCase_rejectsNullItems() {
+		bloomSet.addLowerCase(null);
+	}
+
+	@Test
+	public void addLowerCase_isCompatibleWithCustomHashStrategies() {
+		BloomSet md5Set = new BloomSet(128, 3, new Md5HashStrategy());
+		md5Set.addLowerCase("AbC");
+
+		assertThat(md5Set.contains("abc"), equalTo(true));
+		assertThat(md5Set.containsLowerCase("ABC"), equalTo(true));
+	}
+
 	@Test
 	public void containsAll_returnsTrue_ifAllItemsAreFound() {
 		bloomSet.add("abc");
@@ -145,11 +218,187 @@ public class BloomSetTest {
 		bloomSet.addAll(bloomSet2);
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void addAll_rejectsBloomSetsWithDifferentHashStrategies() {
+		BloomSet bloomSet1 = new BloomSet(128, 2, new Murmur3HashStrategy());
+		BloomSet bloomSet2 = new BloomSet(128, 2, new Md5HashStrategy());
+		bloomSet2.add("abc");
+
+		bloomSet1.addAll(bloomSet2);
+	}
+
 	@Test(expected = NullPointerException.class)
 	public void addAll_rejectsNullItems() {
 		bloomSet.addAll(asList("abc", null, "ghi"));
 	}
 
+	@Test
+	public void idealMemoryBits_achievesTheRequestedFalsePositiveRatio() {
+		long bits = BloomSet.idealMemoryBits(1000, 0.01);
+		int hashes = BloomSet.idealHashCount(1000, bits);
+
+		double ratio = BloomSet.expectedFalsePositiveRatio(1000, bits, hashes);
+
+		assertThat(ratio, lessThan(0.0101));
+		assertThat(ratio, greaterThan(0.009));
+	}
+
+	@Test
+	public void expectedFalsePositiveRatio_isZero_forEmptySets() {
+		assertThat(
+				BloomSet.expectedFalsePositiveRatio(0L, 1L, 3),
+				equalTo(0.0)
+		);
+		assertThat(
+				BloomSet.expectedFalsePositiveRatio(0L, 64L, 3),
+				equalTo(0.0)
+		);
+	}
+
+	@Test
+	public void expectedFalsePositiveRatio_isOne_forSingleBitSets() {
+		assertThat(
+				BloomSet.expectedFalsePositiveRatio(1L, 1L, 3),
+				equalTo(1.0)
+		);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void idealMemoryBits_rejectsInvalidRatios() {
+		BloomSet.idealMemoryBits(1000, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsNonPositiveHashCounts() {
+		new BloomSet(128, 0);
+	}
+
+	@Test
+	public void addAllArray_addsAllGivenItemsToTheSet() {
+		assertThat(bloomSet.addAll(new String[]{"abc", "def"}), equalTo(true));
+
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+		assertThat(bloomSet.addAll(new String[]{"abc", "def"}), equalTo(false));
+	}
+
+	@Test
+	public void addAllArray_matchesIndividualAdds_forLargeArrays() {
+		BloomSet individual = new BloomSet(4096, 5);
+		BloomSet batched = new BloomSet(4096, 5);
+		String[] values = new String[150];
+		for (int i = 0; i < values.length; ++ i) {
+			values[i] = "value-" + i;
+			individual.add(values[i]);
+		}
+
+		batched.addAll(values);
+
+		assertThat(batched.equals(individual), equalTo(true));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void addAllArray_rejectsNullItems() {
+		bloomSet.addAll(new String[]{"abc", null, "ghi"});
+	}
+
+	@Test
+	public void containsAllArray_reportsMembershipOfEachItem() {
+		bloomSet.add("abc");
+		bloomSet.add("ghi");
+		boolean[] results = new boolean[3];
+
+		boolean all = bloomSet.containsAll(
+				new String[]{"abc", "def", "ghi"},
+				results
+		);
+
+		assertThat(all, equalTo(false));
+		assertThat(results[0], equalTo(true));
+		assertThat(results[1], equalTo(false));
+		assertThat(results[2], equalTo(true));
+	}
+
+	@Test
+	public void containsAllArray_returnsTrue_ifAllItemsAreFound() {
+		bloomSet.add("abc");
+		bloomSet.add("def");
+		boolean[] results = new boolean[2];
+
+		boolean all = bloomSet.containsAll(
+				new String[]{"abc", "def"},
+				results
+		);
+
+		assertThat(all, equalTo(true));
+	}
+
+	@Test
+	public void containsAllArray_matchesContains_forLargeArrays() {
+		BloomSet set = new BloomSet(1024, 3);
+		String[] values = new String[300];
+		for (int i = 0; i < values.length; ++ i) {
+			values[i] = "value-" + i;
+			if (i % 3 == 0) {
+				set.add(values[i]);
+			}
+		}
+		boolean[] results = new boolean[values.length];
+
+		set.containsAll(values, results);
+
+		for (int i = 0; i < values.length; ++ i) {
+			assertThat(results[i], equalTo(set.contains(values[i])));
+		}
+	}
+
+	@Test
+	public void containsAllArray_returnsFalse_forNull() {
+		bloomSet.add("abc");
+		boolean[] results = new boolean[2];
+
+		boolean all = bloomSet.containsAll(new String[]{"abc", null}, results);
+
+		assertThat(all, equalTo(false));
+		assertThat(results[0], equalTo(true));
+		assertThat(results[1], equalTo(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void containsAllArray_rejectsShortResultArrays() {
+		bloomSet.containsAll(new String[]{"abc", "def"}, new boolean[1]);
+	}
+
+	@Test
+	public void collector_matchesIndividualAdds_forParallelStreams() {
+		BloomSet individual = new BloomSet(4096, 5);
+		for (int i = 0; i < 5000; ++ i) {
+			individual.add("value-" + i);
+		}
+
+		BloomSet collected = IntStream.range(0, 5000)
+				.parallel()
+				.mapToObj((i) -> "value-" + i)
+				.collect(BloomSet.collector(4096, 5, new Murmur3HashStrategy()));
+
+		assertThat(collected.equals(individual), equalTo(true));
+	}
+
+	@Test
+	public void lowerCaseCollector_addsTheLowerCaseForm() {
+		BloomSet collected = Stream.of("AbC", "dEf")
+				.parallel()
+				.collect(BloomSet.lowerCaseCollector(
+						1024,
+						2,
+						new Murmur3HashStrategy()
+				));
+
+		assertThat(collected.contains("abc"), equalTo(true));
+		assertThat(collected.contains("def"), equalTo(true));
+		assertThat(collected.contains("AbC"), equalTo(false));
+	}
+
 	@Test
 	public void retainAll_keepsOnlySpecifiedItems() {
 		bloomSet.add("abc");
@@ -234,6 +483,98 @@ public class BloomSetTest {
 		assertThat(bloomSet.isEmpty(), equalTo(false));
 	}
 
+	@Test
+	public void bitCount_returnsTheNumberOfSetBits() {
+		BloomSet set = new BloomSet(1024, 3);
+		assertThat(set.bitCount(), equalTo(0));
+		assertThat(set.fillRatio(), equalTo(0.0));
+
+		set.add("abc");
+		int afterOne = set.bitCount();
+		assertThat(afterOne, greaterThan(0));
+		assertThat(afterOne, lessThan(4));
+		assertThat(set.fillRatio(), equalTo(afterOne / 1024.0));
+
+		set.add("abc");
+		assertThat(set.bitCount(), equalTo(afterOne));
+	}
+
+	@Test
+	public void bitCount_isUpdatedByAddAllAndRetainAll() {
+		BloomSet set1 = new BloomSet(1024, 3);
+		BloomSet set2 = new BloomSet(1024, 3);
+		set1.add("abc");
+		set2.add("def");
+		int expected = set1.bitCount() + set2.bitCount();
+
+		set1.addAll(set2);
+		assertThat(set1.bitCount(), lessThan(expected + 1));
+		assertThat(set1.bitCount(), greaterThan(expected - 3));
+
+		set1.retainAll(set2);
+		assertThat(set1.bitCount(), equalTo(set2.bitCount()));
+
+		set1.clear();
+		assertThat(set1.bitCount(), equalTo(0));
+	}
+
+	@Test
+	public void estimatedSize_returnsTheApproximateNumberOfItems() {
+		BloomSet set = new BloomSet(8192, 4);
+		assertThat(set.estimatedSize(), equalTo(0L));
+
+		for (int i = 0; i < 100; ++ i) {
+			set.add("value-" + i);
+		}
+
+		assertThat(set.estimatedSize(), greaterThan(90L));
+		assertThat(set.estimatedSize(), lessThan(110L));
+	}
+
+	@Test
+	public void estimatedSize_returnsMaxValue_ifTheSetIsSaturated() {
+		BloomSet set = new BloomSet(64, 1);
+		for (int i = 0; set.bitCount() < 64; ++ i) {
+			set.add("value-" + i);
+		}
+
+		assertThat(set.estimatedSize(), equalTo(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void estimatedIntersectionSize_returnsZero_forDisjointSets() {
+		BloomSet set1 = new BloomSet(8192, 4);
+		BloomSet set2 = new BloomSet(8192, 4);
+		set1.add("abc");
+		set2.add("def");
+
+		assertThat(set1.estimatedUnionSize(set2), equalTo(2L));
+		assertThat(set1.estimatedIntersectionSize(set2), equalTo(0L));
+		assertThat(set1.estimatedIntersectionSize(set1), equalTo(1L));
+	}
+
+	@Test
+	public void estimatedIntersectionSize_returnsTheOtherSize_ifOneSetIsSaturated() {
+		BloomSet saturated = new BloomSet(64, 1);
+		for (int i = 0; saturated.bitCount() < 64; ++ i) {
+			saturated.add("value-" + i);
+		}
+		BloomSet set = new BloomSet(64, 1);
+		set.add("abc");
+
+		assertThat(saturated.estimatedIntersectionSize(set), equalTo(1L));
+		assertThat(set.estimatedIntersectionSize(saturated), equalTo(1L));
+		assertThat(
+				saturated.estimatedIntersectionSize(saturated),
+				equalTo(Long.MAX_VALUE)
+		);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void estimatedUnionSize_rejectsDifferentBloomSets() {
+		bloomSet.estimatedUnionSize(new BloomSet(1024, 2));
+	}
+
 	@Test
 	public void clear_removesAllItems() {
 		bloomSet.add("abc");
@@ -244,6 +585,34 @@ public class BloomSetTest {
 		assertThat(bloomSet.contains("abc"), equalTo(false));
 	}
 
+	@Test
+	public void view_sharesContentWithTheOriginalSet() {
+		bloomSet.add("abc");
+		BloomSet view = bloomSet.view();
+
+		view.add("def");
+
+		assertThat(view.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+		assertThat(view, equalTo(bloomSet));
+		assertThat(view.bitCount(), equalTo(bloomSet.bitCount()));
+	}
+
+	@Test
+	public void view_canTestMembershipConcurrently() {
+		BloomSet words = BloomSet.withMemoryAndExpectedSize(64 * 1024, 1000);
+		IntStream.range(0, 1000).forEach((i) -> words.add("w" + i));
+
+		long found = IntStream.range(0, 8).parallel().mapToLong((t) -> {
+			BloomSet view = words.view();
+			return IntStream.range(0, 100000)
+					.filter((i) -> view.contains("w" + (i % 1000)))
+					.count();
+		}).sum();
+
+		assertThat(found, equalTo(800000L));
+	}
+
 	@Test
 	@SuppressWarnings("EqualsWithItself")
 	public void equals_returnsTrue_forSelf() {
@@ -297,6 +666,14 @@ public class BloomSetTest {
 		assertThat(bloomSet1.equals(bloomSet2), equalTo(false));
 	}
 
+	@Test
+	public void equals_returnsFalse_forDifferentHashStrategies() {
+		BloomSet bloomSet1 = new BloomSet(128, 2, new Murmur3HashStrategy(1));
+		BloomSet bloomSet2 = new BloomSet(128, 2, new Murmur3HashStrategy(2));
+
+		assertThat(bloomSet1.equals(bloomSet2), equalTo(false));
+	}
+
 	@Test
 	public void hashCode_isProbablyDifferent_forDifferentConfiguration() {
 		BloomSet bloomSet1 = new BloomSet(128, 2);
@@ -0,0 +1,225 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+@SuppressWarnings("TypeMayBeWeakened")
+public class ConcurrentBloomSetTest {
+	private final ConcurrentBloomSet bloomSet =
+			ConcurrentBloomSet.withMemoryAndExpectedSize(32 * 8, 10);
+
+	@Test
+	public void concurrentBloomSet_implementsJavaUtilSet() {
+		assertThat(bloomSet, instanceOf(Set.class));
+	}
+
+	@Test
+	public void add_returnsTrue_ifTheCollectionChanges() {
+		assertThat(bloomSet.add("abc"), equalTo(true));
+	}
+
+	@Test
+	public void add_returnsFalse_ifTheItemHasAlreadyBeenAdded() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.add("abc"), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void add_rejectsNullItems() {
+		bloomSet.add(null);
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedItems() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void contains_probablyReturnsFalse_ifItemIsNotFound() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.contains("def"), equalTo(false));
+	}
+
+	@Test
+	public void contains_returnsFalse_forNull() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.contains(null), equalTo(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsSizesWhichRoundUpBeyondIntRange() {
+		new ConcurrentBloomSet(Integer.MAX_VALUE - 10, 3);
+	}
+
+	@Test
+	public void containsLowerCase_returnsTrue_forLowerCaseItems() {
+		bloomSet.addLowerCase("AbC");
+		assertThat(bloomSet.containsLowerCase("ABC"), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void addAll_acceptsSimilarSets() {
+		bloomSet.add("abc");
+
+		ConcurrentBloomSet bloomSet2 = new ConcurrentBloomSet(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes()
+		);
+		bloomSet2.add("def");
+
+		assertThat(bloomSet.addAll(bloomSet2), equalTo(true));
+
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+
+		assertThat(bloomSet.addAll(bloomSet2), equalTo(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAll_rejectsDifferentSets() {
+		bloomSet.addAll(new ConcurrentBloomSet(1024, 2));
+	}
+
+	@Test
+	public void retainAll_keepsOnlySpecifiedItems() {
+		bloomSet.add("abc");
+		bloomSet.add("def");
+		bloomSet.add("ghi");
+
+		boolean changed = bloomSet.retainAll(asList("def", "ghi", "jkl"));
+
+		assertThat(changed, equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+		assertThat(bloomSet.contains("ghi"), equalTo(true));
+		assertThat(bloomSet.contains("jkl"), equalTo(false));
+	}
+
+	@Test
+	public void retainAll_returnsFalse_ifNothingChanges() {
+		bloomSet.add("def");
+
+		boolean changed = bloomSet.retainAll(asList("def", "ghi"));
+
+		assertThat(changed, equalTo(false));
+	}
+
+	@Test
+	public void isEmpty_returnsTrue_ifTheCollectionHasNoItems() {
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void clear_removesAllItems() {
+		bloomSet.add("abc");
+
+		bloomSet.clear();
+
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+	}
+
+	@Test
+	public void add_setsTheSameBitsAsBloomSet() {
+		BloomSet reference = new BloomSet(1024, 3);
+		ConcurrentBloomSet concurrent = new ConcurrentBloomSet(1024, 3);
+		reference.add("abc");
+		concurrent.add("abc");
+
+		for (int i = 0; i < 100; ++ i) {
+			String value = "value-" + i;
+			assertThat(
+					concurrent.contains(value),
+					equalTo(reference.contains(value))
+			);
+		}
+	}
+
+	@Test
+	public void equals_returnsTrue_forSimilarSets() {
+		ConcurrentBloomSet bloomSet1 = new ConcurrentBloomSet(128, 2);
+		ConcurrentBloomSet bloomSet2 = new ConcurrentBloomSet(128, 2);
+		bloomSet1.add("abc");
+		bloomSet1.add("def");
+		bloomSet2.add("def");
+		bloomSet2.add("abc");
+
+		assertThat(bloomSet1.equals(bloomSet2), equalTo(true));
+		assertThat(bloomSet1.hashCode(), equalTo(bloomSet2.hashCode()));
+	}
+
+	@Test
+	public void equals_probablyReturnsFalse_forDifferentItems() {
+		ConcurrentBloomSet bloomSet1 = new ConcurrentBloomSet(128, 2);
+		ConcurrentBloomSet bloomSet2 = new ConcurrentBloomSet(128, 2);
+		bloomSet1.add("abc");
+		bloomSet1.add("def");
+		bloomSet2.add("abc");
+
+		assertThat(bloomSet1.equals(bloomSet2), equalTo(false));
+	}
+
+	@Test
+	public void add_isSafeFromMultipleThreads() throws Exception {
+		int threads = 8;
+		int itemsPerThread = 10000;
+		ConcurrentBloomSet shared = ConcurrentBloomSet
+				.withMemoryAndExpectedSize(1024 * 1024, threads * itemsPerThread);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int t = 0; t < threads; ++ t) {
+				int thread = t;
+				results.add(executor.submit(() -> {
+					boolean allFound = true;
+					for (int i = 0; i < itemsPerThread; ++ i) {
+						String value = "value-" + thread + "-" + i;
+						shared.add(value);
+						allFound &= shared.contains(value);
+					}
+					return allFound;
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertThat(result.get(), equalTo(true));
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		for (int t = 0; t < threads; ++ t) {
+			for (int i = 0; i < itemsPerThread; ++ i) {
+				String value = "value-" + t + "-" + i;
+				assertThat(shared.contains(value), equalTo(true));
+			}
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test(expected = UnsupportedOperationException.class)
+	public void size_isNotSupported() {
+		bloomSet.size();
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test(expected = UnsupportedOperationException.class)
+	public void iterator_isNotSupported() {
+		bloomSet.iterator();
+	}
+}
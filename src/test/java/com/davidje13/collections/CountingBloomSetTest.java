@@ -0,0 +1,182 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+@SuppressWarnings("TypeMayBeWeakened")
+public class CountingBloomSetTest {
+	private final CountingBloomSet bloomSet =
+			CountingBloomSet.withMemoryAndExpectedSize(128 * 8, 10);
+
+	@Test
+	public void countingBloomSet_implementsJavaUtilSet() {
+		assertThat(bloomSet, instanceOf(Set.class));
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedItems() {
+		bloomSet.add("abc");
+
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(false));
+	}
+
+	@Test
+	public void add_returnsFalse_ifTheItemHasAlreadyBeenAdded() {
+		assertThat(bloomSet.add("abc"), equalTo(true));
+		assertThat(bloomSet.add("abc"), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void add_rejectsNullItems() {
+		bloomSet.add(null);
+	}
+
+	@Test
+	public void remove_removesAddedItems() {
+		bloomSet.add("abc");
+		bloomSet.add("def");
+
+		assertThat(bloomSet.remove("abc"), equalTo(true));
+
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+	}
+
+	@Test
+	public void remove_returnsFalse_ifTheItemIsNotFound() {
+		bloomSet.add("abc");
+
+		assertThat(bloomSet.remove("def"), equalTo(false));
+		assertThat(bloomSet.remove(null), equalTo(false));
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void remove_mustBeCalledOnceForEachAdd() {
+		bloomSet.add("abc");
+		bloomSet.add("abc");
+
+		bloomSet.remove("abc");
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+
+		bloomSet.remove("abc");
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void remove_leavesSaturatedCountersSet() {
+		CountingBloomSet set = new CountingBloomSet(
+				64,
+				3,
+				2,
+				new Murmur3HashStrategy()
+		);
+		for (int i = 0; i < 5; ++ i) {
+			set.add("abc");
+		}
+		for (int i = 0; i < 5; ++ i) {
+			set.remove("abc");
+		}
+
+		assertThat(set.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void removeAll_removesAllGivenItems() {
+		bloomSet.addAll(asList("abc", "def", "ghi"));
+
+		assertThat(bloomSet.removeAll(asList("abc", "ghi")), equalTo(true));
+
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+		assertThat(bloomSet.contains("ghi"), equalTo(false));
+	}
+
+	@Test
+	public void remove_neverCausesFalseNegatives_forRemainingItems() {
+		CountingBloomSet set = CountingBloomSet.withMemoryAndExpectedSize(
+				1000 * 40,
+				1000
+		);
+		for (int i = 0; i < 1000; ++ i) {
+			set.add("value-" + i);
+		}
+		for (int i = 0; i < 1000; i += 2) {
+			set.remove("value-" + i);
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 1000; i += 2) {
+			assertThat(set.contains("value-" + (i + 1)), equalTo(true));
+			if (set.contains("value-" + i)) {
+				++ falsePositives;
+			}
+		}
+		assertThat(falsePositives, lessThan(25));
+	}
+
+	@Test
+	public void clear_removesAllItems() {
+		bloomSet.add("abc");
+
+		bloomSet.clear();
+
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+	}
+
+	@Test
+	public void withMemoryAndExpectedSize_dividesMemoryBetweenCounters() {
+		CountingBloomSet set = CountingBloomSet.withMemoryAndExpectedSize(
+				1024,
+				10,
+				8,
+				new Md5HashStrategy()
+		);
+
+		assertThat(set.counters(), equalTo(128));
+		assertThat(set.counterBits(), equalTo(8));
+		assertThat(set.memoryUsageBits(), equalTo(1024L));
+		assertThat(set.hashes(), equalTo(BloomSet.idealHashCount(10, 128)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsUnsupportedCounterSizes() {
+		new CountingBloomSet(64, 3, 3, new Murmur3HashStrategy());
+	}
+
+	@Test
+	public void equals_returnsTrue_forSimilarSets() {
+		CountingBloomSet set1 = new CountingBloomSet(256, 3);
+		CountingBloomSet set2 = new CountingBloomSet(256, 3);
+		set1.add("abc");
+		set2.add("abc");
+
+		assertThat(set1.equals(set2), equalTo(true));
+		assertThat(set1.hashCode(), equalTo(set2.hashCode()));
+
+		set2.add("abc");
+		assertThat(set1.equals(set2), equalTo(false));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	@SuppressWarnings("deprecation")
+	public void size_isNotSupported() {
+		bloomSet.size();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	@SuppressWarnings("deprecation")
+	public void iterator_isNotSupported() {
+		bloomSet.iterator();
+	}
+}
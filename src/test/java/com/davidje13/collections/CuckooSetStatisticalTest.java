@@ -0,0 +1,68 @@
+package com.davidje13.collections;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.function.Predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class CuckooSetStatisticalTest {
+	private static final int BUCKETS = 32 * 1024;
+	private static final int ITEMS = (int) (BUCKETS * 4 * 0.9);
+	private static final int CHECKS = 2000000;
+
+	private static CuckooSet cuckooSet;
+
+	@BeforeClass
+	public static void fillToHighLoad() {
+		cuckooSet = new CuckooSet(BUCKETS, 16);
+		for (int i = 0; i < ITEMS; ++ i) {
+			cuckooSet.add("value-" + i);
+		}
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedItems_withCertainty() {
+		for (int i = 0; i < ITEMS; ++ i) {
+			assertThat(cuckooSet.contains("value-" + i), equalTo(true));
+		}
+	}
+
+	@Test
+	public void expectedFalsePositiveRatio_givesAReasonableEstimate() {
+		double errorRate = falsePositiveRatio(cuckooSet::contains);
+
+		double predicted = cuckooSet.expectedFalsePositiveRatio(ITEMS);
+
+		assertThat(predicted, greaterThan(errorRate * 0.7));
+		assertThat(predicted, lessThan(errorRate * 1.3));
+	}
+
+	@Test
+	public void falsePositiveRatio_isLowerThanBloomSet_forTheSameMemory() {
+		int memory = (int) cuckooSet.memoryUsageBits();
+		BloomSet bloomSet = BloomSet.withMemoryAndExpectedSize(memory, ITEMS);
+		for (int i = 0; i < ITEMS; ++ i) {
+			bloomSet.add("value-" + i);
+		}
+
+		double cuckooErrorRate = falsePositiveRatio(cuckooSet::contains);
+		double bloomErrorRate = falsePositiveRatio(bloomSet::contains);
+
+		assertThat(cuckooErrorRate, lessThan(bloomErrorRate * 0.8));
+	}
+
+	private static double falsePositiveRatio(Predicate<String> contains) {
+		int falsePositives = 0;
+		for (int i = 0; i < CHECKS; ++ i) {
+			if (contains.test("other-" + i)) {
+				++ falsePositives;
+			}
+		}
+		return falsePositives / (double) CHECKS;
+	}
+}
@@ -0,0 +1,192 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+
+@SuppressWarnings("TypeMayBeWeakened")
+public class CuckooSetTest {
+	private final CuckooSet cuckooSet =
+			CuckooSet.withMemoryAndExpectedSize(128 * 8, 10);
+
+	@Test
+	public void cuckooSet_implementsJavaUtilSet() {
+		assertThat(cuckooSet, instanceOf(Set.class));
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedItems() {
+		cuckooSet.add("abc");
+
+		assertThat(cuckooSet.contains("abc"), equalTo(true));
+		assertThat(cuckooSet.contains("def"), equalTo(false));
+	}
+
+	@Test
+	public void contains_returnsFalse_forNull() {
+		assertThat(cuckooSet.contains(null), equalTo(false));
+	}
+
+	@Test
+	public void add_returnsFalse_ifTheItemHasAlreadyBeenAdded() {
+		assertThat(cuckooSet.add("abc"), equalTo(true));
+		assertThat(cuckooSet.add("abc"), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void add_rejectsNullItems() {
+		cuckooSet.add(null);
+	}
+
+	@Test
+	public void containsLowerCase_returnsTrue_forLowerCaseItems() {
+		cuckooSet.addLowerCase("AbC");
+
+		assertThat(cuckooSet.containsLowerCase("aBc"), equalTo(true));
+		assertThat(cuckooSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void remove_removesAddedItems() {
+		cuckooSet.add("abc");
+		cuckooSet.add("def");
+
+		assertThat(cuckooSet.remove("abc"), equalTo(true));
+
+		assertThat(cuckooSet.contains("abc"), equalTo(false));
+		assertThat(cuckooSet.contains("def"), equalTo(true));
+	}
+
+	@Test
+	public void remove_returnsFalse_ifTheItemIsNotFound() {
+		cuckooSet.add("abc");
+
+		assertThat(cuckooSet.remove("def"), equalTo(false));
+		assertThat(cuckooSet.remove(null), equalTo(false));
+	}
+
+	@Test
+	public void remove_mustBeCalledOnceForEachAdd() {
+		cuckooSet.add("abc");
+		cuckooSet.add("abc");
+
+		cuckooSet.remove("abc");
+		assertThat(cuckooSet.contains("abc"), equalTo(true));
+
+		cuckooSet.remove("abc");
+		assertThat(cuckooSet.contains("abc"), equalTo(false));
+		assertThat(cuckooSet.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void removeAll_removesAllGivenItems() {
+		cuckooSet.addAll(asList("abc", "def", "ghi"));
+
+		assertThat(cuckooSet.removeAll(asList("abc", "ghi")), equalTo(true));
+
+		assertThat(cuckooSet.contains("abc"), equalTo(false));
+		assertThat(cuckooSet.contains("def"), equalTo(true));
+	}
+
+	@Test
+	public void add_relocatesItems_whenBucketsAreFull() {
+		CuckooSet set = new CuckooSet(64, 16);
+		int count = (int) (64 * 4 * 0.9);
+		for (int i = 0; i < count; ++ i) {
+			set.add("value-" + i);
+		}
+
+		for (int i = 0; i < count; ++ i) {
+			assertThat(set.contains("value-" + i), equalTo(true));
+		}
+		assertThat(set.loadFactor(), equalTo(count / (64.0 * 4)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void add_throws_ifTheSetIsFull() {
+		CuckooSet set = new CuckooSet(4, 16);
+		for (int i = 0; i < 100; ++ i) {
+			set.add("value-" + i);
+		}
+	}
+
+	@Test
+	public void remove_allowsFurtherAdds_afterTheSetIsFull() {
+		CuckooSet set = new CuckooSet(4, 16);
+		int added = 0;
+		try {
+			for (; added < 100; ++ added) {
+				set.add("value-" + added);
+			}
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		set.remove("value-0");
+		set.add("another");
+
+		assertThat(set.contains("another"), equalTo(true));
+		for (int i = 1; i < added; ++ i) {
+			assertThat(set.contains("value-" + i), equalTo(true));
+		}
+	}
+
+	@Test
+	public void constructor_roundsBucketsUpToAPowerOfTwo() {
+		CuckooSet set = new CuckooSet(100, 8);
+
+		assertThat(set.buckets(), equalTo(128));
+		assertThat(set.memoryUsageBits(), equalTo(128L * 4 * 8));
+	}
+
+	@Test
+	public void withMemoryAndExpectedSize_prefersLargeFingerprints() {
+		CuckooSet roomy = CuckooSet.withMemoryAndExpectedSize(64 * 1024, 500);
+		CuckooSet tight = CuckooSet.withMemoryAndExpectedSize(64 * 1024, 6000);
+
+		assertThat(roomy.fingerprintBits(), equalTo(16));
+		assertThat(tight.fingerprintBits(), equalTo(8));
+		assertThat(tight.buckets() * 4, greaterThan(6000));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsUnsupportedFingerprintSizes() {
+		new CuckooSet(64, 12);
+	}
+
+	@Test
+	public void clear_removesAllItems() {
+		cuckooSet.add("abc");
+
+		cuckooSet.clear();
+
+		assertThat(cuckooSet.isEmpty(), equalTo(true));
+		assertThat(cuckooSet.contains("abc"), equalTo(false));
+	}
+
+	@Test
+	public void equals_returnsTrue_forSimilarSets() {
+		CuckooSet set1 = new CuckooSet(64, 16);
+		CuckooSet set2 = new CuckooSet(64, 16);
+		set1.add("abc");
+		set2.add("abc");
+
+		assertThat(set1.equals(set2), equalTo(true));
+		assertThat(set1.hashCode(), equalTo(set2.hashCode()));
+
+		set2.add("def");
+		assertThat(set1.equals(set2), equalTo(false));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	@SuppressWarnings("deprecation")
+	public void size_isNotSupported() {
+		cuckooSet.size();
+	}
+}
@@ -0,0 +1,98 @@
+package com.davidje13.collections;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class DirectBitStoreTest {
+	// 2 words per page
+	private final DirectBitStore store = new DirectBitStore(64 * 5, 1);
+
+	@After
+	public void release() {
+		store.close();
+	}
+
+	@Test
+	public void sizeBits_isRoundedUpToWholeWords() {
+		assertThat(store.sizeBits(), equalTo(320L));
+	}
+
+	@Test
+	public void newStores_areEmpty() {
+		assertThat(store.isEmpty(), equalTo(true));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void get_throws_afterClosing() {
+		store.close();
+		store.get(0);
+	}
+
+	@Test
+	public void set_storesBitsAcrossPages() {
+		store.set(0);
+		store.set(130);
+		store.set(319);
+
+		assertThat(store.get(0), equalTo(true));
+		assertThat(store.get(1), equalTo(false));
+		assertThat(store.get(130), equalTo(true));
+		assertThat(store.get(319), equalTo(true));
+		assertThat(store.cardinality(), equalTo(3L));
+	}
+
+	@Test
+	public void set_returnsTrue_onlyIfTheBitChanged() {
+		assertThat(store.set(200), equalTo(true));
+		assertThat(store.set(200), equalTo(false));
+	}
+
+	@Test
+	public void or_combinesStores() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 1);
+		store.set(5);
+		other.set(300);
+
+		assertThat(store.or(other), equalTo(true));
+		assertThat(store.or(other), equalTo(false));
+		assertThat(store.get(5), equalTo(true));
+		assertThat(store.get(300), equalTo(true));
+	}
+
+	@Test
+	public void and_intersectsStores() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 1);
+		store.set(5);
+		store.set(300);
+		other.set(300);
+
+		assertThat(store.and(other), equalTo(true));
+		assertThat(store.and(other), equalTo(false));
+		assertThat(store.get(5), equalTo(false));
+		assertThat(store.get(300), equalTo(true));
+	}
+
+	@Test
+	public void clear_resetsAllPages() {
+		store.set(5);
+		store.set(300);
+
+		store.clear();
+
+		assertThat(store.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void contentEquals_comparesAllWords() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 2);
+		store.set(300);
+
+		assertThat(store.contentEquals(other), equalTo(false));
+		other.set(300);
+		assertThat(store.contentEquals(other), equalTo(true));
+		assertThat(store.contentHashCode(), equalTo(other.contentHashCode()));
+	}
+}
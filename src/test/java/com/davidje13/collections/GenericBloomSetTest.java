@@ -0,0 +1,148 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import static com.davidje13.testutil.TestUtils.averageAllocatedBytes;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class GenericBloomSetTest {
+	private static final class Event {
+		final String tenant;
+		final long id;
+		final long timestamp;
+
+		Event(String tenant, long id, long timestamp) {
+			this.tenant = tenant;
+			this.id = id;
+			this.timestamp = timestamp;
+		}
+	}
+
+	private static final Funnel<Event> EVENT_FUNNEL = (event, sink) -> sink
+			.putString(event.tenant).putByte((byte) 0)
+			.putLong(event.id)
+			.putLong(event.timestamp);
+
+	private final GenericBloomSet<Event> bloomSet =
+			GenericBloomSet.withMemoryAndExpectedSize(1024 * 8, 100, EVENT_FUNNEL);
+
+	@Test
+	public void contains_returnsTrue_forAddedKeys() {
+		assertThat(bloomSet.add(new Event("a", 1, 100)), equalTo(true));
+		assertThat(bloomSet.add(new Event("a", 1, 100)), equalTo(false));
+
+		assertThat(bloomSet.contains(new Event("a", 1, 100)), equalTo(true));
+		assertThat(bloomSet.contains(new Event("a", 1, 101)), equalTo(false));
+		assertThat(bloomSet.contains(new Event("b", 1, 100)), equalTo(false));
+	}
+
+	@Test
+	public void contains_returnsFalse_forNull() {
+		assertThat(bloomSet.contains(null), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void add_rejectsNullKeys() {
+		bloomSet.add(null);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void constructor_rejectsNullFunnel() {
+		new GenericBloomSet<Event>(1024, 3, null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsSizesWhichRoundUpBeyondIntRange() {
+		new GenericBloomSet<>(Integer.MAX_VALUE - 10, 3, EVENT_FUNNEL);
+	}
+
+	@Test
+	public void stringFunnel_matchesBloomSet() {
+		GenericBloomSet<String> generic = new GenericBloomSet<>(
+				1024,
+				3,
+				(value, sink) -> sink.putString(value)
+		);
+		BloomSet strings = new BloomSet(1024, 3);
+		for (int i = 0; i < 50; ++ i) {
+			generic.add("value-" + i);
+			strings.add("value-" + i);
+		}
+
+		for (int i = 0; i < 50; ++ i) {
+			assertThat(generic.contains("value-" + i), equalTo(true));
+		}
+		assertThat(generic.bitCount(), equalTo(strings.bitCount()));
+		assertThat(generic.hashCode(), equalTo(strings.hashCode()));
+	}
+
+	@Test
+	public void addAll_acceptsSetsWithTheSameFunnel() {
+		GenericBloomSet<Event> other = new GenericBloomSet<>(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes(),
+				EVENT_FUNNEL
+		);
+		other.add(new Event("a", 1, 100));
+
+		assertThat(bloomSet.addAll(other), equalTo(true));
+		assertThat(bloomSet.contains(new Event("a", 1, 100)), equalTo(true));
+		assertThat(bloomSet.equals(other), equalTo(true));
+
+		bloomSet.add(new Event("b", 2, 200));
+		assertThat(bloomSet.retainAll(other), equalTo(true));
+		assertThat(bloomSet.contains(new Event("b", 2, 200)), equalTo(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAll_rejectsSetsWithADifferentFunnel() {
+		GenericBloomSet<Event> other = new GenericBloomSet<>(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes(),
+				(event, sink) -> sink.putLong(event.id)
+		);
+
+		bloomSet.addAll(other);
+	}
+
+	@Test
+	public void falsePositiveRatio_matchesExpectation() {
+		int itemCount = 10000;
+		GenericBloomSet<Event> set = GenericBloomSet.withMemoryAndExpectedSize(
+				12 * 1024 * 8,
+				itemCount,
+				EVENT_FUNNEL
+		);
+		for (int i = 0; i < itemCount; ++ i) {
+			set.add(new Event("tenant", i, 1000));
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < itemCount * 10; ++ i) {
+			if (set.contains(new Event("tenant", i, 1001))) {
+				++ falsePositives;
+			}
+		}
+		double errorRate = falsePositives / (itemCount * 10.0);
+
+		double predicted = set.expectedFalsePositiveRatio(itemCount);
+		assertThat(errorRate, greaterThan(predicted * 0.8));
+		assertThat(errorRate, lessThan(predicted * 1.2));
+	}
+
+	@Test
+	@SuppressWarnings("ResultOfMethodCallIgnored")
+	public void contains_doesNotAllocateMemory() {
+		Event event = new Event("tenant", 1, 100);
+		bloomSet.add(event);
+
+		double bytes = averageAllocatedBytes(1000, () ->
+				bloomSet.contains(event)
+		);
+
+		assertThat(bytes, lessThan(1.0));
+	}
+}
@@ -0,0 +1,173 @@
+package com.davidje13.collections;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+public class InstrumentedBloomSetTest {
+	private final BloomSet bloomSet =
+			BloomSet.withMemoryAndExpectedSize(1024, 100);
+	private final InstrumentedBloomSet instrumented =
+			new InstrumentedBloomSet(bloomSet, 100);
+
+	@After
+	public void unregister() throws JMException {
+		instrumented.unregisterMBean();
+	}
+
+	@Test
+	public void instrumentedBloomSet_implementsJavaUtilSet() {
+		assertThat(instrumented, instanceOf(Set.class));
+	}
+
+	@Test
+	public void add_addsToTheWrappedSet() {
+		instrumented.add("abc");
+		instrumented.addLowerCase("DEF");
+
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+	}
+
+	@Test
+	public void add_countsCallsAndChanges() {
+		instrumented.add("abc");
+		instrumented.add("abc");
+		instrumented.addAll(asList("def", "ghi"));
+
+		assertThat(instrumented.getAdds(), equalTo(4L));
+		assertThat(instrumented.getChangingAdds(), equalTo(3L));
+	}
+
+	@Test
+	public void contains_countsLookupsAndPositives() {
+		instrumented.add("abc");
+
+		assertThat(instrumented.contains("abc"), equalTo(true));
+		assertThat(instrumented.containsLowerCase("ABC"), equalTo(true));
+		assertThat(instrumented.contains("def"), equalTo(false));
+		assertThat(instrumented.contains("ghi"), equalTo(false));
+
+		assertThat(instrumented.getLookups(), equalTo(4L));
+		assertThat(instrumented.getPositives(), equalTo(2L));
+		assertThat(instrumented.getPositiveRatio(), equalTo(0.5));
+	}
+
+	@Test
+	public void setEnabled_stopsCounting() {
+		instrumented.setEnabled(false);
+
+		instrumented.add("abc");
+		assertThat(instrumented.contains("abc"), equalTo(true));
+
+		assertThat(instrumented.getAdds(), equalTo(0L));
+		assertThat(instrumented.getLookups(), equalTo(0L));
+	}
+
+	@Test
+	public void resetStatistics_setsAllCountersToZero() {
+		instrumented.add("abc");
+		instrumented.contains("abc");
+
+		instrumented.resetStatistics();
+
+		assertThat(instrumented.getAdds(), equalTo(0L));
+		assertThat(instrumented.getLookups(), equalTo(0L));
+		assertThat(instrumented.getPositiveRatio(), equalTo(0.0));
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void lookupLatency_isSampled() {
+		for (int i = 0; i < 10000; ++ i) {
+			instrumented.contains("value-" + i);
+		}
+
+		long samples = 0;
+		for (long count : instrumented.getLookupLatencyHistogram()) {
+			samples += count;
+		}
+		assertThat(samples, greaterThan(10000L / 64 / 2));
+		assertThat(samples, lessThan(10000L / 64 * 2));
+		assertThat(
+				instrumented.getLookupLatencyP99Nanos(),
+				greaterThan(instrumented.getLookupLatencyP50Nanos() - 1)
+		);
+	}
+
+	@Test
+	public void currentFalsePositiveRatio_approachesTheDesignRatio() {
+		assertThat(instrumented.getCurrentFalsePositiveRatio(), equalTo(0.0));
+
+		for (int i = 0; i < 100; ++ i) {
+			instrumented.add("value-" + i);
+		}
+
+		double design = instrumented.getDesignFalsePositiveRatio();
+		assertThat(
+				instrumented.getCurrentFalsePositiveRatio(),
+				closeTo(design, design * 0.5)
+		);
+		assertThat(instrumented.getEstimatedSize(), greaterThan(80L));
+		assertThat(instrumented.getEstimatedSize(), lessThan(120L));
+	}
+
+	@Test
+	public void fillStatistics_followChangesMadeThroughTheWrapper() {
+		for (int i = 0; i < 50; ++ i) {
+			instrumented.add("value-" + i);
+		}
+
+		assertThat(instrumented.getFillRatio(), equalTo(bloomSet.fillRatio()));
+		assertThat(
+				instrumented.getEstimatedSize(),
+				equalTo(bloomSet.estimatedSize())
+		);
+
+		instrumented.clear();
+		assertThat(instrumented.getFillRatio(), equalTo(0.0));
+		assertThat(instrumented.getEstimatedSize(), equalTo(0L));
+	}
+
+	@Test
+	public void registerMBean_publishesStatisticsThroughJmx()
+			throws JMException {
+		instrumented.add("abc");
+		instrumented.contains("abc");
+
+		ObjectName name = instrumented.registerMBean("test-set");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		assertThat(server.getAttribute(name, "Adds"), equalTo(1L));
+		assertThat(server.getAttribute(name, "Lookups"), equalTo(1L));
+		assertThat(server.getAttribute(name, "PositiveRatio"), equalTo(1.0));
+
+		instrumented.unregisterMBean();
+		assertThat(server.isRegistered(name), equalTo(false));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void registerMBean_rejectsMultipleRegistrations()
+			throws JMException {
+		instrumented.registerMBean("test-set-1");
+		instrumented.registerMBean("test-set-2");
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void constructor_rejectsNullSets() {
+		new InstrumentedBloomSet(null, 10);
+	}
+}
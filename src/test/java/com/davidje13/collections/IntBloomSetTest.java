@@ -0,0 +1,59 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class IntBloomSetTest {
+	private final IntBloomSet bloomSet =
+			IntBloomSet.withMemoryAndExpectedSize(128 * 8, 10);
+
+	@Test
+	public void contains_returnsTrue_forAddedKeys() {
+		assertThat(bloomSet.add(123), equalTo(true));
+		assertThat(bloomSet.add(123), equalTo(false));
+		bloomSet.add(Integer.MIN_VALUE);
+
+		assertThat(bloomSet.contains(123), equalTo(true));
+		assertThat(bloomSet.contains(Integer.MIN_VALUE), equalTo(true));
+		assertThat(bloomSet.contains(124), equalTo(false));
+	}
+
+	@Test
+	public void addAll_addsAllGivenKeys() {
+		assertThat(bloomSet.addAll(new int[]{1, 2}), equalTo(true));
+
+		assertThat(bloomSet.contains(1), equalTo(true));
+		assertThat(bloomSet.contains(2), equalTo(true));
+	}
+
+	@Test
+	public void addAll_acceptsSimilarSets() {
+		IntBloomSet other = new IntBloomSet(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes()
+		);
+		other.add(2);
+
+		assertThat(bloomSet.addAll(other), equalTo(true));
+		assertThat(bloomSet.contains(2), equalTo(true));
+		assertThat(bloomSet.equals(other), equalTo(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAll_rejectsDifferentSets() {
+		bloomSet.addAll(new IntBloomSet(64, 1));
+	}
+
+	@Test
+	public void keys_matchTheEquivalentLongKeys() {
+		LongBloomSet longSet = new LongBloomSet(1024, 3);
+		IntBloomSet intSet = new IntBloomSet(1024, 3);
+		longSet.add(-5L);
+		intSet.add(-5);
+
+		assertThat(intSet.bitCount(), equalTo(longSet.bitCount()));
+		assertThat(intSet.hashCode(), equalTo(longSet.hashCode()));
+	}
+}
@@ -0,0 +1,189 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+@SuppressWarnings("TypeMayBeWeakened")
+public class LargeBloomSetTest {
+	private final LargeBloomSet bloomSet =
+			LargeBloomSet.withMemoryAndExpectedSize(32 * 8, 10);
+
+	@Test
+	public void largeBloomSet_implementsJavaUtilSet() {
+		assertThat(bloomSet, instanceOf(Set.class));
+	}
+
+	@Test
+	public void add_returnsTrue_ifTheCollectionChanges() {
+		assertThat(bloomSet.add("abc"), equalTo(true));
+	}
+
+	@Test
+	public void add_returnsFalse_ifTheItemHasAlreadyBeenAdded() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.add("abc"), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void add_rejectsNullItems() {
+		bloomSet.add(null);
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedItems() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void contains_probablyReturnsFalse_ifItemIsNotFound() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.contains("def"), equalTo(false));
+	}
+
+	@Test
+	public void containsLowerCase_returnsTrue_forLowerCaseItems() {
+		bloomSet.addLowerCase("AbC");
+		assertThat(bloomSet.containsLowerCase("ABC"), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void contains_matchesBloomSet_forSmallSizes() {
+		BloomSet reference = new BloomSet(1024, 3);
+		LargeBloomSet large = new LargeBloomSet(1024, 3);
+		reference.add("abc");
+		large.add("abc");
+
+		for (int i = 0; i < 100; ++ i) {
+			String value = "value-" + i;
+			assertThat(
+					large.contains(value),
+					equalTo(reference.contains(value))
+			);
+		}
+	}
+
+	@Test
+	public void addAll_acceptsSimilarSets() {
+		bloomSet.add("abc");
+
+		LargeBloomSet bloomSet2 = new LargeBloomSet(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes()
+		);
+		bloomSet2.add("def");
+
+		assertThat(bloomSet.addAll(bloomSet2), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+		assertThat(bloomSet.addAll(bloomSet2), equalTo(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAll_rejectsDifferentSets() {
+		bloomSet.addAll(new LargeBloomSet(1024, 2));
+	}
+
+	@Test
+	public void retainAll_keepsOnlySpecifiedItems() {
+		bloomSet.add("abc");
+		bloomSet.add("def");
+
+		assertThat(bloomSet.retainAll(asList("def", "ghi")), equalTo(true));
+
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+		assertThat(bloomSet.contains("ghi"), equalTo(false));
+	}
+
+	@Test
+	public void clear_removesAllItems() {
+		bloomSet.add("abc");
+
+		bloomSet.clear();
+
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+	}
+
+	@Test
+	public void equals_returnsTrue_forSimilarSets() {
+		LargeBloomSet bloomSet1 = new LargeBloomSet(128, 2);
+		LargeBloomSet bloomSet2 = new LargeBloomSet(128, 2);
+		bloomSet1.add("abc");
+		bloomSet1.add("def");
+		bloomSet2.add("def");
+		bloomSet2.add("abc");
+
+		assertThat(bloomSet1.equals(bloomSet2), equalTo(true));
+		assertThat(bloomSet1.hashCode(), equalTo(bloomSet2.hashCode()));
+	}
+
+	@Test
+	public void memoryUsageBits_canExceedIntegerRange() {
+		long bits = 1L << 34;
+		long items = 1L << 30;
+
+		double ratio = BloomSet.expectedFalsePositiveRatio(items, bits, 11);
+		int hashes = BloomSet.idealHashCount(items, bits);
+
+		assertThat(hashes, equalTo(11));
+		assertThat(ratio, closeTo(0.000458, 0.00001));
+	}
+
+	@Test
+	public void estimatedSize_matchesBloomSet() {
+		LargeBloomSet large = new LargeBloomSet(8192, 4);
+		BloomSet small = new BloomSet(8192, 4);
+		for (int i = 0; i < 100; ++ i) {
+			large.add("value-" + i);
+			small.add("value-" + i);
+		}
+
+		assertThat(large.estimatedSize(), equalTo(small.estimatedSize()));
+		assertThat(
+				large.estimatedUnionSize(large),
+				equalTo(small.estimatedSize())
+		);
+	}
+
+	@Test
+	public void estimatedIntersectionSize_returnsTheOtherSize_ifOneSetIsSaturated() {
+		LargeBloomSet saturated = new LargeBloomSet(64, 1);
+		for (int i = 0; saturated.bitCount() < 64; ++ i) {
+			saturated.add("value-" + i);
+		}
+		LargeBloomSet set = new LargeBloomSet(64, 1);
+		set.add("abc");
+
+		assertThat(saturated.estimatedIntersectionSize(set), equalTo(1L));
+		assertThat(set.estimatedIntersectionSize(saturated), equalTo(1L));
+		assertThat(
+				saturated.estimatedIntersectionSize(saturated),
+				equalTo(Long.MAX_VALUE)
+		);
+	}
+
+	@Test
+	public void expectedFalsePositiveRatio_longOverloadMatchesIntVersion() {
+		double ratioInt = BloomSet.expectedFalsePositiveRatio(1000, 10000, 7);
+		double ratioLong = BloomSet.expectedFalsePositiveRatio(
+				1000L,
+				10000L,
+				7
+		);
+
+		assertThat(ratioLong, greaterThan(ratioInt * 0.999999));
+		assertThat(ratioLong, lessThan(ratioInt * 1.000001));
+	}
+}
@@ -0,0 +1,53 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class LatencyHistogramTest {
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	@Test
+	public void record_countsDurationsInPowerOfTwoBuckets() {
+		histogram.record(0);
+		histogram.record(1);
+		histogram.record(2);
+		histogram.record(3);
+		histogram.record(1000);
+
+		long[] counts = histogram.snapshot();
+		assertThat(counts[0], equalTo(1L));
+		assertThat(counts[1], equalTo(1L));
+		assertThat(counts[2], equalTo(2L));
+		assertThat(counts[10], equalTo(1L));
+	}
+
+	@Test
+	public void percentileNanos_returnsTheUpperBoundOfTheBucket() {
+		for (int i = 0; i < 90; ++ i) {
+			histogram.record(100);
+		}
+		for (int i = 0; i < 10; ++ i) {
+			histogram.record(5000);
+		}
+
+		assertThat(histogram.percentileNanos(50), equalTo(127L));
+		assertThat(histogram.percentileNanos(90), equalTo(127L));
+		assertThat(histogram.percentileNanos(99), equalTo(8191L));
+	}
+
+	@Test
+	public void percentileNanos_returnsZero_ifEmpty() {
+		assertThat(histogram.percentileNanos(50), equalTo(0L));
+	}
+
+	@Test
+	public void reset_removesAllRecords() {
+		histogram.record(100);
+
+		histogram.reset();
+
+		assertThat(histogram.percentileNanos(100), equalTo(0L));
+	}
+}
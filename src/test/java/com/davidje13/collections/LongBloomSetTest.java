@@ -0,0 +1,161 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import static com.davidje13.testutil.TestUtils.averageAllocatedBytes;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class LongBloomSetTest {
+	private final LongBloomSet bloomSet =
+			LongBloomSet.withMemoryAndExpectedSize(128 * 8, 10);
+
+	@Test
+	public void add_returnsTrue_ifTheSetChanges() {
+		assertThat(bloomSet.add(123L), equalTo(true));
+	}
+
+	@Test
+	public void add_returnsFalse_ifTheKeyHasAlreadyBeenAdded() {
+		bloomSet.add(123L);
+		assertThat(bloomSet.add(123L), equalTo(false));
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedKeys() {
+		bloomSet.add(0L);
+		bloomSet.add(-1L);
+		bloomSet.add(Long.MAX_VALUE);
+
+		assertThat(bloomSet.contains(0L), equalTo(true));
+		assertThat(bloomSet.contains(-1L), equalTo(true));
+		assertThat(bloomSet.contains(Long.MAX_VALUE), equalTo(true));
+		assertThat(bloomSet.contains(1L), equalTo(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsSizesWhichRoundUpBeyondIntRange() {
+		new LongBloomSet(Integer.MAX_VALUE - 10, 3);
+	}
+
+	@Test
+	public void add_supportsTheLargestSize() {
+		LongBloomSet large = new LongBloomSet(Integer.MAX_VALUE - 63, 3);
+
+		assertThat(large.memoryUsageBits(), equalTo(Integer.MAX_VALUE - 63));
+		for (long key = 0; key < 1000; ++ key) {
+			large.add(key);
+		}
+		for (long key = 0; key < 1000; ++ key) {
+			assertThat(large.contains(key), equalTo(true));
+		}
+	}
+
+	@Test
+	public void addAll_addsAllGivenKeys() {
+		assertThat(bloomSet.addAll(new long[]{1L, 2L}), equalTo(true));
+		assertThat(bloomSet.addAll(new long[]{1L, 2L}), equalTo(false));
+
+		assertThat(bloomSet.contains(1L), equalTo(true));
+		assertThat(bloomSet.contains(2L), equalTo(true));
+	}
+
+	@Test
+	public void addAll_acceptsSimilarSets() {
+		LongBloomSet other = new LongBloomSet(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes()
+		);
+		bloomSet.add(1L);
+		other.add(2L);
+
+		assertThat(bloomSet.addAll(other), equalTo(true));
+
+		assertThat(bloomSet.contains(1L), equalTo(true));
+		assertThat(bloomSet.contains(2L), equalTo(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAll_rejectsDifferentSets() {
+		bloomSet.addAll(new LongBloomSet(64, 1));
+	}
+
+	@Test
+	public void retainAll_keepsOnlyKeysInTheOtherSet() {
+		LongBloomSet other = new LongBloomSet(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes()
+		);
+		bloomSet.add(1L);
+		bloomSet.add(2L);
+		other.add(2L);
+
+		assertThat(bloomSet.retainAll(other), equalTo(true));
+
+		assertThat(bloomSet.contains(1L), equalTo(false));
+		assertThat(bloomSet.contains(2L), equalTo(true));
+	}
+
+	@Test
+	public void clear_removesAllKeys() {
+		bloomSet.add(1L);
+
+		bloomSet.clear();
+
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+		assertThat(bloomSet.contains(1L), equalTo(false));
+	}
+
+	@Test
+	public void equals_returnsTrue_forSimilarSets() {
+		LongBloomSet set1 = new LongBloomSet(1024, 3);
+		LongBloomSet set2 = new LongBloomSet(1024, 3);
+		set1.add(1L);
+		set2.add(1L);
+
+		assertThat(set1.equals(set2), equalTo(true));
+		assertThat(set1.hashCode(), equalTo(set2.hashCode()));
+
+		set2.add(2L);
+		assertThat(set1.equals(set2), equalTo(false));
+	}
+
+	@Test
+	public void falsePositiveRatio_matchesExpectation_forSequentialKeys() {
+		int itemCount = 100000;
+		LongBloomSet set = LongBloomSet.withMemoryAndExpectedSize(
+				96 * 1024 * 8,
+				itemCount
+		);
+		for (long i = 0; i < itemCount; ++ i) {
+			set.add(i);
+		}
+
+		int falsePositives = 0;
+		for (long i = itemCount; i < itemCount * 3L; ++ i) {
+			if (set.contains(i)) {
+				++ falsePositives;
+			}
+		}
+		double errorRate = falsePositives / (itemCount * 2.0);
+
+		double predicted = set.expectedFalsePositiveRatio(itemCount);
+		assertThat(errorRate, greaterThan(predicted * 0.8));
+		assertThat(errorRate, lessThan(predicted * 1.2));
+		assertThat(set.estimatedSize(), greaterThan(itemCount * 98L / 100));
+		assertThat(set.estimatedSize(), lessThan(itemCount * 102L / 100));
+	}
+
+	@Test
+	@SuppressWarnings("ResultOfMethodCallIgnored")
+	public void addAndContains_doNotAllocateMemory() {
+		double bytes = averageAllocatedBytes(1000, () -> {
+			bloomSet.add(1234L);
+			bloomSet.contains(5678L);
+		});
+
+		assertThat(bytes, lessThan(1.0));
+	}
+}
@@ -0,0 +1,27 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class Md5HashStrategyTest {
+	private final long[] target = new long[2];
+
+	@Test
+	public void hash_returnsTheMd5Digest() {
+		new Md5HashStrategy().hash("", target);
+
+		assertThat(target[0], equalTo(0xd41d8cd98f00b204L));
+		assertThat(target[1], equalTo(0xe9800998ecf8427eL));
+	}
+
+	@Test
+	public void hash_usesUtf8Encoding() {
+		new Md5HashStrategy().hash("\u00e9", target);
+
+		// md5(0xC3 0xA9)
+		assertThat(target[0], equalTo(0x66ddcd97cfdeabb2L));
+		assertThat(target[1], equalTo(0xf6fb8a999b4bc76fL));
+	}
+}
@@ -0,0 +1,123 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class Murmur3HashStrategyTest {
+	private final long[] target = new long[2];
+
+	@Test
+	public void hash_returnsZero_forEmptyInputWithZeroSeed() {
+		new Murmur3HashStrategy().hash("", target);
+
+		assertThat(target[0], equalTo(0L));
+		assertThat(target[1], equalTo(0L));
+	}
+
+	@Test
+	public void hash_matchesReferenceImplementation() {
+		new Murmur3HashStrategy().hash(
+				"The quick brown fox jumps over the lazy dog",
+				target
+		);
+
+		assertThat(target[0], equalTo(0xe34bbc7bbc071b6cL));
+		assertThat(target[1], equalTo(0x7a433ca9c49a9347L));
+	}
+
+	@Test
+	public void hash_matchesReferenceImplementation_forShortInput() {
+		new Murmur3HashStrategy().hash("hell", target);
+
+		assertThat(target[0], equalTo(0x629942693e10f867L));
+		assertThat(target[1], equalTo(0x92db0b82baeb5347L));
+	}
+
+	@Test
+	public void hash_usesUtf8Encoding() {
+		new Murmur3HashStrategy().hash(
+				"h\u00e9llo w\u00f6rld \u20ac \ud801\udc00 " +
+				"and \ud800 unpaired!",
+				target
+		);
+
+		assertThat(target[0], equalTo(0xd7882abfca385a3fL));
+		assertThat(target[1], equalTo(0x8a7b09b46de3762dL));
+	}
+
+	@Test
+	public void hash_handlesMultiByteCharactersAcrossBlocks() {
+		new Murmur3HashStrategy().hash(
+				"\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9x",
+				target
+		);
+
+		assertThat(target[0], equalTo(0x511c7177d63c7358L));
+		assertThat(target[1], equalTo(0x16e2415e4dec603bL));
+	}
+
+	@Test
+	public void hash_acceptsAnyCharSequence() {
+		long[] target2 = new long[2];
+		new Murmur3HashStrategy().hash("abc", target);
+		new Murmur3HashStrategy().hash(new StringBuilder("abc"), target2);
+
+		assertThat(target2[0], equalTo(target[0]));
+		assertThat(target2[1], equalTo(target[1]));
+	}
+
+	@Test
+	public void hashLowerCase_matchesHashOfLowerCaseValue() {
+		long[] target2 = new long[2];
+		new Murmur3HashStrategy().hash("abc \u00e9 \ud801\udc28!", target);
+		new Murmur3HashStrategy().hashLowerCase(
+				"AbC \u00c9 \ud801\udc00!",
+				target2
+		);
+
+		assertThat(target2[0], equalTo(target[0]));
+		assertThat(target2[1], equalTo(target[1]));
+	}
+
+	@Test
+	public void hashLowerCase_matchesDefaultImplementation() {
+		HashStrategy murmur3 = new Murmur3HashStrategy();
+		HashStrategy fallback = murmur3::hash;
+		long[] target2 = new long[2];
+		String value = "The QUICK brown \u00c9\u00c9 \ud801\udc00 fox";
+		murmur3.hashLowerCase(value, target);
+		fallback.hashLowerCase(value, target2);
+
+		assertThat(target2[0], equalTo(target[0]));
+		assertThat(target2[1], equalTo(target[1]));
+	}
+
+	@Test
+	public void hash_usesTheSeed() {
+		long[] target2 = new long[2];
+		new Murmur3HashStrategy(0).hash("abc", target);
+		new Murmur3HashStrategy(1).hash("abc", target2);
+
+		assertThat(target[0], not(equalTo(target2[0])));
+		assertThat(target[1], not(equalTo(target2[1])));
+	}
+
+	@Test
+	public void equals_returnsTrue_forMatchingSeeds() {
+		assertThat(
+				new Murmur3HashStrategy(7).equals(new Murmur3HashStrategy(7)),
+				equalTo(true)
+		);
+	}
+
+	@Test
+	public void equals_returnsFalse_forDifferentSeeds() {
+		assertThat(
+				new Murmur3HashStrategy(7).equals(new Murmur3HashStrategy(8)),
+				equalTo(false)
+		);
+	}
+}
@@ -0,0 +1,135 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class Murmur3HasherTest {
+	private final Murmur3Hasher hasher = new Murmur3Hasher(0);
+
+	@Test
+	public void putString_matchesMurmur3HashStrategy() {
+		Murmur3HashStrategy strategy = new Murmur3HashStrategy(0);
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 40; ++ i) {
+			long[] expected = new long[2];
+			strategy.hash(value, expected);
+
+			assertThat(hash(value), equalTo(expected));
+			value.append((char) ('a' + i));
+		}
+	}
+
+	@Test
+	public void putString_encodesUtf8() {
+		String value = "caf\u00E9 \u2603 \uD83D\uDE00 \uD800!";
+		long[] expected = new long[2];
+		new Murmur3HashStrategy(0).hash(value, expected);
+
+		assertThat(hash(value), equalTo(expected));
+	}
+
+	@Test
+	public void seed_matchesMurmur3HashStrategy() {
+		Murmur3Hasher seeded = new Murmur3Hasher(123);
+		long[] expected = new long[2];
+		new Murmur3HashStrategy(123).hash("abcdefghijklmnopq", expected);
+
+		seeded.putString("abcdefghijklmnopq");
+		long[] actual = new long[2];
+		seeded.finish(actual);
+
+		assertThat(actual, equalTo(expected));
+	}
+
+	@Test
+	public void putLong_isEquivalentToItsBytes() {
+		long[] asLong = new long[2];
+		long[] asInts = new long[2];
+		long[] asBytes = new long[2];
+
+		hasher.putByte((byte) 7).putLong(0x0123456789ABCDEFL);
+		hasher.finish(asLong);
+
+		hasher.reset();
+		hasher.putByte((byte) 7).putInt(0x89ABCDEF).putInt(0x01234567);
+		hasher.finish(asInts);
+
+		hasher.reset();
+		hasher.putByte((byte) 7);
+		for (int i = 0; i < 8; ++ i) {
+			hasher.putByte((byte) (0x0123456789ABCDEFL >>> (i * 8)));
+		}
+		hasher.finish(asBytes);
+
+		assertThat(asInts, equalTo(asLong));
+		assertThat(asBytes, equalTo(asLong));
+	}
+
+	@Test
+	public void putString_isEquivalentToItsBytes_afterOtherFields() {
+		String value = "ab\u00E9\u2603cdefgh\uD83D\uDE00ijklmnopq";
+		long[] asString = new long[2];
+		long[] asBytes = new long[2];
+
+		for (int offset = 0; offset < 8; ++ offset) {
+			hasher.reset();
+			for (int i = 0; i < offset; ++ i) {
+				hasher.putByte((byte) i);
+			}
+			hasher.putString(value);
+			hasher.finish(asString);
+
+			hasher.reset();
+			for (int i = 0; i < offset; ++ i) {
+				hasher.putByte((byte) i);
+			}
+			for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+				hasher.putByte(b);
+			}
+			hasher.finish(asBytes);
+
+			assertThat(asString, equalTo(asBytes));
+		}
+	}
+
+	@Test
+	public void reset_discardsPreviousData() {
+		hasher.putString("abc");
+		long[] first = new long[2];
+		hasher.finish(first);
+
+		hasher.reset();
+		hasher.putString("abc");
+		long[] second = new long[2];
+		hasher.finish(second);
+
+		assertThat(second, equalTo(first));
+	}
+
+	@Test
+	public void putBoolean_changesTheHash() {
+		long[] yes = new long[2];
+		long[] no = new long[2];
+
+		hasher.putBoolean(true);
+		hasher.finish(yes);
+		hasher.reset();
+		hasher.putBoolean(false);
+		hasher.finish(no);
+
+		assertThat(yes, not(equalTo(no)));
+	}
+
+	private long[] hash(CharSequence value) {
+		hasher.reset();
+		hasher.putString(value);
+		long[] target = new long[2];
+		hasher.finish(target);
+		return target;
+	}
+}
@@ -0,0 +1,124 @@
+package com.davidje13.collections;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SuppressWarnings("TypeMayBeWeakened")
+public class OffHeapBloomSetTest {
+	private final OffHeapBloomSet bloomSet =
+			OffHeapBloomSet.withMemoryAndExpectedSize(32 * 8, 10);
+
+	@After
+	public void release() {
+		bloomSet.close();
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedItems() {
+		bloomSet.add("abc");
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(false));
+	}
+
+	@Test
+	public void add_returnsFalse_ifTheItemHasAlreadyBeenAdded() {
+		assertThat(bloomSet.add("abc"), equalTo(true));
+		assertThat(bloomSet.add("abc"), equalTo(false));
+	}
+
+	@Test
+	public void equals_returnsTrue_forSimilarOnHeapSets() {
+		BloomSet onHeap = new BloomSet(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes()
+		);
+		onHeap.add("abc");
+		bloomSet.add("abc");
+
+		assertThat(bloomSet.equals(onHeap), equalTo(true));
+		assertThat(onHeap.equals(bloomSet), equalTo(true));
+		assertThat(bloomSet.hashCode(), equalTo(onHeap.hashCode()));
+	}
+
+	@Test
+	public void addAll_acceptsOnHeapSets() {
+		BloomSet onHeap = new BloomSet(
+				bloomSet.memoryUsageBits(),
+				bloomSet.hashes()
+		);
+		onHeap.add("def");
+		bloomSet.add("abc");
+
+		assertThat(bloomSet.addAll(onHeap), equalTo(true));
+		assertThat(onHeap.addAll(bloomSet), equalTo(true));
+
+		assertThat(onHeap.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+	}
+
+	@Test
+	public void retainAll_keepsOnlySpecifiedItems() {
+		bloomSet.add("abc");
+		bloomSet.add("def");
+
+		assertThat(bloomSet.retainAll(asList("def", "ghi")), equalTo(true));
+
+		assertThat(bloomSet.contains("abc"), equalTo(false));
+		assertThat(bloomSet.contains("def"), equalTo(true));
+	}
+
+	@Test
+	public void clear_removesAllItems() {
+		bloomSet.add("abc");
+
+		bloomSet.clear();
+
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void close_canBeCalledMultipleTimes() {
+		bloomSet.close();
+		bloomSet.close();
+
+		assertThat(bloomSet.isClosed(), equalTo(true));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void contains_throws_afterClosing() {
+		bloomSet.close();
+		bloomSet.contains("abc");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsSizesWhichRoundUpBeyondIntRange() {
+		new OffHeapBloomSet(Integer.MAX_VALUE - 10, 3);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void largeVariant_rejectsNullHashStrategy() {
+		new OffHeapLargeBloomSet(64, 3, null);
+	}
+
+	@Test
+	public void largeVariant_behavesLikeLargeBloomSet() {
+		try (
+				OffHeapLargeBloomSet offHeap =
+						OffHeapLargeBloomSet.withMemoryAndExpectedSize(1024, 10)
+		) {
+			LargeBloomSet onHeap = new LargeBloomSet(
+					offHeap.memoryUsageBits(),
+					offHeap.hashes()
+			);
+			offHeap.add("abc");
+			onHeap.add("abc");
+
+			assertThat(offHeap.contains("abc"), equalTo(true));
+			assertThat(offHeap.equals(onHeap), equalTo(true));
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class PagedBitStoreTest {
+	// 2 words per page
+	private final PagedBitStore store = new PagedBitStore(64 * 5, 1);
+
+	@Test
+	public void sizeBits_isRoundedUpToWholeWords() {
+		assertThat(new PagedBitStore(1).sizeBits(), equalTo(64L));
+		assertThat(new PagedBitStore(65).sizeBits(), equalTo(128L));
+		assertThat(store.sizeBits(), equalTo(320L));
+	}
+
+	@Test
+	public void set_storesBitsAcrossPages() {
+		store.set(0);
+		store.set(130);
+		store.set(319);
+
+		assertThat(store.get(0), equalTo(true));
+		assertThat(store.get(1), equalTo(false));
+		assertThat(store.get(130), equalTo(true));
+		assertThat(store.get(319), equalTo(true));
+		assertThat(store.cardinality(), equalTo(3L));
+	}
+
+	@Test
+	public void set_returnsTrue_onlyIfTheBitChanged() {
+		assertThat(store.set(200), equalTo(true));
+		assertThat(store.set(200), equalTo(false));
+	}
+
+	@Test
+	public void or_combinesStores() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 1);
+		store.set(5);
+		other.set(300);
+
+		assertThat(store.or(other), equalTo(true));
+		assertThat(store.or(other), equalTo(false));
+		assertThat(store.get(5), equalTo(true));
+		assertThat(store.get(300), equalTo(true));
+	}
+
+	@Test
+	public void cardinality_tracksChangesFromBulkOperations() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 1);
+		store.set(5);
+		store.set(300);
+		other.set(6);
+		other.set(300);
+
+		store.or(other);
+		assertThat(store.cardinality(), equalTo(3L));
+
+		other.setWord(0, 1L << 5);
+		store.and(other);
+		assertThat(store.cardinality(), equalTo(2L));
+
+		store.setWord(1, -1L);
+		assertThat(store.cardinality(), equalTo(66L));
+
+		store.clear();
+		assertThat(store.cardinality(), equalTo(0L));
+		assertThat(store.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void cardinality_matchesACountOfAllWords_afterAnyOperations() {
+		Random random = new Random(1);
+		PagedBitStore other = new PagedBitStore(64 * 5, 1);
+
+		for (int i = 0; i < 2000; ++ i) {
+			switch (random.nextInt(6)) {
+				case 0:
+					store.set(random.nextInt(320));
+					break;
+				case 1:
+					store.setWord(random.nextInt(5), random.nextLong());
+					break;
+				case 2:
+					other.set(random.nextInt(320));
+					store.or(other);
+					break;
+				case 3:
+					other.setWord(random.nextInt(5), random.nextLong());
+					store.and(other);
+					break;
+				case 4:
+					store.clear();
+					break;
+				default:
+					other.clear();
+					break;
+			}
+			assertThat(store.cardinality(), equalTo(countBits(store)));
+			assertThat(other.cardinality(), equalTo(countBits(other)));
+			assertThat(store.isEmpty(), equalTo(countBits(store) == 0));
+		}
+	}
+
+	@Test
+	public void and_intersectsStores() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 1);
+		store.set(5);
+		store.set(300);
+		other.set(300);
+
+		assertThat(store.and(other), equalTo(true));
+		assertThat(store.and(other), equalTo(false));
+		assertThat(store.get(5), equalTo(false));
+		assertThat(store.get(300), equalTo(true));
+	}
+
+	@Test
+	public void clear_resetsAllPages() {
+		store.set(5);
+		store.set(300);
+
+		store.clear();
+
+		assertThat(store.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void contentEquals_comparesAllWords() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 2);
+		store.set(300);
+
+		assertThat(store.contentEquals(other), equalTo(false));
+		other.set(300);
+		assertThat(store.contentEquals(other), equalTo(true));
+		assertThat(store.contentHashCode(), equalTo(other.contentHashCode()));
+	}
+
+	@Test
+	public void contentEquals_comparesStoresWithTheSameLayout() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 1);
+		store.set(300);
+
+		assertThat(store.contentEquals(other), equalTo(false));
+		other.set(300);
+		assertThat(store.contentEquals(other), equalTo(true));
+	}
+
+	@Test
+	public void or_combinesStoresWithDifferentLayouts() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 2);
+		store.set(5);
+		other.set(5);
+		other.set(300);
+
+		assertThat(store.or(other), equalTo(true));
+		assertThat(store.or(other), equalTo(false));
+		assertThat(store.contentEquals(other), equalTo(true));
+		assertThat(store.cardinality(), equalTo(2L));
+	}
+
+	@Test
+	public void and_intersectsStoresWithDifferentLayouts() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 2);
+		store.set(5);
+		store.set(300);
+		other.set(300);
+
+		assertThat(store.and(other), equalTo(true));
+		assertThat(store.and(other), equalTo(false));
+		assertThat(store.contentEquals(other), equalTo(true));
+		assertThat(store.cardinality(), equalTo(1L));
+	}
+
+	@Test
+	public void unionCardinality_countsBitsInEitherStore() {
+		PagedBitStore other = new PagedBitStore(64 * 5, 1);
+		store.set(5);
+		store.set(300);
+		other.set(5);
+		other.set(130);
+
+		assertThat(store.unionCardinality(other), equalTo(3L));
+		assertThat(store.cardinality(), equalTo(2L));
+	}
+
+	@Test
+	public void pageWiseOperations_matchTheWordByWordFallback() {
+		Random random = new Random(2);
+		for (int i = 0; i < 200; ++ i) {
+			long[] words1 = randomWords(random);
+			long[] words2 = (random.nextInt(4) == 0)
+					? words1.clone()
+					: randomWords(random);
+
+			// same layout (page-wise) and different layouts (word-by-word)
+			PagedBitStore paged = store(words1, 1);
+			PagedBitStore pagedOther = store(words2, 1);
+			PagedBitStore fallback = store(words1, 1);
+			PagedBitStore fallbackOther = store(words2, 2);
+
+			assertThat(
+					paged.contentEquals(pagedOther),
+					equalTo(fallback.contentEquals(fallbackOther))
+			);
+			assertThat(
+					paged.unionCardinality(pagedOther),
+					equalTo(fallback.unionCardinality(fallbackOther))
+			);
+			if (random.nextBoolean()) {
+				assertThat(
+						paged.or(pagedOther),
+						equalTo(fallback.or(fallbackOther))
+				);
+			} else {
+				assertThat(
+						paged.and(pagedOther),
+						equalTo(fallback.and(fallbackOther))
+				);
+			}
+			assertThat(paged.contentEquals(fallback), equalTo(true));
+			assertThat(paged.cardinality(), equalTo(fallback.cardinality()));
+			assertThat(paged.cardinality(), equalTo(countBits(paged)));
+		}
+	}
+
+	private static long[] randomWords(Random random) {
+		long[] words = new long[5];
+		for (int i = 0; i < words.length; ++ i) {
+			// include empty and full words
+			switch (random.nextInt(4)) {
+				case 0:
+					break;
+				case 1:
+					words[i] = -1L;
+					break;
+				case 2:
+					words[i] = random.nextLong() & 0xFF;
+					break;
+				default:
+					words[i] = random.nextLong();
+					break;
+			}
+		}
+		return words;
+	}
+
+	private static PagedBitStore store(long[] words, int pageShift) {
+		PagedBitStore result = new PagedBitStore(64 * 5, pageShift);
+		for (int i = 0; i < words.length; ++ i) {
+			result.setWord(i, words[i]);
+		}
+		return result;
+	}
+
+	private static long countBits(BitStore store) {
+		long count = 0;
+		for (long i = 0; i < store.wordCount(); ++ i) {
+			count += Long.bitCount(store.getWord(i));
+		}
+		return count;
+	}
+}
@@ -0,0 +1,143 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+@SuppressWarnings("TypeMayBeWeakened")
+public class ScalableBloomSetTest {
+	private final ScalableBloomSet bloomSet = new ScalableBloomSet(100, 0.01);
+
+	@Test
+	public void scalableBloomSet_implementsJavaUtilSet() {
+		assertThat(bloomSet, instanceOf(Set.class));
+	}
+
+	@Test
+	public void contains_returnsTrue_forAddedItems() {
+		bloomSet.add("abc");
+
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+		assertThat(bloomSet.contains("def"), equalTo(false));
+	}
+
+	@Test
+	public void add_returnsFalse_ifTheItemHasAlreadyBeenAdded() {
+		assertThat(bloomSet.add("abc"), equalTo(true));
+		assertThat(bloomSet.add("abc"), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void add_rejectsNullItems() {
+		bloomSet.add(null);
+	}
+
+	@Test
+	public void containsLowerCase_returnsTrue_forLowerCaseItems() {
+		bloomSet.addLowerCase("AbC");
+
+		assertThat(bloomSet.containsLowerCase("aBc"), equalTo(true));
+		assertThat(bloomSet.contains("abc"), equalTo(true));
+	}
+
+	@Test
+	public void add_growsTheSet_whenTheCapacityIsReached() {
+		assertThat(bloomSet.slices(), equalTo(1));
+		long initialMemory = bloomSet.memoryUsageBits();
+
+		addItems(bloomSet, 0, 1000);
+
+		assertThat(bloomSet.slices(), greaterThan(1));
+		assertThat(bloomSet.memoryUsageBits(), greaterThan(initialMemory));
+	}
+
+	@Test
+	public void contains_returnsTrue_forItemsInAllSlices() {
+		addItems(bloomSet, 0, 5000);
+
+		for (int i = 0; i < 5000; ++ i) {
+			assertThat(bloomSet.contains("value-" + i), equalTo(true));
+		}
+	}
+
+	@Test
+	public void falsePositiveRatio_staysBelowTheTarget_asTheSetGrows() {
+		addItems(bloomSet, 0, 20000);
+
+		int falsePositives = 0;
+		int checks = 100000;
+		for (int i = 0; i < checks; ++ i) {
+			if (bloomSet.contains("other-" + i)) {
+				++ falsePositives;
+			}
+		}
+		double errorRate = falsePositives / (double) checks;
+
+		assertThat(errorRate, lessThan(0.01));
+		assertThat(bloomSet.expectedFalsePositiveRatio(), lessThan(0.01));
+		assertThat(
+				bloomSet.expectedFalsePositiveRatio(),
+				greaterThan(errorRate * 0.5)
+		);
+	}
+
+	@Test
+	public void clear_removesAllItemsAndSlices() {
+		addItems(bloomSet, 0, 1000);
+
+		bloomSet.clear();
+
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+		assertThat(bloomSet.slices(), equalTo(1));
+		assertThat(bloomSet.contains("value-0"), equalTo(false));
+	}
+
+	@Test
+	public void isEmpty_returnsFalse_ifTheCollectionHasAnyItems() {
+		assertThat(bloomSet.isEmpty(), equalTo(true));
+
+		bloomSet.add("abc");
+
+		assertThat(bloomSet.isEmpty(), equalTo(false));
+	}
+
+	@Test
+	public void equals_returnsTrue_forSimilarSets() {
+		ScalableBloomSet other = new ScalableBloomSet(100, 0.01);
+		addItems(bloomSet, 0, 500);
+		addItems(other, 0, 500);
+
+		assertThat(bloomSet.equals(other), equalTo(true));
+		assertThat(bloomSet.hashCode(), equalTo(other.hashCode()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_rejectsInvalidFalsePositiveRatios() {
+		new ScalableBloomSet(100, 1.5);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void addSlice_rejectsSlicesWhichRoundUpBeyondIntRange() {
+		// the first slice needs 2147483609 bits, which is within an int but
+		// rounds up to 2^31 bits
+		new ScalableBloomSet(224044917, 0.05);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	@SuppressWarnings("deprecation")
+	public void size_isNotSupported() {
+		bloomSet.size();
+	}
+
+	private static void addItems(ScalableBloomSet set, int from, int to) {
+		for (int i = from; i < to; ++ i) {
+			set.add("value-" + i);
+		}
+	}
+}
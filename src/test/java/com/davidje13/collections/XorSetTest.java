@@ -0,0 +1,139 @@
+package com.davidje13.collections;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+@SuppressWarnings("TypeMayBeWeakened")
+public class XorSetTest {
+	private final XorSet xorSet = XorSet.of(asList("abc", "def"));
+
+	@Test
+	public void xorSet_implementsJavaUtilSet() {
+		assertThat(xorSet, instanceOf(Set.class));
+	}
+
+	@Test
+	public void contains_returnsTrue_forIncludedItems() {
+		assertThat(xorSet.contains("abc"), equalTo(true));
+		assertThat(xorSet.contains("def"), equalTo(true));
+		assertThat(xorSet.contains("ghi"), equalTo(false));
+	}
+
+	@Test
+	public void contains_returnsFalse_forNull() {
+		assertThat(xorSet.contains(null), equalTo(false));
+	}
+
+	@Test
+	public void containsLowerCase_matchesLowerCaseItems() {
+		XorSet set = XorSet.ofLowerCase(Stream.of("AbC", "dEf"));
+
+		assertThat(set.containsLowerCase("ABC"), equalTo(true));
+		assertThat(set.contains("abc"), equalTo(true));
+		assertThat(set.contains("AbC"), equalTo(false));
+		assertThat(set.containsLowerCase(null), equalTo(false));
+	}
+
+	@Test
+	public void of_ignoresDuplicates() {
+		XorSet set = XorSet.of(Stream.of("abc", "abc", "def", "abc"));
+
+		assertThat(set.contains("abc"), equalTo(true));
+		assertThat(set.contains("def"), equalTo(true));
+	}
+
+	@Test
+	public void of_acceptsEmptyInput() {
+		XorSet set = XorSet.of(Collections.emptyList());
+
+		assertThat(set.isEmpty(), equalTo(true));
+		assertThat(set.contains("abc"), equalTo(false));
+		assertThat(xorSet.isEmpty(), equalTo(false));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void of_rejectsNullItems() {
+		XorSet.of(asList("abc", null));
+	}
+
+	@Test
+	public void contains_returnsTrue_forAllItems_inLargeSets() {
+		List<String> values = values("value-", 100000);
+		XorSet set = XorSet.of(values);
+
+		for (String value : values) {
+			assertThat(set.contains(value), equalTo(true));
+		}
+	}
+
+	@Test
+	public void falsePositiveRatio_isAboutOneIn256() {
+		XorSet set = XorSet.of(values("value-", 100000));
+
+		long falsePositives = values("other-", 200000).stream()
+				.filter(set::contains)
+				.count();
+		double errorRate = falsePositives / 200000.0;
+
+		double predicted = set.expectedFalsePositiveRatio();
+		assertThat(errorRate, greaterThan(predicted * 0.8));
+		assertThat(errorRate, lessThan(predicted * 1.2));
+	}
+
+	@Test
+	public void memoryUsageBits_isAboutTenBitsPerItem() {
+		XorSet set = XorSet.of(values("value-", 100000));
+
+		double bitsPerItem = set.memoryUsageBits() / 100000.0;
+
+		assertThat(bitsPerItem, lessThan(10.0));
+	}
+
+	@Test
+	public void equals_returnsTrue_forSetsWithTheSameItems() {
+		XorSet other = XorSet.of(asList("def", "abc"));
+
+		assertThat(xorSet.equals(other), equalTo(true));
+		assertThat(xorSet.hashCode(), equalTo(other.hashCode()));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void add_isNotSupported() {
+		xorSet.add("ghi");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void remove_isNotSupported() {
+		xorSet.remove("abc");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void clear_isNotSupported() {
+		xorSet.clear();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	@SuppressWarnings("deprecation")
+	public void size_isNotSupported() {
+		xorSet.size();
+	}
+
+	private static List<String> values(String prefix, int count) {
+		return IntStream.range(0, count)
+				.mapToObj((i) -> prefix + i)
+				.collect(toList());
+	}
+}
@@ -1,33 +1,11 @@
 package com.davidje13.testutil;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.function.Supplier;
 
 public class TestUtils {
-	public static long timeTakenMillis(
-			Runnable runnable
-	) {
-		long begin = System.currentTimeMillis();
-		runnable.run();
-		long end = System.currentTimeMillis();
-
-		return end - begin;
-	}
-
-	public static double averageTimeTakenMillis(
-			int repetitions,
-			Runnable runnable
-	) {
-		long begin = System.currentTimeMillis();
-		for (int rep = 0; rep < repetitions; ++ rep) {
-			runnable.run();
-		}
-		long end = System.currentTimeMillis();
-
-		return (end - begin) / (double) repetitions;
-	}
-
 	public static long averageMemoryUsageBytes(
 			int repetitions,
 			Supplier<?> allocator
@@ -42,6 +20,24 @@ public class TestUtils {
 		return (end - begin) / holder.size();
 	}
 
+	public static double averageAllocatedBytes(
+			int repetitions,
+			Runnable runnable
+	) {
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean)
+						ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		long begin = threads.getThreadAllocatedBytes(thread);
+		for (int rep = 0; rep < repetitions; ++ rep) {
+			runnable.run();
+		}
+		long end = threads.getThreadAllocatedBytes(thread);
+
+		return (end - begin) / (double) repetitions;
+	}
+
 	private static long memoryUsageBytes() {
 		System.gc();
 		Runtime runtime = Runtime.getRuntime();